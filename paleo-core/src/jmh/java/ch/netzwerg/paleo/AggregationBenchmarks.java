@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.netzwerg.paleo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static ch.netzwerg.paleo.ColumnIds.DoubleColumnId;
+import static ch.netzwerg.paleo.ColumnIds.IntColumnId;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@SuppressWarnings("unused")
+public class AggregationBenchmarks {
+
+    private static final int ROW_COUNT = 10_000_000;
+
+    private IntColumn intColumn;
+    private DoubleColumn doubleColumn;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        IntColumn.Builder intBuilder = IntColumn.builder(IntColumnId.of("int"), ROW_COUNT);
+        DoubleColumn.Builder doubleBuilder = DoubleColumn.builder(DoubleColumnId.of("double"), ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            intBuilder.addInt(random.nextInt(1000));
+            doubleBuilder.addDouble(random.nextDouble());
+        }
+        intColumn = intBuilder.build();
+        doubleColumn = doubleBuilder.build();
+    }
+
+    @Benchmark
+    public long intSumStream() {
+        return intColumn.valueStream().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long intSum() {
+        return intColumn.sum();
+    }
+
+    @Benchmark
+    public int intMaxStream() {
+        return intColumn.valueStream().max().getAsInt();
+    }
+
+    @Benchmark
+    public int intMax() {
+        return intColumn.max().getAsInt();
+    }
+
+    @Benchmark
+    public double doubleSumStream() {
+        return doubleColumn.valueStream().sum();
+    }
+
+    @Benchmark
+    public double doubleSum() {
+        return doubleColumn.sum();
+    }
+
+    @Benchmark
+    public double doubleMinStream() {
+        return doubleColumn.valueStream().min().getAsDouble();
+    }
+
+    @Benchmark
+    public double doubleMin() {
+        return doubleColumn.min().getAsDouble();
+    }
+
+    @Benchmark
+    public double doubleVarianceStream() {
+        double mean = doubleColumn.valueStream().average().getAsDouble();
+        return doubleColumn.valueStream().map(v -> (v - mean) * (v - mean)).sum() / (ROW_COUNT - 1);
+    }
+
+    @Benchmark
+    public double doubleVariance() {
+        return doubleColumn.variance().getAsDouble();
+    }
+
+}
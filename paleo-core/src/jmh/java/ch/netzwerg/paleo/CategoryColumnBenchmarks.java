@@ -15,12 +15,11 @@
  */
 package ch.netzwerg.paleo;
 
-import io.vavr.collection.List;
 import org.openjdk.jmh.annotations.*;
 
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
 
+@State(Scope.Benchmark)
 @Warmup(iterations = 3)
 @Measurement(iterations = 3)
 @BenchmarkMode(Mode.AverageTime)
@@ -29,16 +28,40 @@ import java.util.stream.IntStream;
 public class CategoryColumnBenchmarks {
 
     private static final int ROW_COUNT = 100_000;
-    private static final List<String> UNIQUE_STRINGS = List.ofAll(() -> IntStream.range(0, ROW_COUNT).mapToObj(String::valueOf).iterator());
+
+    // low (e.g. months), medium, and high (i.e. all unique) cardinality
+    @Param({"12", "1000", "100000"})
+    private int cardinality;
+
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        values = new String[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            values[i] = String.valueOf(i % cardinality);
+        }
+    }
 
     @Benchmark
-    public void buildCategoryColumn() {
-        CategoryColumn.Builder builder = CategoryColumn.builder(ColumnIds.CategoryColumnId.of("test"));
-        UNIQUE_STRINGS.forEach(builder::add);
+    public CategoryColumn buildCategoryColumn() {
+        return build(CategoryColumn.builder(ColumnIds.CategoryColumnId.of("test")));
+    }
+
+    @Benchmark
+    public CategoryColumn buildCategoryColumnWithExpectedCardinality() {
+        return build(CategoryColumn.builder(ColumnIds.CategoryColumnId.of("test"), cardinality));
+    }
+
+    private CategoryColumn build(CategoryColumn.Builder builder) {
+        for (String value : values) {
+            builder.add(value);
+        }
         CategoryColumn column = builder.build();
-        if (column.getRowCount() != ROW_COUNT) {
-            throw new IllegalArgumentException("Building failed – expected 1 mio rows");
+        if (column.getRowCount() != ROW_COUNT || column.getCategoryCount() != cardinality) {
+            throw new IllegalArgumentException("Building failed – expected " + ROW_COUNT + " rows");
         }
+        return column;
     }
 
 }
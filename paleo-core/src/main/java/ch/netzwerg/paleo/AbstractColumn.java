@@ -16,6 +16,7 @@
 
 package ch.netzwerg.paleo;
 
+import io.vavr.collection.Array;
 import io.vavr.collection.IndexedSeq;
 import io.vavr.collection.Map;
 import io.vavr.collection.Stream;
@@ -61,4 +62,20 @@ abstract class AbstractColumn<V, I extends GenericColumnId> implements Column<I>
         return values.get(index);
     }
 
+    final IndexedSeq<V> sliceValues(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, getRowCount());
+        return values.slice(fromIndex, toIndex);
+    }
+
+    final IndexedSeq<V> takeValues(int[] rowIndices) {
+        @SuppressWarnings("unchecked")
+        V[] taken = (V[]) new Object[rowIndices.length];
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, getRowCount());
+            taken[i] = rowIndex < 0 ? null : values.get(rowIndex);
+        }
+        return Array.of(taken);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,389 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+
+/**
+ * Aggregate function for {@link DataFrame#groupBy}, which produces one result column. The id of that column is
+ * available via {@link #getResultId()} (named e.g. {@code "sum(Age)"} by default, see {@link #as(String)}).
+ * Missing values are skipped, and aggregates of groups without any values are missing as well (except for sums, which
+ * are {@code 0}).
+ *
+ * @param <I> type of the result column id
+ */
+public final class Aggregate<I extends ColumnId> {
+
+    private enum Kind {
+        COUNT, SUM, MEAN, MIN, MAX
+    }
+
+    private final Kind kind;
+    private final ColumnId sourceId;
+    private final Function<String, I> resultIdFactory;
+    private final I resultId;
+
+    private Aggregate(Kind kind, ColumnId sourceId, Function<String, I> resultIdFactory, String resultName) {
+        this.kind = kind;
+        this.sourceId = sourceId;
+        this.resultIdFactory = resultIdFactory;
+        this.resultId = resultIdFactory.apply(resultName);
+    }
+
+    private static <I extends ColumnId> Aggregate<I> of(Kind kind, ColumnId sourceId, Function<String, I> resultIdFactory) {
+        String name = kind.name().toLowerCase(Locale.ROOT) + "(" + sourceId.getName() + ")";
+        return new Aggregate<>(kind, sourceId, resultIdFactory, name);
+    }
+
+    /**
+     * Counts the rows of each group.
+     */
+    public static Aggregate<IntColumnId> count() {
+        return new Aggregate<>(Kind.COUNT, null, IntColumnId::of, "count");
+    }
+
+    public static Aggregate<LongColumnId> sum(IntColumnId sourceId) {
+        return of(Kind.SUM, sourceId, LongColumnId::of);
+    }
+
+    public static Aggregate<LongColumnId> sum(LongColumnId sourceId) {
+        return of(Kind.SUM, sourceId, LongColumnId::of);
+    }
+
+    public static Aggregate<DoubleColumnId> sum(DoubleColumnId sourceId) {
+        return of(Kind.SUM, sourceId, DoubleColumnId::of);
+    }
+
+    public static Aggregate<DoubleColumnId> mean(IntColumnId sourceId) {
+        return of(Kind.MEAN, sourceId, DoubleColumnId::of);
+    }
+
+    public static Aggregate<DoubleColumnId> mean(LongColumnId sourceId) {
+        return of(Kind.MEAN, sourceId, DoubleColumnId::of);
+    }
+
+    public static Aggregate<DoubleColumnId> mean(DoubleColumnId sourceId) {
+        return of(Kind.MEAN, sourceId, DoubleColumnId::of);
+    }
+
+    public static Aggregate<IntColumnId> min(IntColumnId sourceId) {
+        return of(Kind.MIN, sourceId, IntColumnId::of);
+    }
+
+    public static Aggregate<LongColumnId> min(LongColumnId sourceId) {
+        return of(Kind.MIN, sourceId, LongColumnId::of);
+    }
+
+    public static Aggregate<DoubleColumnId> min(DoubleColumnId sourceId) {
+        return of(Kind.MIN, sourceId, DoubleColumnId::of);
+    }
+
+    public static Aggregate<IntColumnId> max(IntColumnId sourceId) {
+        return of(Kind.MAX, sourceId, IntColumnId::of);
+    }
+
+    public static Aggregate<LongColumnId> max(LongColumnId sourceId) {
+        return of(Kind.MAX, sourceId, LongColumnId::of);
+    }
+
+    public static Aggregate<DoubleColumnId> max(DoubleColumnId sourceId) {
+        return of(Kind.MAX, sourceId, DoubleColumnId::of);
+    }
+
+    /**
+     * Returns a copy of this aggregate with a differently named result column.
+     */
+    public Aggregate<I> as(String resultName) {
+        return new Aggregate<>(kind, sourceId, resultIdFactory, resultName);
+    }
+
+    public I getResultId() {
+        return resultId;
+    }
+
+    /**
+     * Registers the per-group statistics this aggregate needs, which are shared between all aggregates of the same
+     * source column (i.e. e.g. the sum and the mean of a column are accumulated together).
+     */
+    void addStats(DataFrame dataFrame, GroupBy.Groups groups, Map<ColumnId, Stats> statsBySourceId) {
+        if (kind != Kind.COUNT) {
+            statsBySourceId.computeIfAbsent(sourceId, id -> Stats.of(dataFrame.getColumn(id), groups.getGroupCount()));
+        }
+    }
+
+    /**
+     * Computes the result column from the (fully accumulated) statistics registered via {@link #addStats}.
+     */
+    Column<?> compute(GroupBy.Groups groups, Map<ColumnId, Stats> statsBySourceId) {
+        if (kind == Kind.COUNT) {
+            IntColumn.Builder builder = IntColumn.builder((IntColumnId) resultId, groups.emittedGroups.length);
+            for (int group : groups.emittedGroups) {
+                builder.addInt(groups.groupSizes[group]);
+            }
+            return builder.build();
+        }
+        Stats stats = statsBySourceId.get(sourceId);
+        if (stats instanceof IntStats) {
+            return compute((IntStats) stats, groups.emittedGroups);
+        } else if (stats instanceof LongStats) {
+            return compute((LongStats) stats, groups.emittedGroups);
+        } else {
+            return compute((DoubleStats) stats, groups.emittedGroups);
+        }
+    }
+
+    private Column<?> compute(IntStats stats, int[] groups) {
+        switch (kind) {
+            case SUM:
+                return longColumn(stats.sums, null, groups);
+            case MEAN:
+                return meanColumn(stats.sums, stats.counts, groups);
+            case MIN:
+                return intColumn(stats.mins, stats.counts, groups);
+            default:
+                return intColumn(stats.maxs, stats.counts, groups);
+        }
+    }
+
+    private Column<?> compute(LongStats stats, int[] groups) {
+        switch (kind) {
+            case SUM:
+                return longColumn(stats.sums, null, groups);
+            case MEAN:
+                return meanColumn(stats.doubleSums, stats.counts, groups);
+            case MIN:
+                return longColumn(stats.mins, stats.counts, groups);
+            default:
+                return longColumn(stats.maxs, stats.counts, groups);
+        }
+    }
+
+    private Column<?> compute(DoubleStats stats, int[] groups) {
+        switch (kind) {
+            case SUM:
+                return doubleColumn(stats.sums, null, groups);
+            case MEAN:
+                return meanColumn(stats.sums, stats.counts, groups);
+            case MIN:
+                return doubleColumn(stats.mins, stats.counts, groups);
+            default:
+                return doubleColumn(stats.maxs, stats.counts, groups);
+        }
+    }
+
+    // a null counts array denotes that all values are present
+
+    private IntColumn intColumn(int[] values, int[] counts, int[] groups) {
+        IntColumn.Builder builder = IntColumn.builder((IntColumnId) resultId, groups.length);
+        for (int group : groups) {
+            if (counts != null && counts[group] == 0) {
+                builder.addNull();
+            } else {
+                builder.addInt(values[group]);
+            }
+        }
+        return builder.build();
+    }
+
+    private LongColumn longColumn(long[] values, int[] counts, int[] groups) {
+        LongColumn.Builder builder = LongColumn.builder((LongColumnId) resultId, groups.length);
+        for (int group : groups) {
+            if (counts != null && counts[group] == 0) {
+                builder.addNull();
+            } else {
+                builder.addLong(values[group]);
+            }
+        }
+        return builder.build();
+    }
+
+    private DoubleColumn doubleColumn(double[] values, int[] counts, int[] groups) {
+        DoubleColumn.Builder builder = DoubleColumn.builder((DoubleColumnId) resultId, groups.length);
+        for (int group : groups) {
+            if (counts != null && counts[group] == 0) {
+                builder.addNull();
+            } else {
+                builder.addDouble(values[group]);
+            }
+        }
+        return builder.build();
+    }
+
+    private DoubleColumn meanColumn(long[] sums, int[] counts, int[] groups) {
+        DoubleColumn.Builder builder = DoubleColumn.builder((DoubleColumnId) resultId, groups.length);
+        for (int group : groups) {
+            if (counts[group] == 0) {
+                builder.addNull();
+            } else {
+                builder.addDouble((double) sums[group] / counts[group]);
+            }
+        }
+        return builder.build();
+    }
+
+    private DoubleColumn meanColumn(double[] sums, int[] counts, int[] groups) {
+        DoubleColumn.Builder builder = DoubleColumn.builder((DoubleColumnId) resultId, groups.length);
+        for (int group : groups) {
+            if (counts[group] == 0) {
+                builder.addNull();
+            } else {
+                builder.addDouble(sums[group] / counts[group]);
+            }
+        }
+        return builder.build();
+    }
+
+    // -- Per-group accumulators (count, sum, min and max are always collected together)
+
+    /**
+     * Per-group statistics of one source column, which are accumulated range by range of rows (see
+     * {@link GroupBy}).
+     */
+    abstract static class Stats {
+
+        static Stats of(Column<?> column, int groupCount) {
+            if (column instanceof IntColumn) {
+                return new IntStats((IntColumn) column, groupCount);
+            } else if (column instanceof LongColumn) {
+                return new LongStats((LongColumn) column, groupCount);
+            } else {
+                return new DoubleStats((DoubleColumn) column, groupCount);
+            }
+        }
+
+        /**
+         * Adds the values of the rows from {@code fromRow} (inclusive) to {@code toRow} (exclusive) to their groups.
+         */
+        abstract void accumulate(int[] groupOfRow, int fromRow, int toRow);
+
+    }
+
+    private static final class IntStats extends Stats {
+
+        private final IntColumn column;
+        private final int[] counts;
+        private final long[] sums;
+        private final int[] mins;
+        private final int[] maxs;
+
+        private IntStats(IntColumn column, int groupCount) {
+            this.column = column;
+            this.counts = new int[groupCount];
+            this.sums = new long[groupCount];
+            this.mins = new int[groupCount];
+            this.maxs = new int[groupCount];
+            Arrays.fill(mins, Integer.MAX_VALUE);
+            Arrays.fill(maxs, Integer.MIN_VALUE);
+        }
+
+        @Override
+        void accumulate(int[] groupOfRow, int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+                int group = groupOfRow[row];
+                if (group != GroupBy.NO_GROUP && !column.isNullAt(row)) {
+                    int value = column.getValueAt(row);
+                    counts[group]++;
+                    sums[group] += value;
+                    mins[group] = Math.min(mins[group], value);
+                    maxs[group] = Math.max(maxs[group], value);
+                }
+            }
+        }
+
+    }
+
+    private static final class LongStats extends Stats {
+
+        private final LongColumn column;
+        private final int[] counts;
+        private final long[] sums;
+        private final double[] doubleSums;
+        private final long[] mins;
+        private final long[] maxs;
+
+        private LongStats(LongColumn column, int groupCount) {
+            this.column = column;
+            this.counts = new int[groupCount];
+            this.sums = new long[groupCount];
+            this.doubleSums = new double[groupCount];
+            this.mins = new long[groupCount];
+            this.maxs = new long[groupCount];
+            Arrays.fill(mins, Long.MAX_VALUE);
+            Arrays.fill(maxs, Long.MIN_VALUE);
+        }
+
+        @Override
+        void accumulate(int[] groupOfRow, int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+                int group = groupOfRow[row];
+                if (group != GroupBy.NO_GROUP && !column.isNullAt(row)) {
+                    long value = column.getValueAt(row);
+                    counts[group]++;
+                    sums[group] += value;
+                    doubleSums[group] += value;
+                    mins[group] = Math.min(mins[group], value);
+                    maxs[group] = Math.max(maxs[group], value);
+                }
+            }
+        }
+
+    }
+
+    private static final class DoubleStats extends Stats {
+
+        private final DoubleColumn column;
+        private final int[] counts;
+        private final double[] sums;
+        private final double[] compensations;
+        private final double[] mins;
+        private final double[] maxs;
+
+        private DoubleStats(DoubleColumn column, int groupCount) {
+            this.column = column;
+            this.counts = new int[groupCount];
+            this.sums = new double[groupCount];
+            this.compensations = new double[groupCount];
+            this.mins = new double[groupCount];
+            this.maxs = new double[groupCount];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        }
+
+        @Override
+        void accumulate(int[] groupOfRow, int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+                int group = groupOfRow[row];
+                if (group != GroupBy.NO_GROUP && !column.isNullAt(row)) {
+                    double value = column.getValueAt(row);
+                    counts[group]++;
+                    // Kahan summation per group (without compensation for infinite sums, which would turn them into NaN)
+                    double y = value - compensations[group];
+                    double t = sums[group] + y;
+                    compensations[group] = Double.isInfinite(t) ? 0 : (t - sums[group]) - y;
+                    sums[group] = t;
+                    mins[group] = Math.min(mins[group], value);
+                    maxs[group] = Math.max(maxs[group], value);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,411 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import java.util.BitSet;
+
+/**
+ * Aggregation kernels which operate directly on the backing arrays of numeric columns. Missing values are skipped by
+ * splitting the row range into runs of non-null values, so that the inner loops are plain (4-way unrolled) array
+ * scans without any per-element null checks.
+ */
+final class Aggregations {
+
+    private Aggregations() {
+    }
+
+    // -- Runs of non-null values
+
+    private static int runEnd(BitSet nulls, int from, int end) {
+        int nextNull = nulls.nextSetBit(from);
+        return nextNull < 0 || nextNull > end ? end : nextNull;
+    }
+
+    private static int nextRunStart(BitSet nulls, int from, int end) {
+        return Math.min(nulls.nextClearBit(from), end);
+    }
+
+    // -- int
+
+    static long sum(int[] values, BitSet nulls, int offset, int length) {
+        long sum = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            sum += sum(values, from, to);
+            from = nextRunStart(nulls, to, end);
+        }
+        return sum;
+    }
+
+    private static long sum(int[] values, int from, int to) {
+        long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            s0 += values[i];
+            s1 += values[i + 1];
+            s2 += values[i + 2];
+            s3 += values[i + 3];
+        }
+        for (; i < to; i++) {
+            s0 += values[i];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    static int min(int[] values, BitSet nulls, int offset, int length) {
+        int min = Integer.MAX_VALUE;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            int m0 = min, m1 = min, m2 = min, m3 = min;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                m0 = Math.min(m0, values[i]);
+                m1 = Math.min(m1, values[i + 1]);
+                m2 = Math.min(m2, values[i + 2]);
+                m3 = Math.min(m3, values[i + 3]);
+            }
+            for (; i < to; i++) {
+                m0 = Math.min(m0, values[i]);
+            }
+            min = Math.min(Math.min(m0, m1), Math.min(m2, m3));
+            from = nextRunStart(nulls, to, end);
+        }
+        return min;
+    }
+
+    static int max(int[] values, BitSet nulls, int offset, int length) {
+        int max = Integer.MIN_VALUE;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            int m0 = max, m1 = max, m2 = max, m3 = max;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                m0 = Math.max(m0, values[i]);
+                m1 = Math.max(m1, values[i + 1]);
+                m2 = Math.max(m2, values[i + 2]);
+                m3 = Math.max(m3, values[i + 3]);
+            }
+            for (; i < to; i++) {
+                m0 = Math.max(m0, values[i]);
+            }
+            max = Math.max(Math.max(m0, m1), Math.max(m2, m3));
+            from = nextRunStart(nulls, to, end);
+        }
+        return max;
+    }
+
+    /**
+     * Sum of squared deviations from the given mean (i.e. the second pass of a two-pass variance computation).
+     */
+    static double squaredDeviations(int[] values, BitSet nulls, int offset, int length, double mean) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                double d0 = values[i] - mean;
+                double d1 = values[i + 1] - mean;
+                double d2 = values[i + 2] - mean;
+                double d3 = values[i + 3] - mean;
+                s0 += d0 * d0;
+                s1 += d1 * d1;
+                s2 += d2 * d2;
+                s3 += d3 * d3;
+            }
+            for (; i < to; i++) {
+                double d = values[i] - mean;
+                s0 += d * d;
+            }
+            from = nextRunStart(nulls, to, end);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // -- long
+
+    static long sum(long[] values, BitSet nulls, int offset, int length) {
+        long sum = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            long s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                s0 += values[i];
+                s1 += values[i + 1];
+                s2 += values[i + 2];
+                s3 += values[i + 3];
+            }
+            for (; i < to; i++) {
+                s0 += values[i];
+            }
+            sum += s0 + s1 + s2 + s3;
+            from = nextRunStart(nulls, to, end);
+        }
+        return sum;
+    }
+
+    /**
+     * Kahan-compensated sum of the values converted to {@code double} (i.e. without overflow, as needed for the mean).
+     */
+    static double doubleSum(long[] values, BitSet nulls, int offset, int length) {
+        KahanSum sum = new KahanSum();
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            for (int i = from; i < to; i++) {
+                sum.add(values[i]);
+            }
+            from = nextRunStart(nulls, to, end);
+        }
+        return sum.get();
+    }
+
+    static long min(long[] values, BitSet nulls, int offset, int length) {
+        long min = Long.MAX_VALUE;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            long m0 = min, m1 = min, m2 = min, m3 = min;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                m0 = Math.min(m0, values[i]);
+                m1 = Math.min(m1, values[i + 1]);
+                m2 = Math.min(m2, values[i + 2]);
+                m3 = Math.min(m3, values[i + 3]);
+            }
+            for (; i < to; i++) {
+                m0 = Math.min(m0, values[i]);
+            }
+            min = Math.min(Math.min(m0, m1), Math.min(m2, m3));
+            from = nextRunStart(nulls, to, end);
+        }
+        return min;
+    }
+
+    static long max(long[] values, BitSet nulls, int offset, int length) {
+        long max = Long.MIN_VALUE;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            long m0 = max, m1 = max, m2 = max, m3 = max;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                m0 = Math.max(m0, values[i]);
+                m1 = Math.max(m1, values[i + 1]);
+                m2 = Math.max(m2, values[i + 2]);
+                m3 = Math.max(m3, values[i + 3]);
+            }
+            for (; i < to; i++) {
+                m0 = Math.max(m0, values[i]);
+            }
+            max = Math.max(Math.max(m0, m1), Math.max(m2, m3));
+            from = nextRunStart(nulls, to, end);
+        }
+        return max;
+    }
+
+    static double squaredDeviations(long[] values, BitSet nulls, int offset, int length, double mean) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                double d0 = values[i] - mean;
+                double d1 = values[i + 1] - mean;
+                double d2 = values[i + 2] - mean;
+                double d3 = values[i + 3] - mean;
+                s0 += d0 * d0;
+                s1 += d1 * d1;
+                s2 += d2 * d2;
+                s3 += d3 * d3;
+            }
+            for (; i < to; i++) {
+                double d = values[i] - mean;
+                s0 += d * d;
+            }
+            from = nextRunStart(nulls, to, end);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // -- double
+
+    /**
+     * Kahan-compensated sum, using four independent accumulators (which are combined with compensation as well).
+     */
+    static double sum(double[] values, BitSet nulls, int offset, int length) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        double c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                double y0 = values[i] - c0;
+                double t0 = s0 + y0;
+                c0 = (t0 - s0) - y0;
+                s0 = t0;
+                double y1 = values[i + 1] - c1;
+                double t1 = s1 + y1;
+                c1 = (t1 - s1) - y1;
+                s1 = t1;
+                double y2 = values[i + 2] - c2;
+                double t2 = s2 + y2;
+                c2 = (t2 - s2) - y2;
+                s2 = t2;
+                double y3 = values[i + 3] - c3;
+                double t3 = s3 + y3;
+                c3 = (t3 - s3) - y3;
+                s3 = t3;
+            }
+            for (; i < to; i++) {
+                double y0 = values[i] - c0;
+                double t0 = s0 + y0;
+                c0 = (t0 - s0) - y0;
+                s0 = t0;
+            }
+            from = nextRunStart(nulls, to, end);
+        }
+        KahanSum sum = new KahanSum();
+        sum.add(s0);
+        sum.add(-c0);
+        sum.add(s1);
+        sum.add(-c1);
+        sum.add(s2);
+        sum.add(-c2);
+        sum.add(s3);
+        sum.add(-c3);
+        double result = sum.get();
+        // compensation turns infinite values into NaN, in which case the naive sum has the correct result
+        return Double.isNaN(result) ? naiveSum(values, nulls, offset, length) : result;
+    }
+
+    private static double naiveSum(double[] values, BitSet nulls, int offset, int length) {
+        double sum = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            for (int i = from; i < to; i++) {
+                sum += values[i];
+            }
+            from = nextRunStart(nulls, to, end);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the minimum (or {@code NaN} if any value is {@code NaN}, just like {@link Math#min(double, double)}).
+     */
+    static double min(double[] values, BitSet nulls, int offset, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            double m0 = min, m1 = min, m2 = min, m3 = min;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                m0 = Math.min(m0, values[i]);
+                m1 = Math.min(m1, values[i + 1]);
+                m2 = Math.min(m2, values[i + 2]);
+                m3 = Math.min(m3, values[i + 3]);
+            }
+            for (; i < to; i++) {
+                m0 = Math.min(m0, values[i]);
+            }
+            min = Math.min(Math.min(m0, m1), Math.min(m2, m3));
+            from = nextRunStart(nulls, to, end);
+        }
+        return min;
+    }
+
+    static double max(double[] values, BitSet nulls, int offset, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            double m0 = max, m1 = max, m2 = max, m3 = max;
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                m0 = Math.max(m0, values[i]);
+                m1 = Math.max(m1, values[i + 1]);
+                m2 = Math.max(m2, values[i + 2]);
+                m3 = Math.max(m3, values[i + 3]);
+            }
+            for (; i < to; i++) {
+                m0 = Math.max(m0, values[i]);
+            }
+            max = Math.max(Math.max(m0, m1), Math.max(m2, m3));
+            from = nextRunStart(nulls, to, end);
+        }
+        return max;
+    }
+
+    static double squaredDeviations(double[] values, BitSet nulls, int offset, int length, double mean) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int end = offset + length;
+        for (int from = nextRunStart(nulls, offset, end); from < end; ) {
+            int to = runEnd(nulls, from, end);
+            int i = from;
+            for (; i + 3 < to; i += 4) {
+                double d0 = values[i] - mean;
+                double d1 = values[i + 1] - mean;
+                double d2 = values[i + 2] - mean;
+                double d3 = values[i + 3] - mean;
+                s0 += d0 * d0;
+                s1 += d1 * d1;
+                s2 += d2 * d2;
+                s3 += d3 * d3;
+            }
+            for (; i < to; i++) {
+                double d = values[i] - mean;
+                s0 += d * d;
+            }
+            from = nextRunStart(nulls, to, end);
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * Sample variance (i.e. with Bessel's correction) for the given number of values.
+     */
+    static double variance(double squaredDeviations, int count) {
+        return squaredDeviations / (count - 1);
+    }
+
+    static final class KahanSum {
+
+        private double sum;
+        private double compensation;
+
+        void add(double value) {
+            double y = value - compensation;
+            double t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+
+        double get() {
+            return sum;
+        }
+
+    }
+
+}
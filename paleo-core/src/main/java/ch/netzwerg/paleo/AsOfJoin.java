@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.StringDictionary;
+import io.vavr.collection.Array;
+import io.vavr.control.Option;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static ch.netzwerg.paleo.ColumnIds.CategoryColumnId;
+import static ch.netzwerg.paleo.ColumnIds.TimestampColumnId;
+
+/**
+ * As-of (merge) join: each left row is matched with the latest right row at or before its timestamp (optionally
+ * within the same partition, and within a tolerance). Both sides have to be sorted by timestamp, which allows matching
+ * in a single linear pass with one cursor per side, remembering the latest right row of each partition.
+ */
+final class AsOfJoin {
+
+    private static final int NO_ROW = -1;
+
+    private AsOfJoin() {
+    }
+
+    static DataFrame join(DataFrame left, TimestampColumnId timestampId, DataFrame right, TimestampColumnId otherTimestampId,
+                          Option<CategoryColumnId> byId, Option<CategoryColumnId> otherById, Option<Duration> tolerance) {
+        TimestampColumn leftTimes = left.getColumn(timestampId);
+        TimestampColumn rightTimes = right.getColumn(otherTimestampId);
+        CategoryColumn leftPartitions = byId.map(left::getColumn).getOrNull();
+        CategoryColumn rightPartitions = otherById.map(right::getColumn).getOrNull();
+        if ((leftPartitions == null) != (rightPartitions == null)) {
+            throw new IllegalArgumentException("Partition keys have to be given for both sides");
+        }
+
+        // maps left partitions to right ones (once per category rather than once per row)
+        int[] rightPartitionByLeftCode = null;
+        int[] latestRowByPartition = new int[rightPartitions == null ? 1 : rightPartitions.getCategoryCount()];
+        Arrays.fill(latestRowByPartition, NO_ROW);
+        if (leftPartitions != null) {
+            StringDictionary rightCodes = new StringDictionary(rightPartitions.getCategoryCount());
+            for (int code = 0; code < rightPartitions.getCategoryCount(); code++) {
+                rightCodes.getOrAddCode(rightPartitions.getCategory(code));
+            }
+            rightPartitionByLeftCode = new int[leftPartitions.getCategoryCount()];
+            for (int code = 0; code < rightPartitionByLeftCode.length; code++) {
+                rightPartitionByLeftCode[code] = rightCodes.getCode(leftPartitions.getCategory(code));
+            }
+        }
+
+        long toleranceSeconds = tolerance.map(Duration::getSeconds).getOrElse(Long.MAX_VALUE);
+        int toleranceNanos = tolerance.map(Duration::getNano).getOrElse(0);
+        if (toleranceSeconds < 0) {
+            throw new IllegalArgumentException("Tolerance must not be negative");
+        }
+
+        int leftRowCount = leftTimes.getRowCount();
+        int rightRowCount = rightTimes.getRowCount();
+        int[] matches = new int[leftRowCount];
+        int previousLeft = NO_ROW;
+        int previousRight = NO_ROW;
+        int rightRow = 0;
+        for (int leftRow = 0; leftRow < leftRowCount; leftRow++) {
+            matches[leftRow] = NO_ROW;
+            if (leftTimes.isNullAt(leftRow)) {
+                continue;
+            }
+            checkSorted(leftTimes, previousLeft, leftRow, timestampId);
+            previousLeft = leftRow;
+
+            // advance the right side up to the current timestamp
+            for (; rightRow < rightRowCount; rightRow++) {
+                if (rightTimes.isNullAt(rightRow)) {
+                    continue;
+                }
+                if (compare(rightTimes, rightRow, leftTimes, leftRow) > 0) {
+                    break;
+                }
+                checkSorted(rightTimes, previousRight, rightRow, otherTimestampId);
+                previousRight = rightRow;
+                if (rightPartitions == null) {
+                    latestRowByPartition[0] = rightRow;
+                } else if (!rightPartitions.isNullAt(rightRow)) {
+                    latestRowByPartition[rightPartitions.getCodeAt(rightRow)] = rightRow;
+                }
+            }
+
+            int partition = 0;
+            if (leftPartitions != null) {
+                partition = leftPartitions.isNullAt(leftRow) ? NO_ROW : rightPartitionByLeftCode[leftPartitions.getCodeAt(leftRow)];
+            }
+            if (partition != NO_ROW) {
+                int match = latestRowByPartition[partition];
+                if (match != NO_ROW && isWithinTolerance(rightTimes, match, leftTimes, leftRow, toleranceSeconds, toleranceNanos)) {
+                    matches[leftRow] = match;
+                }
+            }
+        }
+
+        Array<Column<?>> rightColumns = Array.ofAll(right.getColumns())
+                .filter(column -> column.getId() != otherTimestampId && (rightPartitions == null || column != rightPartitions))
+                .map(column -> column.take(matches));
+        return DataFrame.ofAll(Array.ofAll(left.getColumns()).appendAll(rightColumns)).withMetaData(left.getMetaData());
+    }
+
+    private static int compare(TimestampColumn a, int rowA, TimestampColumn b, int rowB) {
+        int result = Long.compare(a.getEpochSecondAt(rowA), b.getEpochSecondAt(rowB));
+        return result != 0 ? result : Integer.compare(a.getNanoAt(rowA), b.getNanoAt(rowB));
+    }
+
+    private static void checkSorted(TimestampColumn column, int previousRow, int row, TimestampColumnId id) {
+        if (previousRow != NO_ROW && compare(column, previousRow, column, row) > 0) {
+            String msg = String.format("Column '%s' is not sorted by time (at row %d)", id.getName(), row);
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    private static boolean isWithinTolerance(TimestampColumn right, int rightRow, TimestampColumn left, int leftRow, long toleranceSeconds, int toleranceNanos) {
+        if (toleranceSeconds == Long.MAX_VALUE) {
+            return true;
+        }
+        // left is at or after right, i.e. the difference is non-negative
+        long seconds = left.getEpochSecondAt(leftRow) - right.getEpochSecondAt(rightRow);
+        int nanos = left.getNanoAt(leftRow) - right.getNanoAt(rightRow);
+        if (nanos < 0) {
+            seconds--;
+            nanos += 1_000_000_000;
+        }
+        return seconds < toleranceSeconds || (seconds == toleranceSeconds && nanos <= toleranceNanos);
+    }
+
+}
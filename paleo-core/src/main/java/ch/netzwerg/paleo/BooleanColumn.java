@@ -19,22 +19,29 @@ package ch.netzwerg.paleo;
 import ch.netzwerg.paleo.ColumnIds.BooleanColumnId;
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 import io.vavr.collection.Stream;
 
 import java.util.BitSet;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public final class BooleanColumn implements Column<BooleanColumnId> {
 
+    private static final int DEFAULT_EXPECTED_SIZE = 64;
+
     private final BooleanColumnId id;
-    private final int rowCount;
     private final BitSet values;
+    private final BitSet nulls;
+    private final int offset;
+    private final int rowCount;
     private final Map<String, String> metaData;
+    private volatile ColumnStatistics<Boolean> statistics; // computed lazily
 
-    private BooleanColumn(BooleanColumnId id, int rowCount, BitSet values, Map<String, String> metaData) {
+    private BooleanColumn(BooleanColumnId id, BitSet values, BitSet nulls, int offset, int rowCount, Map<String, String> metaData) {
         this.id = id;
+        this.values = values;
+        this.nulls = nulls;
+        this.offset = offset;
         this.rowCount = rowCount;
-        this.values = (BitSet) values.clone();
         this.metaData = metaData;
     }
 
@@ -51,7 +58,14 @@ public final class BooleanColumn implements Column<BooleanColumnId> {
     }
 
     public static Builder builder(BooleanColumnId id) {
-        return new Builder(id);
+        return new Builder(id, DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a builder which pre-sizes its value buffer for the given number of rows.
+     */
+    public static Builder builder(BooleanColumnId id, int expectedSize) {
+        return new Builder(id, expectedSize);
     }
 
     @Override
@@ -69,36 +83,133 @@ public final class BooleanColumn implements Column<BooleanColumnId> {
         return metaData;
     }
 
+    /**
+     * Returns the value at the given row, which is {@code false} for missing values (see {@link #isNullAt(int)}).
+     */
     public boolean getValueAt(int rowIndex) {
-        return values.get(rowIndex);
+        Slices.checkIndex(rowIndex, rowCount);
+        return values.get(offset + rowIndex);
+    }
+
+    public boolean isNullAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, rowCount);
+        return nulls.get(offset + rowIndex);
+    }
+
+    public boolean hasNulls() {
+        return Slices.anySet(nulls, offset, rowCount);
+    }
+
+    public int getNullCount() {
+        return Slices.cardinality(nulls, offset, rowCount);
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<Boolean> getStatistics() {
+        ColumnStatistics<Boolean> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
     }
 
     public Stream<Boolean> valueStream() {
-        return Stream.range(0, rowCount).map(values::get);
+        return Stream.range(0, rowCount).map(this::getValueAt);
+    }
+
+    @Override
+    public BooleanColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, rowCount);
+        return new BooleanColumn(id, values, nulls, offset + fromIndex, toIndex - fromIndex, metaData);
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     */
+    @Override
+    public BooleanColumn take(int[] rowIndices) {
+        BitSet taken = new BitSet(rowIndices.length);
+        BitSet takenNulls = new BitSet();
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, rowCount);
+            if (rowIndex < 0 || nulls.get(offset + rowIndex)) {
+                takenNulls.set(i);
+            } else if (values.get(offset + rowIndex)) {
+                taken.set(i);
+            }
+        }
+        return new BooleanColumn(id, taken, takenNulls, 0, rowIndices.length, metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column.
+     */
+    static BooleanColumn concat(Seq<BooleanColumn> columns) {
+        int rowCount = Slices.totalRowCount(columns);
+        BitSet concatenated = new BitSet(rowCount);
+        BitSet concatenatedNulls = new BitSet();
+        int position = 0;
+        for (BooleanColumn column : columns) {
+            Slices.copyBits(column.values, column.offset, column.rowCount, concatenated, position);
+            Slices.copyBits(column.nulls, column.offset, column.rowCount, concatenatedNulls, position);
+            position += column.rowCount;
+        }
+        BooleanColumn first = columns.head();
+        return new BooleanColumn(first.id, concatenated, concatenatedNulls, 0, rowCount, first.metaData);
     }
 
     public static final class Builder implements Column.Builder<Boolean, BooleanColumn> {
 
         private final BooleanColumnId id;
-        private final AtomicInteger rowIndex;
         private final BitSet values;
+        private final BitSet nulls;
         private final MetaDataBuilder metaDataBuilder;
+        private int rowCount;
 
-        private Builder(BooleanColumnId id) {
+        private Builder(BooleanColumnId id, int expectedSize) {
             this.id = id;
-            this.rowIndex = new AtomicInteger();
-            this.values = new BitSet();
+            this.values = new BitSet(expectedSize);
+            this.nulls = new BitSet();
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
+        /**
+         * Adds the given value, where {@code null} denotes a missing value.
+         */
         @Override
         public Builder add(Boolean value) {
-            values.set(rowIndex.getAndIncrement(), value);
+            return value == null ? addNull() : addBoolean(value);
+        }
+
+        /**
+         * Adds a missing value (which is only recorded in a validity bitmap).
+         */
+        public Builder addNull() {
+            nulls.set(rowCount++);
+            return this;
+        }
+
+        /**
+         * Unboxed variant of {@link #add(Boolean)}.
+         */
+        public Builder addBoolean(boolean value) {
+            if (value) {
+                values.set(rowCount);
+            }
+            rowCount++;
             return this;
         }
 
         public Builder addAll(boolean... values) {
-            return addAll(Stream.ofAll(values));
+            for (boolean value : values) {
+                addBoolean(value);
+            }
+            return this;
         }
 
         public Builder addAll(Iterable<Boolean> values) {
@@ -119,7 +230,7 @@ public final class BooleanColumn implements Column<BooleanColumnId> {
 
         @Override
         public BooleanColumn build() {
-            return new BooleanColumn(id, rowIndex.get(), values, metaDataBuilder.build());
+            return new BooleanColumn(id, (BitSet) values.clone(), (BitSet) nulls.clone(), 0, rowCount, metaDataBuilder.build());
         }
 
     }
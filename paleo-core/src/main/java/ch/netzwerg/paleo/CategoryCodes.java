@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+/**
+ * Primitive storage for the per-row dictionary codes of a {@link CategoryColumn}. The narrowest element type which can
+ * hold all codes of a given dictionary is chosen upon creation (i.e. one byte per row for up to 256 categories, two
+ * bytes per row for up to 65536 categories, four bytes per row otherwise). Slices share the code arrays and only
+ * adjust {@code offset} and {@code length}.
+ */
+abstract class CategoryCodes {
+
+    private static final int MAX_BYTE_CARDINALITY = 1 << Byte.SIZE;
+    private static final int MAX_CHAR_CARDINALITY = 1 << Character.SIZE;
+
+    final int offset;
+    final int length;
+
+    private CategoryCodes(int offset, int length) {
+        this.offset = offset;
+        this.length = length;
+    }
+
+    static CategoryCodes of(int[] codes, int cardinality) {
+        int length = codes.length;
+        if (cardinality <= MAX_BYTE_CARDINALITY) {
+            byte[] narrowed = new byte[length];
+            for (int i = 0; i < length; i++) {
+                narrowed[i] = (byte) codes[i];
+            }
+            return new ByteCodes(narrowed, 0, length);
+        } else if (cardinality <= MAX_CHAR_CARDINALITY) {
+            char[] narrowed = new char[length];
+            for (int i = 0; i < length; i++) {
+                narrowed[i] = (char) codes[i];
+            }
+            return new CharCodes(narrowed, 0, length);
+        } else {
+            return new IntCodes(codes, 0, length);
+        }
+    }
+
+    abstract int get(int index);
+
+    abstract CategoryCodes slice(int fromIndex, int toIndex);
+
+    /**
+     * Copies the codes at the given indices (with the same element type), where negative indices lead to code
+     * {@code 0} (i.e. rows which are marked as missing by the caller).
+     */
+    abstract CategoryCodes take(int[] indices);
+
+    final int length() {
+        return length;
+    }
+
+    /**
+     * Position of the first code within the underlying (possibly shared) array.
+     */
+    final int getOffset() {
+        return offset;
+    }
+
+    private static final class ByteCodes extends CategoryCodes {
+
+        private final byte[] codes;
+
+        private ByteCodes(byte[] codes, int offset, int length) {
+            super(offset, length);
+            this.codes = codes;
+        }
+
+        @Override
+        int get(int index) {
+            Slices.checkIndex(index, length);
+            return codes[offset + index] & 0xFF;
+        }
+
+        @Override
+        CategoryCodes slice(int fromIndex, int toIndex) {
+            return new ByteCodes(codes, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        CategoryCodes take(int[] indices) {
+            byte[] taken = new byte[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                if (index >= 0) {
+                    taken[i] = codes[offset + index];
+                }
+            }
+            return new ByteCodes(taken, 0, indices.length);
+        }
+
+    }
+
+    private static final class CharCodes extends CategoryCodes {
+
+        private final char[] codes;
+
+        private CharCodes(char[] codes, int offset, int length) {
+            super(offset, length);
+            this.codes = codes;
+        }
+
+        @Override
+        int get(int index) {
+            Slices.checkIndex(index, length);
+            return codes[offset + index];
+        }
+
+        @Override
+        CategoryCodes slice(int fromIndex, int toIndex) {
+            return new CharCodes(codes, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        CategoryCodes take(int[] indices) {
+            char[] taken = new char[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                if (index >= 0) {
+                    taken[i] = codes[offset + index];
+                }
+            }
+            return new CharCodes(taken, 0, indices.length);
+        }
+
+    }
+
+    private static final class IntCodes extends CategoryCodes {
+
+        private final int[] codes;
+
+        private IntCodes(int[] codes, int offset, int length) {
+            super(offset, length);
+            this.codes = codes;
+        }
+
+        @Override
+        int get(int index) {
+            Slices.checkIndex(index, length);
+            return codes[offset + index];
+        }
+
+        @Override
+        CategoryCodes slice(int fromIndex, int toIndex) {
+            return new IntCodes(codes, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        CategoryCodes take(int[] indices) {
+            int[] taken = new int[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                if (index >= 0) {
+                    taken[i] = codes[offset + index];
+                }
+            }
+            return new IntCodes(taken, 0, indices.length);
+        }
+
+    }
+
+}
@@ -17,26 +17,34 @@
 package ch.netzwerg.paleo;
 
 import ch.netzwerg.paleo.ColumnIds.CategoryColumnId;
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
+import ch.netzwerg.paleo.impl.StringDictionary;
 import io.vavr.collection.Array;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 import io.vavr.collection.Set;
 import io.vavr.collection.Stream;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.BitSet;
 
 public final class CategoryColumn implements Column<CategoryColumnId> {
 
+    private static final int DEFAULT_EXPECTED_CARDINALITY = 16;
+
     private final CategoryColumnId id;
     private final Array<String> categories;
-    private final Array<Integer> categoryIndexPerRowIndex;
+    private final CategoryCodes codes;
+    private final BitSet nulls;
     private final Map<String, String> metaData;
+    private volatile CategoryIndex index; // built lazily
+    private volatile ColumnStatistics<String> statistics; // computed lazily
 
-    private CategoryColumn(CategoryColumnId id, Array<String> categories, Array<Integer> categoryIndexPerRowIndex, Map<String, String> metaData) {
+    private CategoryColumn(CategoryColumnId id, Array<String> categories, CategoryCodes codes, BitSet nulls, Map<String, String> metaData) {
         this.id = id;
         this.categories = categories;
-        this.categoryIndexPerRowIndex = categoryIndexPerRowIndex;
+        this.codes = codes;
+        this.nulls = nulls;
         this.metaData = metaData;
     }
 
@@ -53,7 +61,15 @@ public final class CategoryColumn implements Column<CategoryColumnId> {
     }
 
     public static Builder builder(CategoryColumnId id) {
-        return new Builder(id);
+        return new Builder(id, DEFAULT_EXPECTED_CARDINALITY);
+    }
+
+    /**
+     * Creates a builder which pre-sizes its dictionary for the given number of distinct categories (avoids rehashing
+     * when ingesting high-cardinality data).
+     */
+    public static Builder builder(CategoryColumnId id, int expectedCardinality) {
+        return new Builder(id, expectedCardinality);
     }
 
     @Override
@@ -63,7 +79,7 @@ public final class CategoryColumn implements Column<CategoryColumnId> {
 
     @Override
     public int getRowCount() {
-        return categoryIndexPerRowIndex.length();
+        return codes.length();
     }
 
     @Override
@@ -71,14 +87,102 @@ public final class CategoryColumn implements Column<CategoryColumnId> {
         return metaData;
     }
 
+    /**
+     * Returns the category at the given row, or {@code null} if the value is missing.
+     */
     public String getValueAt(int rowIndex) {
-        return categories.get(categoryIndexPerRowIndex.get(rowIndex));
+        return isNullAt(rowIndex) ? null : categories.get(codes.get(rowIndex));
+    }
+
+    public boolean isNullAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, codes.length());
+        return nulls.get(codes.getOffset() + rowIndex);
+    }
+
+    public boolean hasNulls() {
+        return Slices.anySet(nulls, codes.getOffset(), codes.length());
+    }
+
+    public int getNullCount() {
+        return Slices.cardinality(nulls, codes.getOffset(), codes.length());
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<String> getStatistics() {
+        ColumnStatistics<String> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the dictionary code of the category at the given row (i.e. an index into the dictionary, which can be
+     * resolved via {@link #getCategory(int)}). The code is unspecified for missing values (see
+     * {@link #isNullAt(int)}).
+     */
+    public int getCodeAt(int rowIndex) {
+        return codes.get(rowIndex);
+    }
+
+    public String getCategory(int code) {
+        return categories.get(code);
+    }
+
+    public int getCategoryCount() {
+        return categories.length();
     }
 
     public Set<String> getCategories() {
         return categories.toSet();
     }
 
+    /**
+     * Returns the rows which hold the given category. The first call builds an inverted index for all categories (i.e.
+     * one compressed bitmap per dictionary code, in one pass over all codes), which is retained by this column.
+     */
+    public RowBitmap rowsEqualTo(String category) {
+        return getIndex().getRows(category);
+    }
+
+    /**
+     * Returns the rows which hold any of the given categories (a union of per-category bitmaps, see
+     * {@link #rowsEqualTo(String)}).
+     */
+    public RowBitmap rowsIn(String... categories) {
+        return rowsIn(Array.of(categories));
+    }
+
+    public RowBitmap rowsIn(Iterable<String> categories) {
+        CategoryIndex index = getIndex();
+        RowBitmap rows = RowBitmap.empty();
+        for (String category : categories) {
+            rows = rows.or(index.getRows(category));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns the number of rows which hold the given category (constant time once the index is built, see
+     * {@link #rowsEqualTo(String)}).
+     */
+    public int countOf(String category) {
+        return getIndex().getRows(category).getCardinality();
+    }
+
+    private CategoryIndex getIndex() {
+        CategoryIndex result = index;
+        if (result == null) {
+            // racy single-check: concurrent callers may build equivalent (immutable) indices
+            result = new CategoryIndex(this);
+            index = result;
+        }
+        return result;
+    }
+
     /**
      * Creates a stream of individual row values (i.e. "explodes" categories).
      */
@@ -86,30 +190,133 @@ public final class CategoryColumn implements Column<CategoryColumnId> {
         return Stream.range(0, getRowCount()).map(this::getValueAt);
     }
 
-    public static final class Builder implements Column.Builder<String, CategoryColumn> {
+    /**
+     * Returns a view on the given rows, which shares the codes and the dictionary with this column (i.e. all
+     * categories are retained, even if they do not occur within the slice).
+     */
+    @Override
+    public CategoryColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, getRowCount());
+        return new CategoryColumn(id, categories, codes.slice(fromIndex, toIndex), nulls, metaData);
+    }
 
-        private static final Integer DEFAULT_INDEX = -1;
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     * Only codes are copied, i.e. the dictionary is shared with this column.
+     */
+    @Override
+    public CategoryColumn take(int[] rowIndices) {
+        int rowCount = getRowCount();
+        BitSet takenNulls = new BitSet();
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, rowCount);
+            if (rowIndex < 0 || isNullAt(rowIndex)) {
+                takenNulls.set(i);
+            }
+        }
+        return new CategoryColumn(id, categories, codes.take(rowIndices), takenNulls, metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column. The dictionaries are merged (starting with the one of the first column, whose codes are retained), and
+     * the codes of all other columns are remapped via one lookup per category rather than one per row.
+     */
+    static CategoryColumn concat(Seq<CategoryColumn> columns) {
+        CategoryColumn first = columns.head();
+        StringDictionary dictionary = new StringDictionary(first.getCategoryCount());
+        int[] concatenated = new int[Slices.totalRowCount(columns)];
+        BitSet concatenatedNulls = new BitSet();
+        int position = 0;
+        for (CategoryColumn column : columns) {
+            int[] remap = new int[column.getCategoryCount()];
+            for (int code = 0; code < remap.length; code++) {
+                remap[code] = dictionary.getOrAddCode(column.getCategory(code));
+            }
+            int rowCount = column.getRowCount();
+            for (int row = 0; row < rowCount; row++) {
+                if (column.isNullAt(row)) {
+                    concatenatedNulls.set(position + row);
+                } else {
+                    concatenated[position + row] = remap[column.getCodeAt(row)];
+                }
+            }
+            position += rowCount;
+        }
+        Array<String> categories = Array.of(dictionary.toArray());
+        return new CategoryColumn(first.id, categories, CategoryCodes.of(concatenated, categories.length()), concatenatedNulls, first.metaData);
+    }
+
+    private static final class CategoryIndex {
+
+        private final java.util.Map<String, Integer> codeByCategory;
+        private final RowBitmap[] rowsByCode;
+
+        CategoryIndex(CategoryColumn column) {
+            int categoryCount = column.getCategoryCount();
+            this.codeByCategory = new java.util.HashMap<>(categoryCount * 2);
+            for (int code = 0; code < categoryCount; code++) {
+                codeByCategory.put(column.getCategory(code), code);
+            }
+            RowBitmap.Builder[] builders = new RowBitmap.Builder[categoryCount];
+            int rowCount = column.getRowCount();
+            for (int row = 0; row < rowCount; row++) {
+                if (!column.isNullAt(row)) {
+                    int code = column.getCodeAt(row);
+                    if (builders[code] == null) {
+                        builders[code] = new RowBitmap.Builder();
+                    }
+                    builders[code].add(row);
+                }
+            }
+            this.rowsByCode = new RowBitmap[categoryCount];
+            for (int code = 0; code < categoryCount; code++) {
+                rowsByCode[code] = builders[code] == null ? RowBitmap.empty() : builders[code].build();
+            }
+        }
+
+        RowBitmap getRows(String category) {
+            Integer code = codeByCategory.get(category);
+            return code == null ? RowBitmap.empty() : rowsByCode[code];
+        }
+
+    }
+
+    public static final class Builder implements Column.Builder<String, CategoryColumn> {
 
         private final CategoryColumnId id;
-        private final java.util.Map<String, Integer> indexByCategory;
-        private final java.util.List<Integer> indexPerRow;
+        private final StringDictionary dictionary;
+        private final IntArrayBuilder codes;
+        private final BitSet nulls;
         private final MetaDataBuilder metaDataBuilder;
 
-        private Builder(CategoryColumnId id) {
+        private Builder(CategoryColumnId id, int expectedCardinality) {
             this.id = id;
-            this.indexByCategory = new LinkedHashMap<>();
-            this.indexPerRow = new ArrayList<>();
+            this.dictionary = new StringDictionary(expectedCardinality);
+            this.codes = new IntArrayBuilder();
+            this.nulls = new BitSet();
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
+        /**
+         * Adds the given value, where {@code null} denotes a missing value.
+         */
         @Override
         public Builder add(String value) {
-            Integer categoryIndex = indexByCategory.getOrDefault(value, DEFAULT_INDEX);
-            if (categoryIndex < 0) {
-                indexByCategory.put(value, indexByCategory.size());
-                categoryIndex = indexByCategory.size() - 1;
+            if (value == null) {
+                return addNull();
             }
-            indexPerRow.add(categoryIndex);
+            codes.add(dictionary.getOrAddCode(value));
+            return this;
+        }
+
+        /**
+         * Adds a missing value (which is only recorded in a validity bitmap, i.e. it is not part of the categories).
+         */
+        public Builder addNull() {
+            nulls.set(codes.size());
+            codes.add(0);
             return this;
         }
 
@@ -134,8 +341,8 @@ public final class CategoryColumn implements Column<CategoryColumnId> {
         }
 
         public CategoryColumn build() {
-            Array<String> categories = Array.ofAll(indexByCategory.keySet());
-            return new CategoryColumn(id, categories, Array.ofAll(indexPerRow), metaDataBuilder.build());
+            Array<String> categories = Array.of(dictionary.toArray());
+            return new CategoryColumn(id, categories, CategoryCodes.of(codes.toArray(), categories.length()), (BitSet) nulls.clone(), metaDataBuilder.build());
         }
 
     }
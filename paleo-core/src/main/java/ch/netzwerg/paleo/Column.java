@@ -26,6 +26,18 @@ public interface Column<T extends ColumnId> {
 
     Map<String, String> getMetaData();
 
+    /**
+     * Returns the rows from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive) as a view, which shares the
+     * underlying storage with this column (i.e. no values are copied).
+     */
+    Column<T> slice(int fromIndex, int toIndex);
+
+    /**
+     * Copies the given rows (in the given order, possibly repeated) into a new column, where negative row indices lead
+     * to missing values (e.g. for rows without a match in a left join).
+     */
+    Column<T> take(int[] rowIndices);
+
     interface Builder<V, C extends Column<?>> {
 
         Builder<V, C> add(V value);
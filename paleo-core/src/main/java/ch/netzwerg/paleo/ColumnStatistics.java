@@ -0,0 +1,323 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.HyperLogLog;
+import io.vavr.control.Option;
+
+import java.time.Instant;
+
+/**
+ * Summary of the values of a column: range, number of missing values, number of distinct values and sortedness (all
+ * of which only consider non-missing values). Statistics are computed in one pass upon first access (and retained
+ * by the column), and allow operations to short-circuit (e.g. sorting an already sorted column).
+ *
+ * @param <V> type of the values
+ */
+public final class ColumnStatistics<V> {
+
+    private final Option<V> min;
+    private final Option<V> max;
+    private final int nullCount;
+    private final int distinctCount;
+    private final boolean ascending;
+    private final boolean descending;
+
+    private ColumnStatistics(Option<V> min, Option<V> max, int nullCount, int distinctCount, boolean ascending, boolean descending) {
+        this.min = min;
+        this.max = max;
+        this.nullCount = nullCount;
+        this.distinctCount = distinctCount;
+        this.ascending = ascending;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns the smallest value (or nothing if there are no values). Strings are compared like
+     * {@link String#compareTo(String)}, and doubles like {@link Math#min(double, double)} (i.e. {@code NaN} wins).
+     */
+    public Option<V> getMin() {
+        return min;
+    }
+
+    public Option<V> getMax() {
+        return max;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Returns the number of distinct values, which is exact for boolean and category columns, and a HyperLogLog
+     * estimate otherwise (with a standard error of about 1.6%).
+     */
+    public int getDistinctCount() {
+        return distinctCount;
+    }
+
+    /**
+     * Whether the values are in ascending order (i.e. non-decreasing from row to row, ignoring missing values).
+     */
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * Whether the values are in descending order (i.e. non-increasing from row to row, ignoring missing values).
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Whether the rows are sorted in the given direction, without any missing values.
+     */
+    boolean isSorted(boolean ascending) {
+        return nullCount == 0 && (ascending ? this.ascending : this.descending);
+    }
+
+    /**
+     * Returns the statistics of the given column, or {@code null} for columns without statistics (generic columns).
+     */
+    static ColumnStatistics<?> of(Column<?> column) {
+        if (column instanceof IntColumn) {
+            return ((IntColumn) column).getStatistics();
+        } else if (column instanceof LongColumn) {
+            return ((LongColumn) column).getStatistics();
+        } else if (column instanceof DoubleColumn) {
+            return ((DoubleColumn) column).getStatistics();
+        } else if (column instanceof BooleanColumn) {
+            return ((BooleanColumn) column).getStatistics();
+        } else if (column instanceof TimestampColumn) {
+            return ((TimestampColumn) column).getStatistics();
+        } else if (column instanceof CategoryColumn) {
+            return ((CategoryColumn) column).getStatistics();
+        } else if (column instanceof StringColumn) {
+            return ((StringColumn) column).getStatistics();
+        } else {
+            return null;
+        }
+    }
+
+    static ColumnStatistics<Integer> compute(IntColumn column) {
+        Tracker tracker = new Tracker();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int previous = 0;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            int value = column.getValueAt(row);
+            tracker.add(Integer.compare(value, previous), HyperLogLog.hash(value));
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            previous = value;
+        }
+        return tracker.build(min, max);
+    }
+
+    static ColumnStatistics<Long> compute(LongColumn column) {
+        Tracker tracker = new Tracker();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long previous = 0;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            long value = column.getValueAt(row);
+            tracker.add(Long.compare(value, previous), HyperLogLog.hash(value));
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            previous = value;
+        }
+        return tracker.build(min, max);
+    }
+
+    static ColumnStatistics<Double> compute(DoubleColumn column) {
+        Tracker tracker = new Tracker();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double previous = 0;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            double value = column.getValueAt(row);
+            tracker.add(Double.compare(value, previous), HyperLogLog.hash(Double.doubleToLongBits(value)));
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            previous = value;
+        }
+        return tracker.build(min, max);
+    }
+
+    static ColumnStatistics<Boolean> compute(BooleanColumn column) {
+        Tracker tracker = new Tracker();
+        boolean anyFalse = false;
+        boolean anyTrue = false;
+        boolean previous = false;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            boolean value = column.getValueAt(row);
+            tracker.add(Boolean.compare(value, previous));
+            anyFalse |= !value;
+            anyTrue |= value;
+            previous = value;
+        }
+        return tracker.build(!anyFalse, anyTrue, (anyFalse ? 1 : 0) + (anyTrue ? 1 : 0));
+    }
+
+    static ColumnStatistics<Instant> compute(TimestampColumn column) {
+        Tracker tracker = new Tracker();
+        int minRow = -1;
+        int maxRow = -1;
+        int previousRow = -1;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            long epochSecond = column.getEpochSecondAt(row);
+            int nano = column.getNanoAt(row);
+            tracker.add(previousRow < 0 ? 0 : compare(column, row, previousRow), HyperLogLog.hash(epochSecond * 1_000_000_007L + nano));
+            if (minRow < 0 || compare(column, row, minRow) < 0) {
+                minRow = row;
+            }
+            if (maxRow < 0 || compare(column, row, maxRow) > 0) {
+                maxRow = row;
+            }
+            previousRow = row;
+        }
+        return tracker.build(minRow < 0 ? null : column.getValueAt(minRow), maxRow < 0 ? null : column.getValueAt(maxRow));
+    }
+
+    private static int compare(TimestampColumn column, int row, int otherRow) {
+        int result = Long.compare(column.getEpochSecondAt(row), column.getEpochSecondAt(otherRow));
+        return result != 0 ? result : Integer.compare(column.getNanoAt(row), column.getNanoAt(otherRow));
+    }
+
+    static ColumnStatistics<String> compute(CategoryColumn column) {
+        // categories are compared via the ranks of their codes within the sorted dictionary
+        String[] categories = new String[column.getCategoryCount()];
+        for (int code = 0; code < categories.length; code++) {
+            categories[code] = column.getCategory(code);
+        }
+        int[] ranks = Sort.ranks(categories);
+        boolean[] occurs = new boolean[categories.length];
+        Tracker tracker = new Tracker();
+        int minCode = -1;
+        int maxCode = -1;
+        int previousRank = 0;
+        int distinctCount = 0;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            int code = column.getCodeAt(row);
+            int rank = ranks[code];
+            tracker.add(Integer.compare(rank, previousRank));
+            if (!occurs[code]) {
+                occurs[code] = true;
+                distinctCount++;
+                minCode = minCode < 0 || rank < ranks[minCode] ? code : minCode;
+                maxCode = maxCode < 0 || rank > ranks[maxCode] ? code : maxCode;
+            }
+            previousRank = rank;
+        }
+        return tracker.build(minCode < 0 ? null : categories[minCode], maxCode < 0 ? null : categories[maxCode], distinctCount);
+    }
+
+    static ColumnStatistics<String> compute(StringColumn column) {
+        // packed values are compared and hashed without decoding
+        Tracker tracker = new Tracker();
+        int minRow = -1;
+        int maxRow = -1;
+        int previousRow = -1;
+        for (int row = 0; row < column.getRowCount(); row++) {
+            if (column.isNullAt(row)) {
+                tracker.addNull();
+                continue;
+            }
+            tracker.add(previousRow < 0 ? 0 : column.compareValues(row, previousRow), HyperLogLog.hash(column.hashValueAt(row)));
+            if (minRow < 0 || column.compareValues(row, minRow) < 0) {
+                minRow = row;
+            }
+            if (maxRow < 0 || column.compareValues(row, maxRow) > 0) {
+                maxRow = row;
+            }
+            previousRow = row;
+        }
+        return tracker.build(minRow < 0 ? null : column.getValueAt(minRow), maxRow < 0 ? null : column.getValueAt(maxRow));
+    }
+
+    /**
+     * Accumulates the statistics which are independent of the value type.
+     */
+    private static final class Tracker {
+
+        private HyperLogLog distinctValues; // only needed for estimates
+        private int nullCount;
+        private int valueCount;
+        private boolean ascending = true;
+        private boolean descending = true;
+
+        void addNull() {
+            nullCount++;
+        }
+
+        /**
+         * Adds a value, given the result of comparing it with the previous value (ignored for the first value).
+         */
+        void add(int comparison) {
+            if (valueCount > 0) {
+                ascending &= comparison >= 0;
+                descending &= comparison <= 0;
+            }
+            valueCount++;
+        }
+
+        void add(int comparison, long hash) {
+            add(comparison);
+            if (distinctValues == null) {
+                distinctValues = new HyperLogLog();
+            }
+            distinctValues.add(hash);
+        }
+
+        <V> ColumnStatistics<V> build(V min, V max) {
+            int estimate = distinctValues == null ? 0 : distinctValues.estimate();
+            return build(min, max, Math.min(estimate, valueCount));
+        }
+
+        <V> ColumnStatistics<V> build(V min, V max, int distinctCount) {
+            if (valueCount == 0) {
+                return new ColumnStatistics<>(Option.none(), Option.none(), nullCount, 0, true, true);
+            }
+            return new ColumnStatistics<>(Option.of(min), Option.of(max), nullCount, distinctCount, ascending, descending);
+        }
+
+    }
+
+}
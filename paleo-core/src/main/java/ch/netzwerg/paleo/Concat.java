@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+
+/**
+ * Concatenation of data frames with identical column layouts (e.g. the chunks of a file which has been parsed in
+ * parallel). Each column is copied once into storage of its final size, category dictionaries are merged.
+ */
+final class Concat {
+
+    private Concat() {
+    }
+
+    static DataFrame concat(Seq<DataFrame> dataFrames) {
+        if (dataFrames.isEmpty()) {
+            return DataFrame.empty();
+        }
+        DataFrame first = dataFrames.head();
+        for (DataFrame dataFrame : dataFrames.tail()) {
+            checkLayout(first, dataFrame);
+        }
+        Array<Column<?>> columns = Array.range(0, first.getColumnCount())
+                .map(columnIndex -> concatColumns(dataFrames.map(dataFrame -> dataFrame.getColumns().get(columnIndex))));
+        return DataFrame.ofAll(columns).withMetaData(first.getMetaData());
+    }
+
+    private static void checkLayout(DataFrame first, DataFrame other) {
+        if (first.getColumnCount() != other.getColumnCount()) {
+            String msg = String.format("Differing number of columns (%d vs. %d)", first.getColumnCount(), other.getColumnCount());
+            throw new IllegalArgumentException(msg);
+        }
+        for (int columnIndex = 0; columnIndex < first.getColumnCount(); columnIndex++) {
+            Column<?> column = first.getColumns().get(columnIndex);
+            Column<?> otherColumn = other.getColumns().get(columnIndex);
+            if (column.getClass() != otherColumn.getClass() || !column.getId().getType().equals(otherColumn.getId().getType())) {
+                String msg = String.format("Differing types of column %d ('%s' vs. '%s')", columnIndex, column.getId().getName(), otherColumn.getId().getName());
+                throw new IllegalArgumentException(msg);
+            }
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Column<?> concatColumns(Seq<Column<?>> columns) {
+        Column<?> first = columns.head();
+        Seq typed = columns;
+        if (first instanceof IntColumn) {
+            return IntColumn.concat(typed);
+        } else if (first instanceof LongColumn) {
+            return LongColumn.concat(typed);
+        } else if (first instanceof DoubleColumn) {
+            return DoubleColumn.concat(typed);
+        } else if (first instanceof BooleanColumn) {
+            return BooleanColumn.concat(typed);
+        } else if (first instanceof TimestampColumn) {
+            return TimestampColumn.concat(typed);
+        } else if (first instanceof CategoryColumn) {
+            return CategoryColumn.concat(typed);
+        } else if (first instanceof StringColumn) {
+            return StringColumn.concat(typed);
+        } else {
+            return GenericColumn.concat(typed);
+        }
+    }
+
+}
@@ -15,8 +15,14 @@
 package ch.netzwerg.paleo;
 
 import io.vavr.collection.*;
+import io.vavr.control.Option;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
 
 import static ch.netzwerg.paleo.ColumnIds.*;
 
@@ -25,6 +31,8 @@ public final class DataFrame implements Iterable<Column<?>> {
     private final Array<Column<?>> columns;
     private final int rowCount;
     private final Map<String, String> metaData;
+    private final java.util.Map<ColumnId, Integer> columnIndexById;
+    private final java.util.Map<String, Integer> columnIndexByName;
 
     private DataFrame(Array<Column<?>> columns) {
         this(columns, HashMap.empty());
@@ -34,6 +42,14 @@ public final class DataFrame implements Iterable<Column<?>> {
         this.columns = columns;
         this.rowCount = inferRowCount(columns);
         this.metaData = metaData;
+        this.columnIndexById = new java.util.HashMap<>();
+        this.columnIndexByName = new java.util.HashMap<>();
+        for (int columnIndex = 0; columnIndex < columns.length(); columnIndex++) {
+            ColumnId columnId = columns.get(columnIndex).getId();
+            // in case of duplicates, the first column wins
+            columnIndexById.putIfAbsent(columnId, columnIndex);
+            columnIndexByName.putIfAbsent(columnId.getName(), columnIndex);
+        }
     }
 
     private static int inferRowCount(IndexedSeq<Column<?>> columns) {
@@ -65,6 +81,19 @@ public final class DataFrame implements Iterable<Column<?>> {
         return new DataFrame(Array.ofAll(columns));
     }
 
+    /**
+     * Appends the rows of the given data frames (in the given order) into a new data frame. All data frames need to
+     * have the same column types (in the same order), the ids and the meta data are taken from the first data frame.
+     * Category columns get a merged dictionary.
+     */
+    public static DataFrame concat(DataFrame... dataFrames) {
+        return concat(Array.of(dataFrames));
+    }
+
+    public static DataFrame concat(Iterable<DataFrame> dataFrames) {
+        return Concat.concat(Array.ofAll(dataFrames));
+    }
+
     public int getRowCount() {
         return rowCount;
     }
@@ -85,6 +114,35 @@ public final class DataFrame implements Iterable<Column<?>> {
         return getColumnIds().map(ColumnId::getName);
     }
 
+    /**
+     * Returns the position of the column with the given id (constant-time lookup). Hot loops can resolve a column
+     * index once and then use index-based access via {@link #getColumn(int)}.
+     */
+    public int getColumnIndex(ColumnId columnId) {
+        Integer columnIndex = columnIndexById.get(columnId);
+        if (columnIndex == null) {
+            String msg = String.format("Unknown column id '%s'", columnId);
+            throw new IllegalArgumentException(msg);
+        }
+        return columnIndex;
+    }
+
+    /**
+     * Returns the position of the (first) column with the given name (constant-time lookup).
+     */
+    public int getColumnIndex(String columnName) {
+        Integer columnIndex = columnIndexByName.get(columnName);
+        if (columnIndex == null) {
+            String msg = String.format("Unknown column name '%s'", columnName);
+            throw new IllegalArgumentException(msg);
+        }
+        return columnIndex;
+    }
+
+    public Column<?> getColumn(int columnIndex) {
+        return columns.get(columnIndex);
+    }
+
     public <C extends ColumnId> C getColumnId(int columnIndex, ColumnType<C> type) {
         Class<C> idType = type.getIdType();
         return idType.cast(columns.get(columnIndex).getId());
@@ -94,6 +152,10 @@ public final class DataFrame implements Iterable<Column<?>> {
         return getTypedColumn(columnId);
     }
 
+    public LongColumn getColumn(LongColumnId columnId) {
+        return getTypedColumn(columnId);
+    }
+
     public DoubleColumn getColumn(DoubleColumnId columnId) {
         return getTypedColumn(columnId);
     }
@@ -127,6 +189,11 @@ public final class DataFrame implements Iterable<Column<?>> {
         return column.getValueAt(rowIndex);
     }
 
+    public long getValueAt(int rowIndex, LongColumnId columnId) {
+        LongColumn column = getTypedColumn(columnId);
+        return column.getValueAt(rowIndex);
+    }
+
     public double getValueAt(int rowIndex, DoubleColumnId columnId) {
         DoubleColumn column = getTypedColumn(columnId);
         return column.getValueAt(rowIndex);
@@ -159,10 +226,169 @@ public final class DataFrame implements Iterable<Column<?>> {
 
     @SuppressWarnings("unchecked")
     private <T extends Column<?>> T getTypedColumn(ColumnId columnId) {
-        return (T) columns.find(c -> c.getId().equals(columnId)).getOrElseThrow(() -> {
-            String msg = String.format("Unknown column id '%s'", columnId);
-            throw new IllegalArgumentException(msg);
-        });
+        return (T) columns.get(getColumnIndex(columnId));
+    }
+
+    /**
+     * Returns the rows from {@code fromIndex} (inclusive) to {@code toIndex} (exclusive), e.g. for paging. All columns
+     * are sliced as views, i.e. the resulting data frame shares the underlying storage with this one.
+     */
+    public DataFrame slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, rowCount);
+        Array<Column<?>> slices = columns.map(column -> column.slice(fromIndex, toIndex));
+        return new DataFrame(slices, metaData);
+    }
+
+    /**
+     * Selects all rows whose value satisfies the given predicate (missing values never match). No values are copied
+     * until {@link Selection#toDataFrame()} is called.
+     */
+    public Selection filter(IntColumnId columnId, IntPredicate predicate) {
+        return Selection.all(this).filter(columnId, predicate);
+    }
+
+    public Selection filter(LongColumnId columnId, LongPredicate predicate) {
+        return Selection.all(this).filter(columnId, predicate);
+    }
+
+    public Selection filter(DoubleColumnId columnId, DoublePredicate predicate) {
+        return Selection.all(this).filter(columnId, predicate);
+    }
+
+    public Selection filter(BooleanColumnId columnId, boolean value) {
+        return Selection.all(this).filter(columnId, value);
+    }
+
+    public Selection filter(TimestampColumnId columnId, LongPredicate epochMilliPredicate) {
+        return Selection.all(this).filter(columnId, epochMilliPredicate);
+    }
+
+    public Selection filter(CategoryColumnId columnId, Predicate<String> predicate) {
+        return Selection.all(this).filter(columnId, predicate);
+    }
+
+    /**
+     * Selects the rows which hold any of the given categories (an equality or IN filter), see
+     * {@link Selection#filterIn(CategoryColumnId, String...)}.
+     */
+    public Selection filterIn(CategoryColumnId columnId, String... categories) {
+        return Selection.all(this).filterIn(columnId, categories);
+    }
+
+    /**
+     * Groups rows by the categories of the given column and computes the given aggregates for each group (e.g.
+     * {@code groupBy(MONTH, Aggregate.count(), Aggregate.mean(AGE))}). Dictionary codes are used as group ids, i.e.
+     * aggregates are accumulated in primitive arrays without any hashing. The result contains the key column plus one
+     * column per aggregate, with one row per category (in dictionary order). Rows with a missing key are ignored.
+     */
+    public DataFrame groupBy(CategoryColumnId keyId, Aggregate<?>... aggregates) {
+        return GroupBy.byCategory(this, keyId, Array.of(aggregates));
+    }
+
+    /**
+     * Groups rows by the combination of the given key columns (category, int, long or boolean columns) and computes
+     * the given aggregates for each group, using hash aggregation over primitive keys. The result contains the key
+     * columns plus one column per aggregate, with one row per distinct key (in order of first occurrence). Rows with
+     * any missing key are ignored.
+     */
+    public DataFrame groupBy(Iterable<? extends ColumnId> keyIds, Aggregate<?>... aggregates) {
+        return GroupBy.byKeys(this, Array.ofAll(keyIds), Array.of(aggregates));
+    }
+
+    /**
+     * Joins the rows of this data frame with all rows of the other data frame which hold an equal key (missing keys
+     * never match). Supported keys are int and long columns (which can be mixed), as well as string and category
+     * columns (which can be mixed as well). The other data frame is loaded into a hash table (i.e. it should be the
+     * smaller one). The result contains all columns of this data frame followed by all columns of the other data
+     * frame (except its key column), in the row order of this data frame.
+     */
+    public DataFrame innerJoin(DataFrame other, ColumnId keyId, ColumnId otherKeyId) {
+        return Join.inner(this, keyId, other, otherKeyId);
+    }
+
+    /**
+     * Like {@link #innerJoin(DataFrame, ColumnId, ColumnId)}, but retains rows without any match, with missing values
+     * in the columns of the other data frame.
+     */
+    public DataFrame leftJoin(DataFrame other, ColumnId keyId, ColumnId otherKeyId) {
+        return Join.left(this, keyId, other, otherKeyId);
+    }
+
+    /**
+     * Sorts the rows of this data frame by the given column (with missing values last), see
+     * {@link #sortBy(SortKey...)}.
+     */
+    public DataFrame sortBy(ColumnId columnId, boolean ascending) {
+        return sortBy(SortKey.of(columnId, ascending));
+    }
+
+    /**
+     * Sorts the rows of this data frame by the given keys (the first key being the most significant one). Sorting is
+     * stable, and missing values are sorted last. Supported keys are int, long, double, boolean, timestamp, category
+     * and string columns. Large data frames (see system property {@code paleo.sort.parallelThreshold}) are sorted in
+     * parallel.
+     */
+    public DataFrame sortBy(SortKey... keys) {
+        return Sort.sort(this, Array.of(keys), Sort.PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Returns the row indices of this data frame in the order of {@link #sortBy(SortKey...)}, i.e. without copying
+     * any columns.
+     */
+    public int[] sortIndices(SortKey... keys) {
+        return Sort.permutation(this, Array.of(keys), Sort.PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Matches each row of this data frame with the latest row of the other data frame at or before its timestamp
+     * (an "as-of" join). Both data frames have to be sorted by their timestamp column (missing timestamps are
+     * skipped), which allows matching in a single linear pass. The result contains all rows and columns of this data
+     * frame followed by the columns of the other data frame (except its timestamp column), with missing values where
+     * there is no match.
+     */
+    public DataFrame asOfJoin(DataFrame other, TimestampColumnId timestampId, TimestampColumnId otherTimestampId) {
+        return AsOfJoin.join(this, timestampId, other, otherTimestampId, Option.none(), Option.none(), Option.none());
+    }
+
+    /**
+     * Like {@link #asOfJoin(DataFrame, TimestampColumnId, TimestampColumnId)}, but only matches rows which are at most
+     * {@code tolerance} older.
+     */
+    public DataFrame asOfJoin(DataFrame other, TimestampColumnId timestampId, TimestampColumnId otherTimestampId, Duration tolerance) {
+        return AsOfJoin.join(this, timestampId, other, otherTimestampId, Option.none(), Option.none(), Option.of(tolerance));
+    }
+
+    /**
+     * Like {@link #asOfJoin(DataFrame, TimestampColumnId, TimestampColumnId)}, but only matches rows of the same
+     * category (e.g. the latest quote of the same symbol). The other category column is omitted from the result.
+     */
+    public DataFrame asOfJoin(DataFrame other, TimestampColumnId timestampId, TimestampColumnId otherTimestampId, CategoryColumnId byId, CategoryColumnId otherById) {
+        return AsOfJoin.join(this, timestampId, other, otherTimestampId, Option.of(byId), Option.of(otherById), Option.none());
+    }
+
+    /**
+     * Like {@link #asOfJoin(DataFrame, TimestampColumnId, TimestampColumnId, CategoryColumnId, CategoryColumnId)}, but
+     * only matches rows which are at most {@code tolerance} older.
+     */
+    public DataFrame asOfJoin(DataFrame other, TimestampColumnId timestampId, TimestampColumnId otherTimestampId, CategoryColumnId byId, CategoryColumnId otherById, Duration tolerance) {
+        return AsOfJoin.join(this, timestampId, other, otherTimestampId, Option.of(byId), Option.of(otherById), Option.of(tolerance));
+    }
+
+    /**
+     * Copies the given rows (in the given order, possibly repeated) of all columns into a new data frame, where negative
+     * row indices lead to missing values. Each column is copied in a single pass into primitive storage (and category
+     * columns keep their dictionary).
+     */
+    public DataFrame take(int[] rowIndices) {
+        return new DataFrame(columns.map(column -> column.take(rowIndices)), metaData);
+    }
+
+    /**
+     * Creates a cursor for allocation-free row-wise iteration.
+     */
+    public RowCursor rowCursor() {
+        return new RowCursor(this);
     }
 
     @Override
@@ -16,23 +16,37 @@
 
 package ch.netzwerg.paleo;
 
+import ch.netzwerg.paleo.impl.DoubleArrayBuilder;
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.OptionalDouble;
 import java.util.stream.DoubleStream;
 
 import static ch.netzwerg.paleo.ColumnIds.DoubleColumnId;
 
 public final class DoubleColumn implements Column<DoubleColumnId> {
 
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
     private final DoubleColumnId id;
     private final double[] values;
+    private final BitSet nulls;
+    private final int offset;
+    private final int rowCount;
     private final Map<String, String> metaData;
+    private volatile SortedIndex sortedIndex; // built lazily
+    private volatile ColumnStatistics<Double> statistics; // computed lazily
 
-    private DoubleColumn(DoubleColumnId id, DoubleStream values, Map<String, String> metaData) {
+    private DoubleColumn(DoubleColumnId id, double[] values, BitSet nulls, int offset, int rowCount, Map<String, String> metaData) {
         this.id = id;
-        this.values = values.toArray();
+        this.values = values;
+        this.nulls = nulls;
+        this.offset = offset;
+        this.rowCount = rowCount;
         this.metaData = metaData;
     }
 
@@ -49,7 +63,14 @@ public final class DoubleColumn implements Column<DoubleColumnId> {
     }
 
     public static Builder builder(DoubleColumnId id) {
-        return new Builder(id);
+        return new Builder(id, DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a builder which pre-sizes its value buffer for the given number of rows.
+     */
+    public static Builder builder(DoubleColumnId id, int expectedSize) {
+        return new Builder(id, expectedSize);
     }
 
     @Override
@@ -59,7 +80,7 @@ public final class DoubleColumn implements Column<DoubleColumnId> {
 
     @Override
     public int getRowCount() {
-        return values.length;
+        return rowCount;
     }
 
     @Override
@@ -67,38 +88,215 @@ public final class DoubleColumn implements Column<DoubleColumnId> {
         return metaData;
     }
 
+    /**
+     * Returns the value at the given row, which is unspecified for missing values (see {@link #isNullAt(int)}).
+     */
     public double getValueAt(int index) {
-        return values[index];
+        Slices.checkIndex(index, rowCount);
+        return values[offset + index];
+    }
+
+    /**
+     * Returns the value at the given row, or {@code other} if the value is missing.
+     */
+    public double getValueOrElse(int index, double other) {
+        Slices.checkIndex(index, rowCount);
+        return nulls.get(offset + index) ? other : values[offset + index];
+    }
+
+    public boolean isNullAt(int index) {
+        Slices.checkIndex(index, rowCount);
+        return nulls.get(offset + index);
+    }
+
+    public boolean hasNulls() {
+        return Slices.anySet(nulls, offset, rowCount);
+    }
+
+    public int getNullCount() {
+        return Slices.cardinality(nulls, offset, rowCount);
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<Double> getStatistics() {
+        ColumnStatistics<Double> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
     }
 
     public DoubleStream valueStream() {
-        return Arrays.stream(values);
+        return Arrays.stream(values, offset, offset + rowCount);
+    }
+
+    /**
+     * Returns the number of non-missing values.
+     */
+    public int count() {
+        return rowCount - getNullCount();
+    }
+
+    /**
+     * Returns the (Kahan-compensated) sum of all non-missing values ({@code 0} if there are none).
+     */
+    public double sum() {
+        return Aggregations.sum(values, nulls, offset, rowCount);
+    }
+
+    /**
+     * Returns the minimum of all non-missing values, which is {@code NaN} if any value is {@code NaN}.
+     */
+    public OptionalDouble min() {
+        return count() == 0 ? OptionalDouble.empty() : OptionalDouble.of(Aggregations.min(values, nulls, offset, rowCount));
+    }
+
+    public OptionalDouble max() {
+        return count() == 0 ? OptionalDouble.empty() : OptionalDouble.of(Aggregations.max(values, nulls, offset, rowCount));
+    }
+
+    public OptionalDouble mean() {
+        int count = count();
+        return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum() / count);
+    }
+
+    /**
+     * Returns the sample variance of all non-missing values (which requires at least two values).
+     */
+    public OptionalDouble variance() {
+        int count = count();
+        if (count < 2) {
+            return OptionalDouble.empty();
+        }
+        double mean = sum() / count;
+        return OptionalDouble.of(Aggregations.variance(Aggregations.squaredDeviations(values, nulls, offset, rowCount, mean), count));
+    }
+
+    @Override
+    public DoubleColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, rowCount);
+        return new DoubleColumn(id, values, nulls, offset + fromIndex, toIndex - fromIndex, metaData);
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     */
+    @Override
+    public DoubleColumn take(int[] rowIndices) {
+        double[] taken = new double[rowIndices.length];
+        BitSet takenNulls = new BitSet();
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, rowCount);
+            if (rowIndex < 0 || nulls.get(offset + rowIndex)) {
+                takenNulls.set(i);
+                taken[i] = Double.NaN;
+            } else {
+                taken[i] = values[offset + rowIndex];
+            }
+        }
+        return new DoubleColumn(id, taken, takenNulls, 0, rowIndices.length, metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column.
+     */
+    static DoubleColumn concat(Seq<DoubleColumn> columns) {
+        int rowCount = Slices.totalRowCount(columns);
+        double[] concatenated = new double[rowCount];
+        BitSet concatenatedNulls = new BitSet();
+        int position = 0;
+        for (DoubleColumn column : columns) {
+            System.arraycopy(column.values, column.offset, concatenated, position, column.rowCount);
+            Slices.copyBits(column.nulls, column.offset, column.rowCount, concatenatedNulls, position);
+            position += column.rowCount;
+        }
+        DoubleColumn first = columns.head();
+        return new DoubleColumn(first.id, concatenated, concatenatedNulls, 0, rowCount, first.metaData);
+    }
+
+    /**
+     * Returns the rows with values from {@code min} to {@code max} (both inclusive), in ascending order of their values
+     * (as ordered by {@link Double#compare(double, double)}). The first query builds a sorted index (a permutation of
+     * all rows with values, which is retained by this column), unless the column is already sorted. Each query is then
+     * a binary search plus a copy of the matching rows.
+     */
+    public int[] rowsBetween(double min, double max) {
+        ColumnStatistics<Double> statistics = getStatistics();
+        // statistics are inconclusive in the presence of NaN (which wins both minimum and maximum)
+        boolean belowAll = statistics.getMin().forAll(value -> !Double.isNaN(value) && Double.compare(max, value) < 0);
+        boolean aboveAll = statistics.getMax().forAll(value -> !Double.isNaN(value) && Double.compare(min, value) > 0);
+        if (belowAll || aboveAll) {
+            return new int[0]; // disjoint ranges (or no values at all) need no index
+        }
+        SortedIndex index = getSortedIndex();
+        int from = index.lowerBound(row -> Double.compare(getValueAt(row), min) < 0);
+        int to = index.lowerBound(row -> Double.compare(getValueAt(row), max) <= 0);
+        return index.getRows(from, to);
+    }
+
+    private SortedIndex getSortedIndex() {
+        SortedIndex result = sortedIndex;
+        if (result == null) {
+            // racy single-check: concurrent callers may build equivalent (immutable) indices
+            result = SortedIndex.of(this, getStatistics());
+            sortedIndex = result;
+        }
+        return result;
     }
 
     public static final class Builder implements Column.Builder<Double, DoubleColumn> {
 
         private final DoubleColumnId id;
-        private final DoubleStream.Builder valueBuilder;
+        private final DoubleArrayBuilder values;
+        private final BitSet nulls;
         private final MetaDataBuilder metaDataBuilder;
 
-        private Builder(DoubleColumnId id) {
+        private Builder(DoubleColumnId id, int expectedSize) {
             this.id = id;
-            this.valueBuilder = DoubleStream.builder();
+            this.values = new DoubleArrayBuilder(expectedSize);
+            this.nulls = new BitSet();
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
+        /**
+         * Adds the given value, where {@code null} denotes a missing value.
+         */
         @Override
         public Builder add(Double value) {
-            valueBuilder.add(value);
+            return value == null ? addNull() : addDouble(value);
+        }
+
+        /**
+         * Unboxed variant of {@link #add(Double)}.
+         */
+        public Builder addDouble(double value) {
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Adds a missing value (which is only recorded in a validity bitmap, not as a boxed sentinel).
+         */
+        public Builder addNull() {
+            nulls.set(values.size());
+            values.add(Double.NaN);
             return this;
         }
 
         public Builder addAll(double... values) {
-            return addAll(Arrays.stream(values));
+            for (double value : values) {
+                this.values.add(value);
+            }
+            return this;
         }
 
         public Builder addAll(DoubleStream values) {
-            values.forEachOrdered(this::add);
+            values.forEachOrdered(this.values::add);
             return this;
         }
 
@@ -116,7 +314,7 @@ public final class DoubleColumn implements Column<DoubleColumnId> {
 
         @Override
         public DoubleColumn build() {
-            return new DoubleColumn(id, valueBuilder.build(), metaDataBuilder.build());
+            return new DoubleColumn(id, values.toArray(), (BitSet) nulls.clone(), 0, values.size(), metaDataBuilder.build());
         }
 
     }
@@ -17,14 +17,16 @@
 package ch.netzwerg.paleo;
 
 import io.vavr.collection.Array;
+import io.vavr.collection.IndexedSeq;
 import io.vavr.collection.LinkedHashMap;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 
 import java.util.Objects;
 
 public final class GenericColumn<V, I extends ColumnIds.GenericColumnId> extends AbstractColumn<V, I> {
 
-    private GenericColumn(I id, Array<V> values, Map<String, String> metaData) {
+    private GenericColumn(I id, IndexedSeq<V> values, Map<String, String> metaData) {
         super(id, values, metaData);
     }
 
@@ -49,4 +51,30 @@ public final class GenericColumn<V, I extends ColumnIds.GenericColumnId> extends
         return new GenericColumn<>(id, Array.ofAll(values), Objects.requireNonNull(metaData, "metaData is null"));
     }
 
-}
\ No newline at end of file
+    /**
+     * Returns the given rows (generic values are kept in an immutable {@link Array}, i.e. only references are copied).
+     */
+    @Override
+    public GenericColumn<V, I> slice(int fromIndex, int toIndex) {
+        return new GenericColumn<>(getId(), sliceValues(fromIndex, toIndex), getMetaData());
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to {@code null}
+     * values (only references are copied).
+     */
+    @Override
+    public GenericColumn<V, I> take(int[] rowIndices) {
+        return new GenericColumn<>(getId(), takeValues(rowIndices), getMetaData());
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column.
+     */
+    static <V, I extends ColumnIds.GenericColumnId> GenericColumn<V, I> concat(Seq<GenericColumn<V, I>> columns) {
+        GenericColumn<V, I> first = columns.head();
+        return new GenericColumn<>(first.getId(), Array.ofAll(columns.flatMap(AbstractColumn::getValues)), first.getMetaData());
+    }
+
+}
@@ -0,0 +1,459 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
+import ch.netzwerg.paleo.impl.LongArrayBuilder;
+import io.vavr.collection.Array;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static ch.netzwerg.paleo.ColumnIds.CategoryColumnId;
+
+/**
+ * Group-by engine: rows are first mapped to group ids (an {@code int[]} with one entry per row), and all aggregates are
+ * then computed in a single pass over that mapping, accumulating into primitive per-group arrays. The pass proceeds in
+ * chunks of rows, where each chunk runs one tight loop per source column (i.e. the group ids of a chunk are still
+ * cached when the next source column is accumulated).
+ */
+final class GroupBy {
+
+    static final int NO_GROUP = -1;
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private GroupBy() {
+    }
+
+    /**
+     * Uses the dictionary codes of the key column as group ids, i.e. no hashing is involved. Rows with a missing key
+     * are not part of any group.
+     */
+    static DataFrame byCategory(DataFrame dataFrame, CategoryColumnId keyId, Array<Aggregate<?>> aggregates) {
+        CategoryColumn keys = dataFrame.getColumn(keyId);
+        int rowCount = keys.getRowCount();
+        int[] groupOfRow = new int[rowCount];
+        int[] groupSizes = new int[keys.getCategoryCount()];
+        for (int row = 0; row < rowCount; row++) {
+            if (keys.isNullAt(row)) {
+                groupOfRow[row] = NO_GROUP;
+            } else {
+                int code = keys.getCodeAt(row);
+                groupOfRow[row] = code;
+                groupSizes[code]++;
+            }
+        }
+
+        // categories which do not occur (e.g. in a slice) do not lead to a result row
+        CategoryColumn.Builder keyBuilder = CategoryColumn.builder(keyId, groupSizes.length).putAllMetaData(keys.getMetaData());
+        int emittedCount = 0;
+        int[] emittedGroups = new int[groupSizes.length];
+        for (int code = 0; code < groupSizes.length; code++) {
+            if (groupSizes[code] > 0) {
+                emittedGroups[emittedCount++] = code;
+                keyBuilder.add(keys.getCategory(code));
+            }
+        }
+
+        Groups groups = new Groups(groupOfRow, groupSizes, Arrays.copyOf(emittedGroups, emittedCount));
+        return toDataFrame(dataFrame, Array.of(keyBuilder.build()), groups, aggregates);
+    }
+
+    /**
+     * Hash aggregation over composite keys (category, int, long and boolean columns). Each key column is normalized
+     * into a non-negative component of known bit width (i.e. dictionary code, boolean bit, or distance from the
+     * column minimum). If all widths add up to at most 64 bits, composite keys are packed into one {@code long} and
+     * looked up in a primitive open addressing table. Otherwise, the components of all distinct keys are stored in a
+     * key arena ({@code long[]} with one slot per component), and the table refers to arena positions. Rows with any
+     * missing key are ignored. Groups appear in order of first occurrence.
+     */
+    static DataFrame byKeys(DataFrame dataFrame, Array<ColumnId> keyIds, Array<Aggregate<?>> aggregates) {
+        if (keyIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        KeyComponent[] components = keyIds.map(keyId -> KeyComponent.of(dataFrame.getColumn(keyId))).toJavaArray(KeyComponent[]::new);
+        int totalBits = 0;
+        for (KeyComponent component : components) {
+            totalBits += component.bits;
+        }
+        int rowCount = dataFrame.getRowCount();
+        int[] groupOfRow = new int[rowCount];
+        IntArrayBuilder firstRows = new IntArrayBuilder();
+        if (totalBits <= Long.SIZE) {
+            PackedKeyTable table = new PackedKeyTable();
+            for (int row = 0; row < rowCount; row++) {
+                if (anyNull(components, row)) {
+                    groupOfRow[row] = NO_GROUP;
+                    continue;
+                }
+                long key = 0;
+                for (KeyComponent component : components) {
+                    key = (key << component.bits) | component.get(row);
+                }
+                int group = table.getOrAdd(key);
+                if (group == firstRows.size()) {
+                    firstRows.add(row);
+                }
+                groupOfRow[row] = group;
+            }
+        } else {
+            KeyArenaTable table = new KeyArenaTable(components.length);
+            long[] key = new long[components.length];
+            for (int row = 0; row < rowCount; row++) {
+                if (anyNull(components, row)) {
+                    groupOfRow[row] = NO_GROUP;
+                    continue;
+                }
+                for (int i = 0; i < components.length; i++) {
+                    key[i] = components[i].get(row);
+                }
+                int group = table.getOrAdd(key);
+                if (group == firstRows.size()) {
+                    firstRows.add(row);
+                }
+                groupOfRow[row] = group;
+            }
+        }
+
+        int groupCount = firstRows.size();
+        int[] groupSizes = new int[groupCount];
+        for (int group : groupOfRow) {
+            if (group != NO_GROUP) {
+                groupSizes[group]++;
+            }
+        }
+        int[] emittedGroups = new int[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            emittedGroups[group] = group;
+        }
+
+        int[] keyRows = firstRows.toArray();
+        Array<Column<?>> keyColumns = keyIds.map(keyId -> dataFrame.getColumn(keyId).take(keyRows));
+        return toDataFrame(dataFrame, keyColumns, new Groups(groupOfRow, groupSizes, emittedGroups), aggregates);
+    }
+
+    private static boolean anyNull(KeyComponent[] components, int row) {
+        for (KeyComponent component : components) {
+            if (component.isNullAt(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static DataFrame toDataFrame(DataFrame dataFrame, Array<Column<?>> keyColumns, Groups groups, Array<Aggregate<?>> aggregates) {
+        Map<ColumnId, Aggregate.Stats> statsBySourceId = new HashMap<>();
+        for (Aggregate<?> aggregate : aggregates) {
+            aggregate.addStats(dataFrame, groups, statsBySourceId);
+        }
+        Aggregate.Stats[] stats = statsBySourceId.values().toArray(new Aggregate.Stats[0]);
+        int[] groupOfRow = groups.groupOfRow;
+        for (int fromRow = 0; fromRow < groupOfRow.length; fromRow += CHUNK_SIZE) {
+            int toRow = Math.min(fromRow + CHUNK_SIZE, groupOfRow.length);
+            for (Aggregate.Stats sourceStats : stats) {
+                sourceStats.accumulate(groupOfRow, fromRow, toRow);
+            }
+        }
+        Array<Column<?>> aggregateColumns = aggregates.map(aggregate -> aggregate.compute(groups, statsBySourceId));
+        return DataFrame.ofAll(keyColumns.appendAll(aggregateColumns));
+    }
+
+    /**
+     * Assignment of rows to groups. The result contains one row per emitted group (in the given order).
+     */
+    static final class Groups {
+
+        final int[] groupOfRow;
+        final int[] groupSizes;
+        final int[] emittedGroups;
+
+        Groups(int[] groupOfRow, int[] groupSizes, int[] emittedGroups) {
+            this.groupOfRow = groupOfRow;
+            this.groupSizes = groupSizes;
+            this.emittedGroups = emittedGroups;
+        }
+
+        int getGroupCount() {
+            return groupSizes.length;
+        }
+
+    }
+
+    // -- Keys
+
+    /**
+     * Normalized view of a key column, where {@link #get(int)} returns a value between {@code 0} and
+     * {@code 2^bits - 1} (interpreted as unsigned for 64 bits).
+     */
+    private abstract static class KeyComponent {
+
+        final int bits;
+
+        private KeyComponent(int bits) {
+            this.bits = bits;
+        }
+
+        static KeyComponent of(Column<?> column) {
+            if (column instanceof CategoryColumn) {
+                return new CategoryComponent((CategoryColumn) column);
+            } else if (column instanceof IntColumn) {
+                return new IntComponent((IntColumn) column);
+            } else if (column instanceof LongColumn) {
+                return new LongComponent((LongColumn) column);
+            } else if (column instanceof BooleanColumn) {
+                return new BooleanComponent((BooleanColumn) column);
+            } else {
+                String msg = String.format("Unsupported key column '%s' (%s)", column.getId(), column.getClass().getSimpleName());
+                throw new IllegalArgumentException(msg);
+            }
+        }
+
+        static int bitsFor(long maxValue) {
+            return Long.SIZE - Long.numberOfLeadingZeros(maxValue);
+        }
+
+        abstract boolean isNullAt(int row);
+
+        abstract long get(int row);
+
+    }
+
+    private static final class CategoryComponent extends KeyComponent {
+
+        private final CategoryColumn column;
+
+        private CategoryComponent(CategoryColumn column) {
+            super(bitsFor(column.getCategoryCount() - 1));
+            this.column = column;
+        }
+
+        @Override
+        boolean isNullAt(int row) {
+            return column.isNullAt(row);
+        }
+
+        @Override
+        long get(int row) {
+            return column.getCodeAt(row);
+        }
+
+    }
+
+    private static final class BooleanComponent extends KeyComponent {
+
+        private final BooleanColumn column;
+
+        private BooleanComponent(BooleanColumn column) {
+            super(1);
+            this.column = column;
+        }
+
+        @Override
+        boolean isNullAt(int row) {
+            return column.isNullAt(row);
+        }
+
+        @Override
+        long get(int row) {
+            return column.getValueAt(row) ? 1 : 0;
+        }
+
+    }
+
+    private static final class IntComponent extends KeyComponent {
+
+        private final IntColumn column;
+        private final int min;
+
+        private IntComponent(IntColumn column) {
+            this(column, column.getStatistics().getMin().getOrElse(0), column.getStatistics().getMax().getOrElse(0));
+        }
+
+        private IntComponent(IntColumn column, int min, int max) {
+            super(bitsFor((long) max - min));
+            this.column = column;
+            this.min = min;
+        }
+
+        @Override
+        boolean isNullAt(int row) {
+            return column.isNullAt(row);
+        }
+
+        @Override
+        long get(int row) {
+            return (long) column.getValueAt(row) - min;
+        }
+
+    }
+
+    private static final class LongComponent extends KeyComponent {
+
+        private final LongColumn column;
+        private final long min;
+
+        private LongComponent(LongColumn column) {
+            this(column, column.getStatistics().getMin().getOrElse(0L), column.getStatistics().getMax().getOrElse(0L));
+        }
+
+        private LongComponent(LongColumn column, long min, long max) {
+            super(bitsFor(max - min)); // the difference is correct if interpreted as unsigned
+            this.column = column;
+            this.min = min;
+        }
+
+        @Override
+        boolean isNullAt(int row) {
+            return column.isNullAt(row);
+        }
+
+        @Override
+        long get(int row) {
+            return column.getValueAt(row) - min;
+        }
+
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Open addressing (linear probing) table from packed keys to group ids, which are assigned consecutively.
+     */
+    private static final class PackedKeyTable {
+
+        private long[] keys = new long[64];
+        private int[] groups = new int[64]; // group id + 1, 0 denotes an empty slot
+        private int size;
+
+        int getOrAdd(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                int group = groups[slot];
+                if (group == 0) {
+                    keys[slot] = key;
+                    groups[slot] = ++size;
+                    if (size * 2 > keys.length) {
+                        rehash();
+                    }
+                    return size - 1;
+                } else if (keys[slot] == key) {
+                    return group - 1;
+                }
+            }
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldGroups = groups;
+            keys = new long[oldKeys.length * 2];
+            groups = new int[oldGroups.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldGroups[i] != 0) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (groups[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    groups[slot] = oldGroups[i];
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Open addressing table for keys which do not fit into 64 bits. The components of each distinct key are appended
+     * to an arena (i.e. the key of group {@code g} occupies {@code arena[g * width]} to
+     * {@code arena[(g + 1) * width]}), and slots only hold group ids and hashes.
+     */
+    private static final class KeyArenaTable {
+
+        private final int width;
+        private final LongArrayBuilder arena;
+        private int[] groups = new int[64]; // group id + 1, 0 denotes an empty slot
+        private int[] hashes = new int[64];
+        private int size;
+
+        KeyArenaTable(int width) {
+            this.width = width;
+            this.arena = new LongArrayBuilder();
+        }
+
+        int getOrAdd(long[] key) {
+            int hash = hash(key);
+            int mask = groups.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int group = groups[slot];
+                if (group == 0) {
+                    for (long component : key) {
+                        arena.add(component);
+                    }
+                    groups[slot] = ++size;
+                    hashes[slot] = hash;
+                    if (size * 2 > groups.length) {
+                        rehash();
+                    }
+                    return size - 1;
+                } else if (hashes[slot] == hash && arenaEquals(group - 1, key)) {
+                    return group - 1;
+                }
+            }
+        }
+
+        private int hash(long[] key) {
+            int hash = 1;
+            for (long component : key) {
+                hash = 31 * hash + GroupBy.hash(component);
+            }
+            return hash;
+        }
+
+        private boolean arenaEquals(int group, long[] key) {
+            int offset = group * width;
+            for (int i = 0; i < width; i++) {
+                if (arena.get(offset + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            int[] oldGroups = groups;
+            int[] oldHashes = hashes;
+            groups = new int[oldGroups.length * 2];
+            hashes = new int[oldHashes.length * 2];
+            int mask = groups.length - 1;
+            for (int i = 0; i < oldGroups.length; i++) {
+                if (oldGroups[i] != 0) {
+                    int slot = oldHashes[i] & mask;
+                    while (groups[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    groups[slot] = oldGroups[i];
+                    hashes[slot] = oldHashes[i];
+                }
+            }
+        }
+
+    }
+
+}
@@ -16,23 +16,38 @@
 
 package ch.netzwerg.paleo;
 
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
 import java.util.stream.IntStream;
 
 import static ch.netzwerg.paleo.ColumnIds.IntColumnId;
 
 public final class IntColumn implements Column<IntColumnId> {
 
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
     private final IntColumnId id;
     private final int[] values;
+    private final BitSet nulls;
+    private final int offset;
+    private final int rowCount;
     private final Map<String, String> metaData;
+    private volatile SortedIndex sortedIndex; // built lazily
+    private volatile ColumnStatistics<Integer> statistics; // computed lazily
 
-    private IntColumn(IntColumnId id, IntStream values, Map<String, String> metaData) {
+    private IntColumn(IntColumnId id, int[] values, BitSet nulls, int offset, int rowCount, Map<String, String> metaData) {
         this.id = id;
-        this.values = values.toArray();
+        this.values = values;
+        this.nulls = nulls;
+        this.offset = offset;
+        this.rowCount = rowCount;
         this.metaData = metaData;
     }
 
@@ -49,7 +64,14 @@ public final class IntColumn implements Column<IntColumnId> {
     }
 
     public static Builder builder(IntColumnId id) {
-        return new Builder(id);
+        return new Builder(id, DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a builder which pre-sizes its value buffer for the given number of rows.
+     */
+    public static Builder builder(IntColumnId id, int expectedSize) {
+        return new Builder(id, expectedSize);
     }
 
     @Override
@@ -59,7 +81,7 @@ public final class IntColumn implements Column<IntColumnId> {
 
     @Override
     public int getRowCount() {
-        return values.length;
+        return rowCount;
     }
 
     @Override
@@ -67,38 +89,207 @@ public final class IntColumn implements Column<IntColumnId> {
         return metaData;
     }
 
+    /**
+     * Returns the value at the given row, which is unspecified for missing values (see {@link #isNullAt(int)}).
+     */
     public int getValueAt(int index) {
-        return values[index];
+        Slices.checkIndex(index, rowCount);
+        return values[offset + index];
+    }
+
+    /**
+     * Returns the value at the given row, or {@code other} if the value is missing.
+     */
+    public int getValueOrElse(int index, int other) {
+        Slices.checkIndex(index, rowCount);
+        return nulls.get(offset + index) ? other : values[offset + index];
+    }
+
+    public boolean isNullAt(int index) {
+        Slices.checkIndex(index, rowCount);
+        return nulls.get(offset + index);
+    }
+
+    public boolean hasNulls() {
+        return Slices.anySet(nulls, offset, rowCount);
+    }
+
+    public int getNullCount() {
+        return Slices.cardinality(nulls, offset, rowCount);
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<Integer> getStatistics() {
+        ColumnStatistics<Integer> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
     }
 
     public IntStream valueStream() {
-        return Arrays.stream(values);
+        return Arrays.stream(values, offset, offset + rowCount);
+    }
+
+    /**
+     * Returns the number of non-missing values.
+     */
+    public int count() {
+        return rowCount - getNullCount();
+    }
+
+    /**
+     * Returns the sum of all non-missing values ({@code 0} if there are none).
+     */
+    public long sum() {
+        return Aggregations.sum(values, nulls, offset, rowCount);
+    }
+
+    public OptionalInt min() {
+        return count() == 0 ? OptionalInt.empty() : OptionalInt.of(Aggregations.min(values, nulls, offset, rowCount));
+    }
+
+    public OptionalInt max() {
+        return count() == 0 ? OptionalInt.empty() : OptionalInt.of(Aggregations.max(values, nulls, offset, rowCount));
+    }
+
+    public OptionalDouble mean() {
+        int count = count();
+        return count == 0 ? OptionalDouble.empty() : OptionalDouble.of((double) sum() / count);
+    }
+
+    /**
+     * Returns the sample variance of all non-missing values (which requires at least two values).
+     */
+    public OptionalDouble variance() {
+        int count = count();
+        if (count < 2) {
+            return OptionalDouble.empty();
+        }
+        double mean = (double) sum() / count;
+        return OptionalDouble.of(Aggregations.variance(Aggregations.squaredDeviations(values, nulls, offset, rowCount, mean), count));
+    }
+
+    @Override
+    public IntColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, rowCount);
+        return new IntColumn(id, values, nulls, offset + fromIndex, toIndex - fromIndex, metaData);
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     */
+    @Override
+    public IntColumn take(int[] rowIndices) {
+        int[] taken = new int[rowIndices.length];
+        BitSet takenNulls = new BitSet();
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, rowCount);
+            if (rowIndex < 0 || nulls.get(offset + rowIndex)) {
+                takenNulls.set(i);
+            } else {
+                taken[i] = values[offset + rowIndex];
+            }
+        }
+        return new IntColumn(id, taken, takenNulls, 0, rowIndices.length, metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column.
+     */
+    static IntColumn concat(Seq<IntColumn> columns) {
+        int rowCount = Slices.totalRowCount(columns);
+        int[] concatenated = new int[rowCount];
+        BitSet concatenatedNulls = new BitSet();
+        int position = 0;
+        for (IntColumn column : columns) {
+            System.arraycopy(column.values, column.offset, concatenated, position, column.rowCount);
+            Slices.copyBits(column.nulls, column.offset, column.rowCount, concatenatedNulls, position);
+            position += column.rowCount;
+        }
+        IntColumn first = columns.head();
+        return new IntColumn(first.id, concatenated, concatenatedNulls, 0, rowCount, first.metaData);
+    }
+
+    /**
+     * Returns the rows with values from {@code min} to {@code max} (both inclusive), in ascending order of their values.
+     * The first query builds a sorted index (a permutation of all rows with values, which is retained by this column),
+     * unless the column is already sorted. Each query is then a binary search plus a copy of the matching rows.
+     */
+    public int[] rowsBetween(int min, int max) {
+        ColumnStatistics<Integer> statistics = getStatistics();
+        if (statistics.getMin().forAll(value -> max < value) || statistics.getMax().forAll(value -> min > value)) {
+            return new int[0]; // disjoint ranges (or no values at all) need no index
+        }
+        SortedIndex index = getSortedIndex();
+        int from = index.lowerBound(row -> getValueAt(row) < min);
+        int to = index.lowerBound(row -> getValueAt(row) <= max);
+        return index.getRows(from, to);
+    }
+
+    private SortedIndex getSortedIndex() {
+        SortedIndex result = sortedIndex;
+        if (result == null) {
+            // racy single-check: concurrent callers may build equivalent (immutable) indices
+            result = SortedIndex.of(this, getStatistics());
+            sortedIndex = result;
+        }
+        return result;
     }
 
     public static final class Builder implements Column.Builder<Integer, IntColumn> {
 
         private final IntColumnId id;
-        private final IntStream.Builder valueBuilder;
+        private final IntArrayBuilder values;
+        private final BitSet nulls;
         private final MetaDataBuilder metaDataBuilder;
 
-        private Builder(IntColumnId id) {
+        private Builder(IntColumnId id, int expectedSize) {
             this.id = id;
-            this.valueBuilder = IntStream.builder();
+            this.values = new IntArrayBuilder(expectedSize);
+            this.nulls = new BitSet();
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
+        /**
+         * Adds the given value, where {@code null} denotes a missing value.
+         */
         @Override
         public Builder add(Integer value) {
-            valueBuilder.add(value);
+            return value == null ? addNull() : addInt(value);
+        }
+
+        /**
+         * Unboxed variant of {@link #add(Integer)}.
+         */
+        public Builder addInt(int value) {
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Adds a missing value (which is only recorded in a validity bitmap, not as a boxed sentinel).
+         */
+        public Builder addNull() {
+            nulls.set(values.size());
+            values.add(0);
             return this;
         }
 
         public Builder addAll(int... values) {
-            return addAll(Arrays.stream(values));
+            for (int value : values) {
+                this.values.add(value);
+            }
+            return this;
         }
 
         public Builder addAll(IntStream values) {
-            values.forEachOrdered(this::add);
+            values.forEachOrdered(this.values::add);
             return this;
         }
 
@@ -116,7 +307,7 @@ public final class IntColumn implements Column<IntColumnId> {
 
         @Override
         public IntColumn build() {
-            return new IntColumn(id, valueBuilder.build(), metaDataBuilder.build());
+            return new IntColumn(id, values.toArray(), (BitSet) nulls.clone(), 0, values.size(), metaDataBuilder.build());
         }
 
     }
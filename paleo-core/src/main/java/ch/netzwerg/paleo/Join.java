@@ -0,0 +1,286 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
+import io.vavr.collection.Array;
+
+import java.util.Arrays;
+
+import static ch.netzwerg.paleo.ColumnIds.StringColumnId;
+
+/**
+ * Hash join: the right data frame is the build side, i.e. its key column is loaded into a primitive open addressing
+ * table (which maps each distinct key to a chain of right rows). The left key column is then probed row by row,
+ * producing two gather index vectors (matching left and right rows), which are finally used to copy the columns of
+ * both sides. Missing keys never match. String keys are hashed and compared on their UTF-8 bytes (see
+ * {@link StringColumn#hashValueAt(int)}), and category keys only once per category.
+ */
+final class Join {
+
+    private static final int NO_ROW = -1;
+
+    private Join() {
+    }
+
+    static DataFrame inner(DataFrame left, ColumnId leftKeyId, DataFrame right, ColumnId rightKeyId) {
+        return join(left, leftKeyId, right, rightKeyId, false);
+    }
+
+    static DataFrame left(DataFrame left, ColumnId leftKeyId, DataFrame right, ColumnId rightKeyId) {
+        return join(left, leftKeyId, right, rightKeyId, true);
+    }
+
+    private static DataFrame join(DataFrame left, ColumnId leftKeyId, DataFrame right, ColumnId rightKeyId, boolean keepUnmatched) {
+        Column<?> leftKey = left.getColumn(leftKeyId);
+        Column<?> rightKey = right.getColumn(rightKeyId);
+        IntArrayBuilder leftRows = new IntArrayBuilder(left.getRowCount());
+        IntArrayBuilder rightRows = new IntArrayBuilder(left.getRowCount());
+        if (isNumeric(leftKey) && isNumeric(rightKey)) {
+            LongKeyTable table = LongKeyTable.build(rightKey);
+            for (int row = 0; row < left.getRowCount(); row++) {
+                int match = isNullAt(leftKey, row) ? NO_ROW : table.getFirstRow(getLong(leftKey, row));
+                emit(row, match, table.next, leftRows, rightRows, keepUnmatched);
+            }
+        } else if (isString(leftKey) && isString(rightKey)) {
+            StringKeyTable table = StringKeyTable.build(rightKey);
+            if (leftKey instanceof CategoryColumn) {
+                // resolve each category only once
+                CategoryColumn categories = (CategoryColumn) leftKey;
+                StringColumn dictionary = dictionaryOf(categories);
+                int[] firstRowByCode = new int[categories.getCategoryCount()];
+                for (int code = 0; code < firstRowByCode.length; code++) {
+                    firstRowByCode[code] = table.getFirstRow(dictionary, code);
+                }
+                for (int row = 0; row < left.getRowCount(); row++) {
+                    int match = categories.isNullAt(row) ? NO_ROW : firstRowByCode[categories.getCodeAt(row)];
+                    emit(row, match, table.next, leftRows, rightRows, keepUnmatched);
+                }
+            } else {
+                StringColumn strings = (StringColumn) leftKey;
+                for (int row = 0; row < left.getRowCount(); row++) {
+                    int match = strings.isNullAt(row) ? NO_ROW : table.getFirstRow(strings, row);
+                    emit(row, match, table.next, leftRows, rightRows, keepUnmatched);
+                }
+            }
+        } else {
+            String msg = String.format("Incompatible join keys '%s' (%s) and '%s' (%s)", leftKeyId, leftKey.getClass().getSimpleName(), rightKeyId, rightKey.getClass().getSimpleName());
+            throw new IllegalArgumentException(msg);
+        }
+
+        int[] leftIndices = leftRows.toArray();
+        int[] rightIndices = rightRows.toArray();
+        Array<Column<?>> leftColumns = Array.ofAll(left.getColumns()).map(column -> column.take(leftIndices));
+        Array<Column<?>> rightColumns = Array.ofAll(right.getColumns())
+                .filter(column -> column.getId() != rightKeyId)
+                .map(column -> column.take(rightIndices));
+        return DataFrame.ofAll(leftColumns.appendAll(rightColumns)).withMetaData(left.getMetaData());
+    }
+
+    private static void emit(int leftRow, int firstMatch, int[] next, IntArrayBuilder leftRows, IntArrayBuilder rightRows, boolean keepUnmatched) {
+        if (firstMatch == NO_ROW) {
+            if (keepUnmatched) {
+                leftRows.add(leftRow);
+                rightRows.add(NO_ROW);
+            }
+        } else {
+            for (int match = firstMatch; match != NO_ROW; match = next[match]) {
+                leftRows.add(leftRow);
+                rightRows.add(match);
+            }
+        }
+    }
+
+    private static boolean isNumeric(Column<?> column) {
+        return column instanceof IntColumn || column instanceof LongColumn;
+    }
+
+    private static boolean isString(Column<?> column) {
+        return column instanceof StringColumn || column instanceof CategoryColumn;
+    }
+
+    private static boolean isNullAt(Column<?> column, int row) {
+        return column instanceof IntColumn ? ((IntColumn) column).isNullAt(row) : ((LongColumn) column).isNullAt(row);
+    }
+
+    private static long getLong(Column<?> column, int row) {
+        return column instanceof IntColumn ? ((IntColumn) column).getValueAt(row) : ((LongColumn) column).getValueAt(row);
+    }
+
+    /**
+     * Packs the categories of the given column into a string column, where row {@code i} holds the category with code
+     * {@code i}.
+     */
+    private static StringColumn dictionaryOf(CategoryColumn column) {
+        StringColumn.Builder builder = StringColumn.packedBuilder(StringColumnId.of(column.getId().getName()));
+        for (int code = 0; code < column.getCategoryCount(); code++) {
+            builder.add(column.getCategory(code));
+        }
+        return builder.build();
+    }
+
+    private static int capacityFor(int keyCount) {
+        return Integer.highestOneBit(Math.max(keyCount, 1) * 2 - 1) << 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Links the rows of each key into a chain, i.e. {@code next[row]} is the next row with the same key (or
+     * {@link #NO_ROW}). Rows are linked in reverse, so that chains list the rows in ascending order.
+     */
+    private static void link(int row, int[] firstRows, int slot, int[] next) {
+        next[row] = firstRows[slot];
+        firstRows[slot] = row;
+    }
+
+    private static final class LongKeyTable {
+
+        private final long[] keys;
+        private final int[] firstRows; // NO_ROW denotes an empty slot
+        private final int[] next;
+
+        private LongKeyTable(int rowCount) {
+            int capacity = capacityFor(rowCount);
+            this.keys = new long[capacity];
+            this.firstRows = new int[capacity];
+            this.next = new int[rowCount];
+            Arrays.fill(firstRows, NO_ROW);
+        }
+
+        static LongKeyTable build(Column<?> column) {
+            LongKeyTable table = new LongKeyTable(column.getRowCount());
+            for (int row = column.getRowCount() - 1; row >= 0; row--) {
+                if (isNullAt(column, row)) {
+                    table.next[row] = NO_ROW;
+                } else {
+                    link(row, table.firstRows, table.slotOf(getLong(column, row)), table.next);
+                }
+            }
+            return table;
+        }
+
+        private int slotOf(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (firstRows[slot] != NO_ROW && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            return slot;
+        }
+
+        int getFirstRow(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; firstRows[slot] != NO_ROW; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return firstRows[slot];
+                }
+            }
+            return NO_ROW;
+        }
+
+    }
+
+    /**
+     * Open addressing table over the distinct keys of the build side, where each key is represented by a row of a
+     * string column (i.e. of the key column itself, or of the packed dictionary of a category column). Keys are hashed
+     * and compared without decoding packed values, and the rows of a category column are linked via their codes (i.e.
+     * only each category is hashed once).
+     */
+    private static final class StringKeyTable {
+
+        private final StringColumn keys;
+        private final int[] keyRows; // NO_ROW denotes an empty slot
+        private final int[] hashes;
+        private final int[] firstRows;
+        private final int[] next;
+
+        private StringKeyTable(StringColumn keys, int keyCount, int rowCount) {
+            int capacity = capacityFor(keyCount);
+            this.keys = keys;
+            this.keyRows = new int[capacity];
+            this.hashes = new int[capacity];
+            this.firstRows = new int[capacity];
+            this.next = new int[rowCount];
+            Arrays.fill(keyRows, NO_ROW);
+            Arrays.fill(firstRows, NO_ROW);
+        }
+
+        static StringKeyTable build(Column<?> column) {
+            int rowCount = column.getRowCount();
+            if (column instanceof CategoryColumn) {
+                CategoryColumn categories = (CategoryColumn) column;
+                StringKeyTable table = new StringKeyTable(dictionaryOf(categories), categories.getCategoryCount(), rowCount);
+                int[] slotByCode = new int[categories.getCategoryCount()];
+                for (int code = 0; code < slotByCode.length; code++) {
+                    slotByCode[code] = table.slotOf(code);
+                }
+                for (int row = rowCount - 1; row >= 0; row--) {
+                    if (categories.isNullAt(row)) {
+                        table.next[row] = NO_ROW;
+                    } else {
+                        link(row, table.firstRows, slotByCode[categories.getCodeAt(row)], table.next);
+                    }
+                }
+                return table;
+            } else {
+                StringColumn strings = (StringColumn) column;
+                StringKeyTable table = new StringKeyTable(strings, rowCount, rowCount);
+                for (int row = rowCount - 1; row >= 0; row--) {
+                    if (strings.isNullAt(row)) {
+                        table.next[row] = NO_ROW;
+                    } else {
+                        link(row, table.firstRows, table.slotOf(row), table.next);
+                    }
+                }
+                return table;
+            }
+        }
+
+        /**
+         * Returns the slot of the key at the given row of the key column (which is added if not present yet).
+         */
+        private int slotOf(int keyRow) {
+            int hash = keys.hashValueAt(keyRow);
+            int mask = keyRows.length - 1;
+            int slot = hash(hash) & mask;
+            while (keyRows[slot] != NO_ROW && (hashes[slot] != hash || !keys.valueEquals(keyRows[slot], keys, keyRow))) {
+                slot = (slot + 1) & mask;
+            }
+            if (keyRows[slot] == NO_ROW) {
+                keyRows[slot] = keyRow;
+                hashes[slot] = hash;
+            }
+            return slot;
+        }
+
+        int getFirstRow(StringColumn probe, int row) {
+            int hash = probe.hashValueAt(row);
+            int mask = keyRows.length - 1;
+            for (int slot = hash(hash) & mask; keyRows[slot] != NO_ROW; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && keys.valueEquals(keyRows[slot], probe, row)) {
+                    return firstRows[slot];
+                }
+            }
+            return NO_ROW;
+        }
+
+    }
+
+}
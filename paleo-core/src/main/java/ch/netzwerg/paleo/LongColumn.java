@@ -17,21 +17,36 @@
 package ch.netzwerg.paleo;
 
 import ch.netzwerg.paleo.ColumnIds.LongColumnId;
+import ch.netzwerg.paleo.impl.LongArrayBuilder;
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
 import java.util.stream.LongStream;
 
 public class LongColumn implements Column<LongColumnId> {
 
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+
     private final LongColumnId id;
     private final long[] values;
+    private final BitSet nulls;
+    private final int offset;
+    private final int rowCount;
     private final Map<String, String> metaData;
+    private volatile SortedIndex sortedIndex; // built lazily
+    private volatile ColumnStatistics<Long> statistics; // computed lazily
 
-    private LongColumn(LongColumnId id, LongStream values, Map<String, String> metaData) {
+    private LongColumn(LongColumnId id, long[] values, BitSet nulls, int offset, int rowCount, Map<String, String> metaData) {
         this.id = id;
-        this.values = values.toArray();
+        this.values = values;
+        this.nulls = nulls;
+        this.offset = offset;
+        this.rowCount = rowCount;
         this.metaData = metaData;
     }
 
@@ -48,7 +63,14 @@ public class LongColumn implements Column<LongColumnId> {
     }
 
     public static Builder builder(LongColumnId id) {
-        return new Builder(id);
+        return new Builder(id, DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a builder which pre-sizes its value buffer for the given number of rows.
+     */
+    public static Builder builder(LongColumnId id, int expectedSize) {
+        return new Builder(id, expectedSize);
     }
 
     @Override
@@ -58,7 +80,7 @@ public class LongColumn implements Column<LongColumnId> {
 
     @Override
     public int getRowCount() {
-        return values.length;
+        return rowCount;
     }
 
     @Override
@@ -66,50 +88,219 @@ public class LongColumn implements Column<LongColumnId> {
         return metaData;
     }
 
+    /**
+     * Returns the value at the given row, which is unspecified for missing values (see {@link #isNullAt(int)}).
+     */
     public long getValueAt(int index) {
-        return values[index];
+        Slices.checkIndex(index, rowCount);
+        return values[offset + index];
+    }
+
+    /**
+     * Returns the value at the given row, or {@code other} if the value is missing.
+     */
+    public long getValueOrElse(int index, long other) {
+        Slices.checkIndex(index, rowCount);
+        return nulls.get(offset + index) ? other : values[offset + index];
+    }
+
+    public boolean isNullAt(int index) {
+        Slices.checkIndex(index, rowCount);
+        return nulls.get(offset + index);
+    }
+
+    public boolean hasNulls() {
+        return Slices.anySet(nulls, offset, rowCount);
+    }
+
+    public int getNullCount() {
+        return Slices.cardinality(nulls, offset, rowCount);
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<Long> getStatistics() {
+        ColumnStatistics<Long> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
     }
 
     public LongStream valueStream() {
-        return Arrays.stream(values);
+        return Arrays.stream(values, offset, offset + rowCount);
+    }
+
+    /**
+     * Returns the number of non-missing values.
+     */
+    public int count() {
+        return rowCount - getNullCount();
+    }
+
+    /**
+     * Returns the sum of all non-missing values ({@code 0} if there are none), which silently overflows just like
+     * {@link LongStream#sum()}.
+     */
+    public long sum() {
+        return Aggregations.sum(values, nulls, offset, rowCount);
+    }
+
+    public OptionalLong min() {
+        return count() == 0 ? OptionalLong.empty() : OptionalLong.of(Aggregations.min(values, nulls, offset, rowCount));
+    }
+
+    public OptionalLong max() {
+        return count() == 0 ? OptionalLong.empty() : OptionalLong.of(Aggregations.max(values, nulls, offset, rowCount));
+    }
+
+    public OptionalDouble mean() {
+        int count = count();
+        return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(Aggregations.doubleSum(values, nulls, offset, rowCount) / count);
+    }
+
+    /**
+     * Returns the sample variance of all non-missing values (which requires at least two values).
+     */
+    public OptionalDouble variance() {
+        int count = count();
+        if (count < 2) {
+            return OptionalDouble.empty();
+        }
+        double mean = Aggregations.doubleSum(values, nulls, offset, rowCount) / count;
+        return OptionalDouble.of(Aggregations.variance(Aggregations.squaredDeviations(values, nulls, offset, rowCount, mean), count));
+    }
+
+    @Override
+    public LongColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, rowCount);
+        return new LongColumn(id, values, nulls, offset + fromIndex, toIndex - fromIndex, metaData);
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     */
+    @Override
+    public LongColumn take(int[] rowIndices) {
+        long[] taken = new long[rowIndices.length];
+        BitSet takenNulls = new BitSet();
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, rowCount);
+            if (rowIndex < 0 || nulls.get(offset + rowIndex)) {
+                takenNulls.set(i);
+            } else {
+                taken[i] = values[offset + rowIndex];
+            }
+        }
+        return new LongColumn(id, taken, takenNulls, 0, rowIndices.length, metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column.
+     */
+    static LongColumn concat(Seq<LongColumn> columns) {
+        int rowCount = Slices.totalRowCount(columns);
+        long[] concatenated = new long[rowCount];
+        BitSet concatenatedNulls = new BitSet();
+        int position = 0;
+        for (LongColumn column : columns) {
+            System.arraycopy(column.values, column.offset, concatenated, position, column.rowCount);
+            Slices.copyBits(column.nulls, column.offset, column.rowCount, concatenatedNulls, position);
+            position += column.rowCount;
+        }
+        LongColumn first = columns.head();
+        return new LongColumn(first.id, concatenated, concatenatedNulls, 0, rowCount, first.metaData);
+    }
+
+    /**
+     * Returns the rows with values from {@code min} to {@code max} (both inclusive), in ascending order of their values.
+     * The first query builds a sorted index (a permutation of all rows with values, which is retained by this column),
+     * unless the column is already sorted. Each query is then a binary search plus a copy of the matching rows.
+     */
+    public int[] rowsBetween(long min, long max) {
+        ColumnStatistics<Long> statistics = getStatistics();
+        if (statistics.getMin().forAll(value -> max < value) || statistics.getMax().forAll(value -> min > value)) {
+            return new int[0]; // disjoint ranges (or no values at all) need no index
+        }
+        SortedIndex index = getSortedIndex();
+        int from = index.lowerBound(row -> getValueAt(row) < min);
+        int to = index.lowerBound(row -> getValueAt(row) <= max);
+        return index.getRows(from, to);
+    }
+
+    private SortedIndex getSortedIndex() {
+        SortedIndex result = sortedIndex;
+        if (result == null) {
+            // racy single-check: concurrent callers may build equivalent (immutable) indices
+            result = SortedIndex.of(this, getStatistics());
+            sortedIndex = result;
+        }
+        return result;
     }
 
     public static final class Builder implements Column.Builder<Long, LongColumn> {
 
         private final LongColumnId id;
-        private final LongStream.Builder valueBuilder;
+        private final LongArrayBuilder values;
+        private final BitSet nulls;
         private final MetaDataBuilder metaDataBuilder;
 
-        private Builder(LongColumnId id) {
+        private Builder(LongColumnId id, int expectedSize) {
             this.id = id;
-            this.valueBuilder = LongStream.builder();
+            this.values = new LongArrayBuilder(expectedSize);
+            this.nulls = new BitSet();
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
+        /**
+         * Adds the given value, where {@code null} denotes a missing value.
+         */
         @Override
         public Builder add(Long value) {
-            valueBuilder.add(value);
-            return this;
+            return value == null ? addNull() : addLong(value);
         }
 
         public Builder add(Integer value) {
-            valueBuilder.add(value);
+            return value == null ? addNull() : addLong(value);
+        }
+
+        /**
+         * Unboxed variant of {@link #add(Long)}.
+         */
+        public Builder addLong(long value) {
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Adds a missing value (which is only recorded in a validity bitmap, not as a boxed sentinel).
+         */
+        public Builder addNull() {
+            nulls.set(values.size());
+            values.add(0);
             return this;
         }
 
         public Builder addAll(long... values) {
-            return addAll(Arrays.stream(values));
+            for (long value : values) {
+                this.values.add(value);
+            }
+            return this;
         }
 
         public Builder addAll(Iterable<Long> values) {
             for (Long value : values) {
-                this.valueBuilder.add(value);
+                add(value);
             }
             return this;
         }
 
         public Builder addAll(LongStream values) {
-            values.forEachOrdered(this::add);
+            values.forEachOrdered(this.values::add);
             return this;
         }
 
@@ -127,7 +318,7 @@ public class LongColumn implements Column<LongColumnId> {
 
         @Override
         public LongColumn build() {
-            return new LongColumn(id, valueBuilder.build(), metaDataBuilder.build());
+            return new LongColumn(id, values.toArray(), (BitSet) nulls.clone(), 0, values.size(), metaDataBuilder.build());
         }
 
     }
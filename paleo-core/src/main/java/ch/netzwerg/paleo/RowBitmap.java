@@ -0,0 +1,408 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import java.util.Arrays;
+
+/**
+ * Immutable compressed set of row indices (following the layout of Roaring bitmaps): rows are partitioned by their
+ * upper 16 bits into chunks of 65536 rows, and each non-empty chunk is stored in a container which is either a sorted
+ * array of the lower 16 bits (for up to 4096 rows, i.e. at most 8 KB) or a plain bitmap (exactly 8 KB). Sparse and
+ * dense chunks are therefore both stored compactly, and unions or intersections work container by container.
+ */
+public final class RowBitmap {
+
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+    private static final RowBitmap EMPTY = new RowBitmap(new char[0], new Container[0], 0);
+
+    private final char[] keys; // upper 16 bits of each chunk (ascending)
+    private final Container[] containers;
+    private final int cardinality;
+
+    private RowBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        this.cardinality = cardinality;
+    }
+
+    private static RowBitmap of(char[] keys, Container[] containers, int size) {
+        if (size == 0) {
+            return EMPTY;
+        }
+        return new RowBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(containers, size), size);
+    }
+
+    public static RowBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a bitmap of the given (non-negative) row indices, which do not have to be sorted.
+     */
+    public static RowBitmap of(int... rowIndices) {
+        int[] sorted = rowIndices.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                builder.add(sorted[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of rows in this bitmap (constant time).
+     */
+    public int getCardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public boolean contains(int rowIndex) {
+        if (rowIndex < 0) {
+            return false;
+        }
+        int position = Arrays.binarySearch(keys, (char) (rowIndex >>> 16));
+        return position >= 0 && containers[position].contains((char) rowIndex);
+    }
+
+    public RowBitmap or(RowBitmap other) {
+        char[] resultKeys = new char[keys.length + other.keys.length];
+        Container[] resultContainers = new Container[resultKeys.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                resultKeys[size] = keys[i];
+                resultContainers[size++] = containers[i++];
+            } else if (i == keys.length || other.keys[j] < keys[i]) {
+                resultKeys[size] = other.keys[j];
+                resultContainers[size++] = other.containers[j++];
+            } else {
+                resultKeys[size] = keys[i];
+                resultContainers[size++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return of(resultKeys, resultContainers, size);
+    }
+
+    public RowBitmap and(RowBitmap other) {
+        char[] resultKeys = new char[Math.min(keys.length, other.keys.length)];
+        Container[] resultContainers = new Container[resultKeys.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (other.keys[j] < keys[i]) {
+                j++;
+            } else {
+                Container container = containers[i++].and(other.containers[j++]);
+                if (container.cardinality() > 0) {
+                    resultKeys[size] = keys[i - 1];
+                    resultContainers[size++] = container;
+                }
+            }
+        }
+        return of(resultKeys, resultContainers, size);
+    }
+
+    /**
+     * Returns all row indices in ascending order.
+     */
+    public int[] toArray() {
+        int[] rows = new int[cardinality];
+        int position = 0;
+        for (int i = 0; i < keys.length; i++) {
+            position = containers[i].copyTo(keys[i] << 16, rows, position);
+        }
+        return rows;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RowBitmap that = (RowBitmap) o;
+        return cardinality == that.cardinality && Arrays.equals(toArray(), that.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "RowBitmap" + Arrays.toString(toArray());
+    }
+
+    /**
+     * Builds a bitmap from row indices which are added in strictly ascending order.
+     */
+    static final class Builder {
+
+        private char[] keys = new char[1];
+        private Container[] containers = new Container[1];
+        private int size;
+
+        private int currentKey = -1;
+        private char[] values;
+        private long[] words;
+        private int count;
+
+        void add(int rowIndex) {
+            int key = rowIndex >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+                values = new char[4];
+            }
+            char low = (char) rowIndex;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+            } else if (count == MAX_ARRAY_SIZE) {
+                words = new long[BITMAP_WORDS];
+                for (int i = 0; i < count; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                words[low >>> 6] |= 1L << low;
+                values = null;
+            } else {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, Math.min(count * 2, MAX_ARRAY_SIZE));
+                }
+                values[count] = low;
+            }
+            count++;
+        }
+
+        private void flush() {
+            if (currentKey < 0) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            keys[size] = (char) currentKey;
+            containers[size++] = words != null ? new BitmapContainer(words, count) : new ArrayContainer(Arrays.copyOf(values, count));
+            words = null;
+            count = 0;
+        }
+
+        RowBitmap build() {
+            flush();
+            currentKey = -1;
+            return of(keys, containers, size);
+        }
+
+    }
+
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract Container or(Container other);
+
+        abstract Container and(Container other);
+
+        /**
+         * Writes the rows of this container (i.e. {@code base} plus the lower 16 bits) into the given array, returning
+         * the next position.
+         */
+        abstract int copyTo(int base, int[] rows, int position);
+
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private final char[] values; // sorted
+
+        private ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        int cardinality() {
+            return values.length;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            char[] otherValues = ((ArrayContainer) other).values;
+            char[] merged = new char[values.length + otherValues.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < values.length && j < otherValues.length) {
+                if (values[i] < otherValues[j]) {
+                    merged[size++] = values[i++];
+                } else if (otherValues[j] < values[i]) {
+                    merged[size++] = otherValues[j++];
+                } else {
+                    merged[size++] = values[i++];
+                    j++;
+                }
+            }
+            while (i < values.length) {
+                merged[size++] = values[i++];
+            }
+            while (j < otherValues.length) {
+                merged[size++] = otherValues[j++];
+            }
+            if (size <= MAX_ARRAY_SIZE) {
+                return new ArrayContainer(Arrays.copyOf(merged, size));
+            }
+            long[] words = new long[BITMAP_WORDS];
+            for (int k = 0; k < size; k++) {
+                words[merged[k] >>> 6] |= 1L << merged[k];
+            }
+            return new BitmapContainer(words, size);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] intersection = new char[values.length];
+            int size = 0;
+            for (char value : values) {
+                if (other.contains(value)) {
+                    intersection[size++] = value;
+                }
+            }
+            return new ArrayContainer(Arrays.copyOf(intersection, size));
+        }
+
+        @Override
+        int copyTo(int base, int[] rows, int position) {
+            for (char value : values) {
+                rows[position++] = base | value;
+            }
+            return position;
+        }
+
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private final int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof BitmapContainer) {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] |= otherWords[i];
+                }
+            } else {
+                for (char value : ((ArrayContainer) other).values) {
+                    result[value >>> 6] |= 1L << value;
+                }
+            }
+            return new BitmapContainer(result, bitCount(result));
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] result = words.clone();
+            long[] otherWords = ((BitmapContainer) other).words;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] &= otherWords[i];
+            }
+            int cardinality = bitCount(result);
+            if (cardinality > MAX_ARRAY_SIZE) {
+                return new BitmapContainer(result, cardinality);
+            }
+            char[] values = new char[cardinality];
+            copyTo(result, values);
+            return new ArrayContainer(values);
+        }
+
+        @Override
+        int copyTo(int base, int[] rows, int position) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    rows[position++] = base | (i << 6) | Long.numberOfTrailingZeros(word);
+                }
+            }
+            return position;
+        }
+
+        private static void copyTo(long[] words, char[] values) {
+            int position = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[position++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        private static int bitCount(long[] words) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+    }
+
+}
@@ -0,0 +1,419 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import java.time.Instant;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+
+/**
+ * Mutable cursor for row-wise iteration over a {@link DataFrame}. A single cursor instance is re-used for all rows
+ * (i.e. no objects are created per row). Columns are best bound once before iterating, which yields typed accessors
+ * that read the current row without any per-cell column lookup:
+ *
+ * <pre>
+ * RowCursor cursor = dataFrame.rowCursor();
+ * RowCursor.IntAccessor age = cursor.bind(AGE);
+ * while (cursor.next()) {
+ *     int value = age.get();
+ * }
+ * </pre>
+ *
+ * Values can also be accessed via typed column ids (which are resolved upon first use and then cached per cursor) or
+ * via column indices (see {@link DataFrame#getColumnIndex}). Cursors created via {@link Selection#rowCursor()} only
+ * visit the selected rows. Cursors (and their accessors) are not thread-safe.
+ */
+public final class RowCursor {
+
+    private final DataFrame dataFrame;
+    private final Column<?>[] columns;
+    private final int[] rows; // null denotes all rows
+    private final int rowCount;
+    private final ColumnId[] resolvedIds;
+    private final int[] resolvedIndices;
+    private int resolvedCount;
+    private int position;
+    private int rowIndex;
+
+    RowCursor(DataFrame dataFrame) {
+        this(dataFrame, null);
+    }
+
+    RowCursor(DataFrame dataFrame, int[] rows) {
+        this.dataFrame = dataFrame;
+        this.columns = dataFrame.getColumns().toJavaArray(Column<?>[]::new);
+        this.rows = rows;
+        this.rowCount = rows == null ? dataFrame.getRowCount() : rows.length;
+        this.resolvedIds = new ColumnId[columns.length];
+        this.resolvedIndices = new int[columns.length];
+        this.position = -1;
+        this.rowIndex = -1;
+    }
+
+    /**
+     * Advances the cursor to the next row.
+     *
+     * @return {@code false} if there are no more rows
+     */
+    public boolean next() {
+        if (position < rowCount) {
+            position++;
+        }
+        if (position < rowCount) {
+            rowIndex = rows == null ? position : rows[position];
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the cursor to the given position (e.g. for random access), i.e. to the given data frame row, or to the
+     * n-th selected row for cursors of a {@link Selection}.
+     */
+    public RowCursor moveTo(int position) {
+        if (position < 0 || position >= rowCount) {
+            throw new IndexOutOfBoundsException("Position out of range: " + position);
+        }
+        this.position = position;
+        this.rowIndex = rows == null ? position : rows[position];
+        return this;
+    }
+
+    /**
+     * Moves the cursor before the first row (i.e. the next call to {@link #next()} moves to the first row).
+     */
+    public RowCursor reset() {
+        this.position = -1;
+        this.rowIndex = -1;
+        return this;
+    }
+
+    /**
+     * Returns the data frame row the cursor currently points to.
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    // -- Bound accessors
+
+    public IntAccessor bind(IntColumnId columnId) {
+        return new IntAccessor((IntColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    public LongAccessor bind(LongColumnId columnId) {
+        return new LongAccessor((LongColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    public DoubleAccessor bind(DoubleColumnId columnId) {
+        return new DoubleAccessor((DoubleColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    public BooleanAccessor bind(BooleanColumnId columnId) {
+        return new BooleanAccessor((BooleanColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    public StringAccessor bind(StringColumnId columnId) {
+        return new StringAccessor((StringColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    public TimestampAccessor bind(TimestampColumnId columnId) {
+        return new TimestampAccessor((TimestampColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    public CategoryAccessor bind(CategoryColumnId columnId) {
+        return new CategoryAccessor((CategoryColumn) columns[dataFrame.getColumnIndex(columnId)]);
+    }
+
+    // -- Access via column ids
+
+    public int getInt(IntColumnId columnId) {
+        return getInt(resolve(columnId));
+    }
+
+    public long getLong(LongColumnId columnId) {
+        return getLong(resolve(columnId));
+    }
+
+    public double getDouble(DoubleColumnId columnId) {
+        return getDouble(resolve(columnId));
+    }
+
+    public boolean getBoolean(BooleanColumnId columnId) {
+        return getBoolean(resolve(columnId));
+    }
+
+    public String getString(StringColumnId columnId) {
+        return getString(resolve(columnId));
+    }
+
+    public Instant getTimestamp(TimestampColumnId columnId) {
+        return getTimestamp(resolve(columnId));
+    }
+
+    public long getEpochMilli(TimestampColumnId columnId) {
+        return getEpochMilli(resolve(columnId));
+    }
+
+    public String getCategory(CategoryColumnId columnId) {
+        return getCategory(resolve(columnId));
+    }
+
+    public int getCategoryCode(CategoryColumnId columnId) {
+        return getCategoryCode(resolve(columnId));
+    }
+
+    public boolean isNull(ColumnId columnId) {
+        return isNull(resolve(columnId));
+    }
+
+    /**
+     * Resolves the index of the given column, where ids which were resolved before are found by identity (i.e. the
+     * usual case of constant ids costs a few reference comparisons per cell rather than a hash lookup).
+     */
+    private int resolve(ColumnId columnId) {
+        for (int i = 0; i < resolvedCount; i++) {
+            if (resolvedIds[i] == columnId) {
+                return resolvedIndices[i];
+            }
+        }
+        int columnIndex = dataFrame.getColumnIndex(columnId);
+        if (resolvedCount < resolvedIds.length) {
+            resolvedIds[resolvedCount] = columnId;
+            resolvedIndices[resolvedCount] = columnIndex;
+            resolvedCount++;
+        }
+        return columnIndex;
+    }
+
+    // -- Access via column indices
+
+    public int getInt(int columnIndex) {
+        return ((IntColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public long getLong(int columnIndex) {
+        return ((LongColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public double getDouble(int columnIndex) {
+        return ((DoubleColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public boolean getBoolean(int columnIndex) {
+        return ((BooleanColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public String getString(int columnIndex) {
+        return ((StringColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public Instant getTimestamp(int columnIndex) {
+        return ((TimestampColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public long getEpochMilli(int columnIndex) {
+        return ((TimestampColumn) columns[columnIndex]).getEpochMilliAt(rowIndex);
+    }
+
+    public String getCategory(int columnIndex) {
+        return ((CategoryColumn) columns[columnIndex]).getValueAt(rowIndex);
+    }
+
+    public int getCategoryCode(int columnIndex) {
+        return ((CategoryColumn) columns[columnIndex]).getCodeAt(rowIndex);
+    }
+
+    public boolean isNull(int columnIndex) {
+        Column<?> column = columns[columnIndex];
+        if (column instanceof IntColumn) {
+            return ((IntColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof LongColumn) {
+            return ((LongColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof DoubleColumn) {
+            return ((DoubleColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof BooleanColumn) {
+            return ((BooleanColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof TimestampColumn) {
+            return ((TimestampColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof CategoryColumn) {
+            return ((CategoryColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof StringColumn) {
+            return ((StringColumn) column).isNullAt(rowIndex);
+        } else if (column instanceof GenericColumn) {
+            return ((GenericColumn<?, ?>) column).getValueAt(rowIndex) == null;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the row the cursor currently points to from an {@link IntColumn} (see {@link #bind(IntColumnId)}).
+     */
+    public final class IntAccessor {
+
+        private final IntColumn column;
+
+        private IntAccessor(IntColumn column) {
+            this.column = column;
+        }
+
+        public int get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+    /**
+     * Reads the row the cursor currently points to from a {@link LongColumn} (see {@link #bind(LongColumnId)}).
+     */
+    public final class LongAccessor {
+
+        private final LongColumn column;
+
+        private LongAccessor(LongColumn column) {
+            this.column = column;
+        }
+
+        public long get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+    /**
+     * Reads the row the cursor currently points to from a {@link DoubleColumn} (see {@link #bind(DoubleColumnId)}).
+     */
+    public final class DoubleAccessor {
+
+        private final DoubleColumn column;
+
+        private DoubleAccessor(DoubleColumn column) {
+            this.column = column;
+        }
+
+        public double get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+    /**
+     * Reads the row the cursor currently points to from a {@link BooleanColumn} (see {@link #bind(BooleanColumnId)}).
+     */
+    public final class BooleanAccessor {
+
+        private final BooleanColumn column;
+
+        private BooleanAccessor(BooleanColumn column) {
+            this.column = column;
+        }
+
+        public boolean get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+    /**
+     * Reads the row the cursor currently points to from a {@link StringColumn} (see {@link #bind(StringColumnId)}).
+     */
+    public final class StringAccessor {
+
+        private final StringColumn column;
+
+        private StringAccessor(StringColumn column) {
+            this.column = column;
+        }
+
+        public String get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+    /**
+     * Reads the row the cursor currently points to from a {@link TimestampColumn} (see
+     * {@link #bind(TimestampColumnId)}).
+     */
+    public final class TimestampAccessor {
+
+        private final TimestampColumn column;
+
+        private TimestampAccessor(TimestampColumn column) {
+            this.column = column;
+        }
+
+        public Instant get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public long getEpochMilli() {
+            return column.getEpochMilliAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+    /**
+     * Reads the row the cursor currently points to from a {@link CategoryColumn} (see
+     * {@link #bind(CategoryColumnId)}).
+     */
+    public final class CategoryAccessor {
+
+        private final CategoryColumn column;
+
+        private CategoryAccessor(CategoryColumn column) {
+            this.column = column;
+        }
+
+        public String get() {
+            return column.getValueAt(rowIndex);
+        }
+
+        public int getCode() {
+            return column.getCodeAt(rowIndex);
+        }
+
+        public boolean isNull() {
+            return column.isNullAt(rowIndex);
+        }
+
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+
+/**
+ * Result of filtering a {@link DataFrame}: a selection vector of (ascending) row indices, which refers to the rows of
+ * the original data frame instead of copying any values. Selections can be refined with further filters, iterated via
+ * {@link #rowCursor()}, and are only materialized into a new data frame upon {@link #toDataFrame()}.
+ * <p>
+ * Missing values never match a predicate.
+ */
+public final class Selection {
+
+    private final DataFrame dataFrame;
+    private final int[] rows; // null denotes all rows
+
+    private Selection(DataFrame dataFrame, int[] rows) {
+        this.dataFrame = dataFrame;
+        this.rows = rows;
+    }
+
+    static Selection all(DataFrame dataFrame) {
+        return new Selection(dataFrame, null);
+    }
+
+    public DataFrame getDataFrame() {
+        return dataFrame;
+    }
+
+    /**
+     * Returns the number of selected rows.
+     */
+    public int size() {
+        return rows == null ? dataFrame.getRowCount() : rows.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the (data frame) row index of the selected row at the given position.
+     */
+    public int getRowIndex(int position) {
+        return rows == null ? position : rows[position];
+    }
+
+    public int[] toRowIndices() {
+        return rows == null ? IntStream.range(0, dataFrame.getRowCount()).toArray() : rows.clone();
+    }
+
+    public IntStream rowIndexStream() {
+        return rows == null ? IntStream.range(0, dataFrame.getRowCount()) : Arrays.stream(rows);
+    }
+
+    public Selection filter(IntColumnId columnId, IntPredicate predicate) {
+        IntColumn column = dataFrame.getColumn(columnId);
+        return select(row -> !column.isNullAt(row) && predicate.test(column.getValueAt(row)));
+    }
+
+    public Selection filter(LongColumnId columnId, LongPredicate predicate) {
+        LongColumn column = dataFrame.getColumn(columnId);
+        return select(row -> !column.isNullAt(row) && predicate.test(column.getValueAt(row)));
+    }
+
+    public Selection filter(DoubleColumnId columnId, DoublePredicate predicate) {
+        DoubleColumn column = dataFrame.getColumn(columnId);
+        return select(row -> !column.isNullAt(row) && predicate.test(column.getValueAt(row)));
+    }
+
+    /**
+     * Selects all rows which hold the given value.
+     */
+    public Selection filter(BooleanColumnId columnId, boolean value) {
+        BooleanColumn column = dataFrame.getColumn(columnId);
+        return select(row -> !column.isNullAt(row) && column.getValueAt(row) == value);
+    }
+
+    /**
+     * Tests timestamps as epoch milliseconds (i.e. without creating {@link java.time.Instant}s), which fails with an
+     * {@link ArithmeticException} for timestamps beyond the range of epoch milliseconds (see
+     * {@link TimestampColumn#getEpochMilliAt(int)}).
+     */
+    public Selection filter(TimestampColumnId columnId, LongPredicate epochMilliPredicate) {
+        TimestampColumn column = dataFrame.getColumn(columnId);
+        return select(row -> !column.isNullAt(row) && epochMilliPredicate.test(column.getEpochMilliAt(row)));
+    }
+
+    /**
+     * Evaluates the predicate once per category (rather than once per row) and then matches rows by dictionary code.
+     */
+    public Selection filter(CategoryColumnId columnId, Predicate<String> predicate) {
+        CategoryColumn column = dataFrame.getColumn(columnId);
+        boolean[] matchingCodes = new boolean[column.getCategoryCount()];
+        for (int code = 0; code < matchingCodes.length; code++) {
+            matchingCodes[code] = predicate.test(column.getCategory(code));
+        }
+        return select(row -> !column.isNullAt(row) && matchingCodes[column.getCodeAt(row)]);
+    }
+
+    /**
+     * Keeps the rows which hold any of the given categories, using the bitmap index of the category column (see
+     * {@link CategoryColumn#rowsIn(String...)}) instead of comparing values row by row.
+     */
+    public Selection filterIn(CategoryColumnId columnId, String... categories) {
+        RowBitmap matches = dataFrame.getColumn(columnId).rowsIn(categories);
+        return rows == null ? new Selection(dataFrame, matches.toArray()) : select(matches::contains);
+    }
+
+    private Selection select(IntPredicate rowPredicate) {
+        int size = size();
+        IntArrayBuilder selected = new IntArrayBuilder();
+        for (int position = 0; position < size; position++) {
+            int row = getRowIndex(position);
+            if (rowPredicate.test(row)) {
+                selected.add(row);
+            }
+        }
+        return new Selection(dataFrame, selected.toArray());
+    }
+
+    /**
+     * Creates a cursor which only visits the selected rows (see {@link DataFrame#rowCursor()}).
+     */
+    public RowCursor rowCursor() {
+        return new RowCursor(dataFrame, rows);
+    }
+
+    /**
+     * Copies the selected rows of all columns into a new data frame.
+     */
+    public DataFrame toDataFrame() {
+        if (rows == null) {
+            return dataFrame;
+        }
+        return dataFrame.take(rows);
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Seq;
+
+import java.util.BitSet;
+
+/**
+ * Helpers for columns which expose a row range (i.e. {@code offset} to {@code offset + length}) of shared storage.
+ */
+final class Slices {
+
+    private Slices() {
+    }
+
+    static void checkRange(int fromIndex, int toIndex, int rowCount) {
+        if (fromIndex < 0 || toIndex > rowCount || fromIndex > toIndex) {
+            String msg = String.format("Invalid slice [%d, %d) of %d rows", fromIndex, toIndex, rowCount);
+            throw new IndexOutOfBoundsException(msg);
+        }
+    }
+
+    /**
+     * Checks the upper bound of a row index (negative row indices denote missing values).
+     */
+    static void checkRowIndex(int rowIndex, int rowCount) {
+        if (rowIndex >= rowCount) {
+            String msg = String.format("Row index %d out of range for %d rows", rowIndex, rowCount);
+            throw new IndexOutOfBoundsException(msg);
+        }
+    }
+
+    /**
+     * Checks a row index against the row count of a slice (i.e. reads must not reach into rows of the shared storage
+     * which lie outside of the slice).
+     */
+    static void checkIndex(int index, int rowCount) {
+        if (index < 0 || index >= rowCount) {
+            String msg = String.format("Row index %d out of range for %d rows", index, rowCount);
+            throw new IndexOutOfBoundsException(msg);
+        }
+    }
+
+    static boolean anySet(BitSet bits, int offset, int length) {
+        int index = bits.nextSetBit(offset);
+        return index >= 0 && index < offset + length;
+    }
+
+    static int cardinality(BitSet bits, int offset, int length) {
+        if (offset == 0 && length >= bits.length()) {
+            return bits.cardinality();
+        }
+        int count = 0;
+        int end = offset + length;
+        for (int i = bits.nextSetBit(offset); i >= 0 && i < end; i = bits.nextSetBit(i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Copies {@code length} bits starting at {@code offset} into the target bits, starting at {@code targetOffset}
+     * (only set bits are visited, i.e. the target is expected to be clear within that range).
+     */
+    static void copyBits(BitSet bits, int offset, int length, BitSet target, int targetOffset) {
+        int end = offset + length;
+        for (int i = bits.nextSetBit(offset); i >= 0 && i < end; i = bits.nextSetBit(i + 1)) {
+            target.set(targetOffset + i - offset);
+        }
+    }
+
+    static int totalRowCount(Seq<? extends Column<?>> columns) {
+        int rowCount = 0;
+        for (Column<?> column : columns) {
+            rowCount = Math.addExact(rowCount, column.getRowCount());
+        }
+        return rowCount;
+    }
+
+}
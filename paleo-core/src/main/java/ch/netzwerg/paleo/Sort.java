@@ -0,0 +1,373 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.StringDictionary;
+import io.vavr.collection.Array;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Sorting via permutations: each sort key is mapped to one or more primitive {@code long} components per row (e.g.
+ * epoch second and nano adjustment for timestamps, or the rank of the dictionary code for categories), and the row
+ * permutation is then sorted by one component after the other with a stable LSD radix sort (least significant first).
+ * Components are normalized to their value range, so that only the bytes which actually differ need a pass. Finally,
+ * the permutation is applied to all columns with a gather. Above a row threshold, all passes are split into chunks
+ * which are processed in parallel (with per-chunk histograms, which keeps the sort stable).
+ */
+final class Sort {
+
+    /**
+     * Minimum number of rows for which sorting is parallelized (configurable via the system property
+     * {@code paleo.sort.parallelThreshold}).
+     */
+    static final int PARALLEL_THRESHOLD = Integer.getInteger("paleo.sort.parallelThreshold", 1 << 18);
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    private Sort() {
+    }
+
+    static DataFrame sort(DataFrame dataFrame, Array<SortKey> keys, int parallelThreshold) {
+        int[] rows = permutation(dataFrame, keys, parallelThreshold);
+        Array<Column<?>> columns = Array.ofAll(dataFrame.getColumns());
+        if (dataFrame.getRowCount() >= parallelThreshold) {
+            columns = Array.ofAll(columns.toJavaParallelStream().map(column -> column.take(rows)));
+        } else {
+            columns = columns.map(column -> column.take(rows));
+        }
+        return DataFrame.ofAll(columns).withMetaData(dataFrame.getMetaData());
+    }
+
+    static int[] permutation(DataFrame dataFrame, Array<SortKey> keys, int parallelThreshold) {
+        int rowCount = dataFrame.getRowCount();
+        boolean parallel = rowCount >= parallelThreshold;
+        int chunkCount = parallel ? Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, rowCount / MIN_CHUNK_SIZE)) : 1;
+        int[] rows = new int[rowCount];
+        Arrays.setAll(rows, row -> row);
+        boolean identity = true;
+        // least significant key first, which relies on all passes being stable
+        for (SortKey key : keys.reverse()) {
+            Column<?> keyColumn = dataFrame.getColumn(key.getColumnId());
+            ColumnStatistics<?> statistics = ColumnStatistics.of(keyColumn);
+            if (identity && statistics != null && statistics.isSorted(key.isAscending())) {
+                continue; // a stable sort by an already sorted key keeps the identity
+            }
+            identity = false;
+            SortColumn column = SortColumn.of(keyColumn, parallel);
+            for (int i = column.components.length - 1; i >= 0; i--) {
+                rows = sortByComponent(rows, column.components[i], column.nulls, key.isAscending(), chunkCount);
+            }
+            if (column.nulls != null) {
+                rows = moveNullsLast(rows, column.nulls);
+            }
+        }
+        return rows;
+    }
+
+    private static int[] sortByComponent(int[] rows, long[] values, boolean[] nulls, boolean ascending, int chunkCount) {
+        int length = rows.length;
+        long[] keys = new long[length];
+        long[] mins = new long[chunkCount];
+        long[] maxs = new long[chunkCount];
+        long[] firsts = new long[chunkCount];
+        long[] lasts = new long[chunkCount];
+        boolean[] nonEmpty = new boolean[chunkCount];
+        boolean[] inOrder = new boolean[chunkCount];
+        forEachChunk(length, chunkCount, (chunk, from, to) -> {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            long previous = ascending ? Long.MIN_VALUE : Long.MAX_VALUE;
+            boolean sorted = true;
+            boolean first = true;
+            for (int i = from; i < to; i++) {
+                int row = rows[i];
+                if (nulls != null && nulls[row]) {
+                    continue;
+                }
+                long key = values[row];
+                keys[i] = key;
+                min = Math.min(min, key);
+                max = Math.max(max, key);
+                sorted &= ascending ? previous <= key : previous >= key;
+                previous = key;
+                if (first) {
+                    firsts[chunk] = key;
+                    first = false;
+                }
+            }
+            mins[chunk] = min;
+            maxs[chunk] = max;
+            lasts[chunk] = previous;
+            nonEmpty[chunk] = !first;
+            inOrder[chunk] = sorted;
+        });
+
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        boolean sorted = true;
+        int previousChunk = -1;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (nonEmpty[chunk]) {
+                min = Math.min(min, mins[chunk]);
+                max = Math.max(max, maxs[chunk]);
+                sorted &= inOrder[chunk];
+                if (previousChunk >= 0) {
+                    sorted &= ascending ? lasts[previousChunk] <= firsts[chunk] : lasts[previousChunk] >= firsts[chunk];
+                }
+                previousChunk = chunk;
+            }
+        }
+        if (sorted) {
+            // already in order (which includes the cases without values or with equal values only)
+            return rows;
+        }
+
+        long lowest = min;
+        long highest = max;
+        forEachChunk(length, chunkCount, (chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (nulls != null && nulls[rows[i]]) {
+                    keys[i] = 0;
+                } else {
+                    keys[i] = ascending ? keys[i] - lowest : highest - keys[i];
+                }
+            }
+        });
+        int bits = Long.SIZE - Long.numberOfLeadingZeros(max - min);
+        return radixSort(rows, keys, bits, chunkCount);
+    }
+
+    /**
+     * Sorts the rows by the given non-negative keys (of which only the lowest {@code bits} are considered), with one
+     * pass per byte. Passes in which all keys share the same digit are skipped.
+     */
+    private static int[] radixSort(int[] rows, long[] keys, int bits, int chunkCount) {
+        int length = rows.length;
+        int[] sourceRows = rows;
+        long[] sourceKeys = keys;
+        int[] targetRows = new int[length];
+        long[] targetKeys = new long[length];
+        for (int shift = 0; shift < bits; shift += RADIX_BITS) {
+            int digitShift = shift;
+            int[] fromRows = sourceRows;
+            long[] fromKeys = sourceKeys;
+            int[] toRows = targetRows;
+            long[] toKeys = targetKeys;
+            int[][] offsets = new int[chunkCount][RADIX];
+            forEachChunk(length, chunkCount, (chunk, from, to) -> {
+                int[] counts = offsets[chunk];
+                for (int i = from; i < to; i++) {
+                    counts[digit(fromKeys[i], digitShift)]++;
+                }
+            });
+            if (!toOffsets(offsets, length)) {
+                continue;
+            }
+            forEachChunk(length, chunkCount, (chunk, from, to) -> {
+                int[] chunkOffsets = offsets[chunk];
+                for (int i = from; i < to; i++) {
+                    int target = chunkOffsets[digit(fromKeys[i], digitShift)]++;
+                    toRows[target] = fromRows[i];
+                    toKeys[target] = fromKeys[i];
+                }
+            });
+            sourceRows = toRows;
+            sourceKeys = toKeys;
+            targetRows = fromRows;
+            targetKeys = fromKeys;
+        }
+        return sourceRows;
+    }
+
+    private static int digit(long key, int shift) {
+        return (int) (key >>> shift) & (RADIX - 1);
+    }
+
+    /**
+     * Turns per-chunk digit counts into target offsets (all rows of a digit, in chunk order). Returns {@code false} if
+     * all rows share the same digit, i.e. if the pass would not change the order.
+     */
+    private static boolean toOffsets(int[][] counts, int length) {
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int start = offset;
+            for (int[] chunkCounts : counts) {
+                int count = chunkCounts[digit];
+                chunkCounts[digit] = offset;
+                offset += count;
+            }
+            if (offset - start == length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] moveNullsLast(int[] rows, boolean[] nulls) {
+        int[] result = new int[rows.length];
+        int position = 0;
+        for (int row : rows) {
+            if (!nulls[row]) {
+                result[position++] = row;
+            }
+        }
+        for (int row : rows) {
+            if (nulls[row]) {
+                result[position++] = row;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the rank of each value in ascending (natural) order, where all values have to be distinct.
+     */
+    static int[] ranks(String[] values) {
+        Integer[] order = new Integer[values.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparing(i -> values[i]));
+        int[] ranks = new int[values.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
+
+    private static void forEachChunk(int length, int chunkCount, ChunkTask task) {
+        if (chunkCount == 1) {
+            task.run(0, 0, length);
+        } else {
+            IntStream.range(0, chunkCount).parallel().forEach(chunk ->
+                    task.run(chunk, chunkStart(length, chunkCount, chunk), chunkStart(length, chunkCount, chunk + 1)));
+        }
+    }
+
+    private static int chunkStart(int length, int chunkCount, int chunk) {
+        return (int) ((long) length * chunk / chunkCount);
+    }
+
+    /**
+     * Sort key components of one column (indexed by row, most significant first), with values in signed
+     * {@code long} order.
+     */
+    private static final class SortColumn {
+
+        private final long[][] components;
+        private final boolean[] nulls; // null if there are no missing values
+
+        private SortColumn(long[][] components, boolean[] nulls) {
+            this.components = components;
+            this.nulls = nulls;
+        }
+
+        static SortColumn of(Column<?> column, boolean parallel) {
+            int rowCount = column.getRowCount();
+            if (column instanceof IntColumn) {
+                IntColumn source = (IntColumn) column;
+                boolean[] nulls = source.hasNulls() ? nulls(rowCount, source::isNullAt) : null;
+                return new SortColumn(new long[][]{extract(rowCount, source::getValueAt, parallel)}, nulls);
+            } else if (column instanceof LongColumn) {
+                LongColumn source = (LongColumn) column;
+                boolean[] nulls = source.hasNulls() ? nulls(rowCount, source::isNullAt) : null;
+                return new SortColumn(new long[][]{extract(rowCount, source::getValueAt, parallel)}, nulls);
+            } else if (column instanceof DoubleColumn) {
+                DoubleColumn source = (DoubleColumn) column;
+                boolean[] nulls = source.hasNulls() ? nulls(rowCount, source::isNullAt) : null;
+                return new SortColumn(new long[][]{extract(rowCount, row -> sortableBits(source.getValueAt(row)), parallel)}, nulls);
+            } else if (column instanceof BooleanColumn) {
+                BooleanColumn source = (BooleanColumn) column;
+                boolean[] nulls = source.hasNulls() ? nulls(rowCount, source::isNullAt) : null;
+                return new SortColumn(new long[][]{extract(rowCount, row -> source.getValueAt(row) ? 1 : 0, parallel)}, nulls);
+            } else if (column instanceof TimestampColumn) {
+                TimestampColumn source = (TimestampColumn) column;
+                boolean[] nulls = source.hasNulls() ? nulls(rowCount, source::isNullAt) : null;
+                long[] seconds = extract(rowCount, source::getEpochSecondAt, parallel);
+                long[] nanos = extract(rowCount, source::getNanoAt, parallel);
+                return new SortColumn(new long[][]{seconds, nanos}, nulls);
+            } else if (column instanceof CategoryColumn) {
+                CategoryColumn source = (CategoryColumn) column;
+                String[] categories = new String[source.getCategoryCount()];
+                Arrays.setAll(categories, source::getCategory);
+                int[] ranks = ranks(categories);
+                boolean[] nulls = source.hasNulls() ? nulls(rowCount, source::isNullAt) : null;
+                long[] values = extract(rowCount, row -> nulls != null && nulls[row] ? 0 : ranks[source.getCodeAt(row)], parallel);
+                return new SortColumn(new long[][]{values}, nulls);
+            } else if (column instanceof StringColumn) {
+                // strings are dictionary encoded first, which allows sorting by the ranks of the distinct values
+                StringColumn source = (StringColumn) column;
+                StringDictionary dictionary = new StringDictionary();
+                int[] codes = new int[rowCount];
+                boolean[] nulls = null;
+                for (int row = 0; row < rowCount; row++) {
+                    String value = source.getValueAt(row);
+                    if (value == null) {
+                        nulls = nulls == null ? new boolean[rowCount] : nulls;
+                        nulls[row] = true;
+                    } else {
+                        codes[row] = dictionary.getOrAddCode(value);
+                    }
+                }
+                int[] ranks = ranks(dictionary.toArray());
+                boolean[] missing = nulls;
+                long[] values = extract(rowCount, row -> missing != null && missing[row] ? 0 : ranks[codes[row]], parallel);
+                return new SortColumn(new long[][]{values}, nulls);
+            } else {
+                String msg = String.format("Unsupported sort key '%s' (%s)", column.getId(), column.getClass().getSimpleName());
+                throw new IllegalArgumentException(msg);
+            }
+        }
+
+        private static long[] extract(int rowCount, IntToLongFunction key, boolean parallel) {
+            long[] values = new long[rowCount];
+            if (parallel) {
+                Arrays.parallelSetAll(values, key);
+            } else {
+                Arrays.setAll(values, key);
+            }
+            return values;
+        }
+
+        private static boolean[] nulls(int rowCount, IntPredicate isNullAt) {
+            boolean[] nulls = new boolean[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                nulls[row] = isNullAt.test(row);
+            }
+            return nulls;
+        }
+
+        /**
+         * Maps doubles to longs with the same order as {@link Double#compare(double, double)} (i.e. {@code -0.0}
+         * before {@code 0.0}, and {@code NaN} last).
+         */
+        private static long sortableBits(double value) {
+            long bits = Double.doubleToLongBits(value);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+/**
+ * Sort criterion for {@link DataFrame#sortBy(SortKey...)}, i.e. a column plus a sort direction. Missing values are
+ * always sorted last.
+ */
+public final class SortKey {
+
+    private final ColumnId columnId;
+    private final boolean ascending;
+
+    private SortKey(ColumnId columnId, boolean ascending) {
+        this.columnId = columnId;
+        this.ascending = ascending;
+    }
+
+    public static SortKey of(ColumnId columnId, boolean ascending) {
+        return new SortKey(columnId, ascending);
+    }
+
+    public static SortKey ascending(ColumnId columnId) {
+        return new SortKey(columnId, true);
+    }
+
+    public static SortKey descending(ColumnId columnId) {
+        return new SortKey(columnId, false);
+    }
+
+    public ColumnId getColumnId() {
+        return columnId;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+}
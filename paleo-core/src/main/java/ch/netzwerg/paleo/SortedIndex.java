@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Array;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Secondary index for range queries: all rows with a value, in ascending order of their values (i.e. a sorted
+ * permutation). Ranges are located via binary search, i.e. a query takes {@code O(log n + k)} for {@code k} matching
+ * rows. Columns which are already sorted (and have no missing values) need no permutation at all, in which case
+ * positions are row indices.
+ */
+final class SortedIndex {
+
+    private final int[] rows; // null if positions are row indices
+    private final int size;
+
+    private SortedIndex(int[] rows, int size) {
+        this.rows = rows;
+        this.size = size;
+    }
+
+    static SortedIndex of(Column<?> column, ColumnStatistics<?> statistics) {
+        int nullCount = statistics.getNullCount();
+        int size = column.getRowCount() - nullCount;
+        if (statistics.isSorted(true)) {
+            return new SortedIndex(null, size);
+        }
+        int[] permutation = Sort.permutation(DataFrame.of(column), Array.of(SortKey.ascending(column.getId())), Sort.PARALLEL_THRESHOLD);
+        if (nullCount == 0 && isIdentity(permutation)) {
+            return new SortedIndex(null, size);
+        }
+        // missing values are sorted last, i.e. they are simply cut off
+        return new SortedIndex(Arrays.copyOf(permutation, size), size);
+    }
+
+    private static boolean isIdentity(int[] permutation) {
+        for (int i = 0; i < permutation.length; i++) {
+            if (permutation[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isIdentity() {
+        return rows == null;
+    }
+
+    /**
+     * Returns the first position whose row does not satisfy the given predicate, which has to hold for a prefix of
+     * all positions (e.g. "value is below the lower bound").
+     */
+    int lowerBound(IntPredicate isBelow) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (isBelow.test(rowAt(middle))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the rows from position {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    int[] getRows(int from, int to) {
+        if (to <= from) {
+            return new int[0];
+        }
+        if (rows == null) {
+            int[] result = new int[to - from];
+            Arrays.setAll(result, i -> from + i);
+            return result;
+        }
+        return Arrays.copyOfRange(rows, from, to);
+    }
+
+    private int rowAt(int position) {
+        return rows == null ? position : rows[position];
+    }
+
+}
@@ -15,18 +15,24 @@
 package ch.netzwerg.paleo;
 
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
-import io.vavr.collection.Array;
+import io.vavr.collection.IndexedSeq;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 import io.vavr.collection.Stream;
 
-import java.util.ArrayList;
-
 import static ch.netzwerg.paleo.ColumnIds.StringColumnId;
 
-public final class StringColumn extends AbstractColumn<String, StringColumnId> {
+public final class StringColumn implements Column<StringColumnId> {
+
+    private final StringColumnId id;
+    private final StringValues values;
+    private final Map<String, String> metaData;
+    private volatile ColumnStatistics<String> statistics; // computed lazily
 
-    private StringColumn(StringColumnId id, Array<String> values, Map<String, String> metaData) {
-        super(id, values, metaData);
+    private StringColumn(StringColumnId id, StringValues values, Map<String, String> metaData) {
+        this.id = id;
+        this.values = values;
+        this.metaData = metaData;
     }
 
     public static StringColumn of(StringColumnId id, String value) {
@@ -42,24 +48,133 @@ public final class StringColumn extends AbstractColumn<String, StringColumnId> {
     }
 
     public static Builder builder(StringColumnId id) {
-        return new Builder(id);
+        return new Builder(id, StringValues.objectBuilder());
+    }
+
+    /**
+     * Creates a builder for a compact column, which packs all values into one contiguous UTF-8 byte buffer (plus an
+     * offsets array). Values are only decoded into {@link String} instances upon access.
+     */
+    public static Builder packedBuilder(StringColumnId id) {
+        return new Builder(id, StringValues.utf8Builder());
+    }
+
+    @Override
+    public StringColumnId getId() {
+        return id;
+    }
+
+    @Override
+    public int getRowCount() {
+        return values.length();
+    }
+
+    @Override
+    public Map<String, String> getMetaData() {
+        return metaData;
+    }
+
+    public boolean isPacked() {
+        return values.isPacked();
+    }
+
+    public String getValueAt(int rowIndex) {
+        return values.get(rowIndex);
+    }
+
+    public boolean isNullAt(int rowIndex) {
+        return values.isNull(rowIndex);
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<String> getStatistics() {
+        ColumnStatistics<String> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
+    }
+
+    public IndexedSeq<String> getValues() {
+        return valueStream().toArray();
+    }
+
+    public Stream<String> valueStream() {
+        return Stream.range(0, getRowCount()).map(this::getValueAt);
+    }
+
+    @Override
+    public StringColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, getRowCount());
+        return new StringColumn(id, values.slice(fromIndex, toIndex), metaData);
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     * Packed columns copy raw UTF-8 bytes (i.e. without decoding).
+     */
+    @Override
+    public StringColumn take(int[] rowIndices) {
+        int rowCount = getRowCount();
+        for (int rowIndex : rowIndices) {
+            Slices.checkRowIndex(rowIndex, rowCount);
+        }
+        return new StringColumn(id, values.take(rowIndices), metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column. Packed columns are concatenated as raw UTF-8 bytes (i.e. without decoding).
+     */
+    static StringColumn concat(Seq<StringColumn> columns) {
+        StringColumn first = columns.head();
+        return new StringColumn(first.id, StringValues.concat(columns.map(column -> column.values)), first.metaData);
+    }
+
+    /**
+     * Compares the values at the given rows (with {@code null} values sorted last) like
+     * {@link String#compareTo(String)}. Packed columns compare their UTF-8 bytes and only decode the first differing
+     * characters, i.e. both storage layouts yield the same order.
+     */
+    public int compareValues(int rowIndex, int otherRowIndex) {
+        return values.compare(rowIndex, otherRowIndex);
+    }
+
+    /**
+     * Returns a hash of the value at the given row, which is computed over its UTF-8 encoding (i.e. it is equal to
+     * {@code Arrays.hashCode(value.getBytes(UTF_8))}) and does not require decoding packed values. Hashes are
+     * consistent across packed and non-packed columns.
+     */
+    public int hashValueAt(int rowIndex) {
+        return values.hash(rowIndex);
+    }
+
+    /**
+     * Checks whether the value at the given row equals the value of another column at another row (comparing raw bytes
+     * if both columns are packed).
+     */
+    public boolean valueEquals(int rowIndex, StringColumn other, int otherRowIndex) {
+        return values.valueEquals(rowIndex, other.values, otherRowIndex);
     }
 
     public static final class Builder implements Column.Builder<String, StringColumn> {
 
         private final StringColumnId id;
-        private final java.util.List<String> values;
+        private final StringValues.Builder valuesBuilder;
         private final MetaDataBuilder metaDataBuilder;
 
-        private Builder(StringColumnId id) {
+        private Builder(StringColumnId id, StringValues.Builder valuesBuilder) {
             this.id = id;
-            this.values = new ArrayList<>();
+            this.valuesBuilder = valuesBuilder;
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
         @Override
         public Builder add(String value) {
-            values.add(value);
+            valuesBuilder.add(value);
             return this;
         }
 
@@ -68,7 +183,9 @@ public final class StringColumn extends AbstractColumn<String, StringColumnId> {
         }
 
         public Builder addAll(Iterable<String> values) {
-            this.values.addAll(Stream.ofAll(values).toJavaList());
+            for (String value : values) {
+                valuesBuilder.add(value);
+            }
             return this;
         }
 
@@ -86,9 +203,9 @@ public final class StringColumn extends AbstractColumn<String, StringColumnId> {
 
         @Override
         public StringColumn build() {
-            return new StringColumn(id, Array.ofAll(values), metaDataBuilder.build());
+            return new StringColumn(id, valuesBuilder.build(), metaDataBuilder.build());
         }
 
     }
 
-}
\ No newline at end of file
+}
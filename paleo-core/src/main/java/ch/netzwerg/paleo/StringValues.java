@@ -0,0 +1,477 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
+import io.vavr.collection.Seq;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Storage for the values of a {@link StringColumn}. Values are either kept as {@link String} instances, or packed into
+ * one contiguous UTF-8 byte buffer plus an offsets array (i.e. the value at index {@code i} spans the bytes from
+ * {@code offsets[i]} to {@code offsets[i + 1]}). Slices share the underlying arrays.
+ */
+abstract class StringValues {
+
+    static Builder objectBuilder() {
+        return new ObjectBuilder();
+    }
+
+    static Builder utf8Builder() {
+        return new Utf8Builder();
+    }
+
+    /**
+     * Concatenates the given values, which stay packed (with raw bytes being copied) if all of them are packed.
+     */
+    static StringValues concat(Seq<StringValues> values) {
+        if (values.forAll(StringValues::isPacked)) {
+            return Utf8Values.concatPacked(values.map(Utf8Values.class::cast));
+        }
+        String[] concatenated = new String[values.map(StringValues::length).sum().intValue()];
+        int position = 0;
+        for (StringValues value : values) {
+            for (int i = 0; i < value.length(); i++) {
+                concatenated[position++] = value.get(i);
+            }
+        }
+        return new ObjectValues(concatenated, 0, concatenated.length);
+    }
+
+    abstract String get(int index);
+
+    abstract boolean isNull(int index);
+
+    abstract int length();
+
+    abstract boolean isPacked();
+
+    abstract StringValues slice(int fromIndex, int toIndex);
+
+    /**
+     * Copies the values at the given indices, where negative indices lead to {@code null} values.
+     */
+    abstract StringValues take(int[] indices);
+
+    /**
+     * Hash over the UTF-8 encoding of the value at the given index, i.e. equivalent to
+     * {@code Arrays.hashCode(value.getBytes(UTF_8))}, and {@code 0} for {@code null}. Both storage variants produce
+     * identical hashes for identical values.
+     */
+    abstract int hash(int index);
+
+    int compare(int index, int otherIndex) {
+        return compareNullsLast(get(index), get(otherIndex));
+    }
+
+    boolean valueEquals(int index, StringValues other, int otherIndex) {
+        String value = get(index);
+        String otherValue = other.get(otherIndex);
+        return value == null ? otherValue == null : value.equals(otherValue);
+    }
+
+    private static int compareNullsLast(String a, String b) {
+        if (a == null) {
+            return b == null ? 0 : 1;
+        } else {
+            return b == null ? -1 : a.compareTo(b);
+        }
+    }
+
+    static int utf8Hash(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int hash = 1;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                hash = 31 * hash + c;
+            } else if (c < 0x800) {
+                hash = 31 * hash + (byte) (0xC0 | (c >> 6));
+                hash = 31 * hash + (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                hash = 31 * hash + (byte) (0xF0 | (codePoint >> 18));
+                hash = 31 * hash + (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                hash = 31 * hash + (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                hash = 31 * hash + (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                hash = 31 * hash + '?'; // unpaired surrogates are replaced (just like String#getBytes does)
+            } else {
+                hash = 31 * hash + (byte) (0xE0 | (c >> 12));
+                hash = 31 * hash + (byte) (0x80 | ((c >> 6) & 0x3F));
+                hash = 31 * hash + (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return hash;
+    }
+
+    abstract static class Builder {
+
+        abstract void add(String value);
+
+        abstract StringValues build();
+
+    }
+
+    // -- String instances
+
+    private static final class ObjectValues extends StringValues {
+
+        private final String[] values;
+        private final int offset;
+        private final int length;
+
+        private ObjectValues(String[] values, int offset, int length) {
+            this.values = values;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        String get(int index) {
+            Slices.checkIndex(index, length);
+            return values[offset + index];
+        }
+
+        @Override
+        boolean isNull(int index) {
+            Slices.checkIndex(index, length);
+            return values[offset + index] == null;
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        boolean isPacked() {
+            return false;
+        }
+
+        @Override
+        StringValues slice(int fromIndex, int toIndex) {
+            return new ObjectValues(values, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        StringValues take(int[] indices) {
+            String[] taken = new String[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                if (index >= 0) {
+                    taken[i] = values[offset + index];
+                }
+            }
+            return new ObjectValues(taken, 0, indices.length);
+        }
+
+        @Override
+        int hash(int index) {
+            Slices.checkIndex(index, length);
+            return utf8Hash(values[offset + index]);
+        }
+
+    }
+
+    private static final class ObjectBuilder extends Builder {
+
+        private final java.util.List<String> values = new ArrayList<>();
+
+        @Override
+        void add(String value) {
+            values.add(value);
+        }
+
+        @Override
+        StringValues build() {
+            return new ObjectValues(values.toArray(new String[0]), 0, values.size());
+        }
+
+    }
+
+    // -- Packed UTF-8
+
+    private static final class Utf8Values extends StringValues {
+
+        private final byte[] bytes;
+        private final int[] offsets;
+        private final BitSet nulls;
+        private final int offset;
+        private final int length;
+
+        private Utf8Values(byte[] bytes, int[] offsets, BitSet nulls, int offset, int length) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+            this.nulls = nulls;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        static Utf8Values concatPacked(Seq<Utf8Values> values) {
+            int length = 0;
+            int byteCount = 0;
+            for (Utf8Values value : values) {
+                length = Math.addExact(length, value.length);
+                byteCount = Math.addExact(byteCount, value.offsets[value.offset + value.length] - value.offsets[value.offset]);
+            }
+            byte[] concatenatedBytes = new byte[byteCount];
+            int[] concatenatedOffsets = new int[length + 1];
+            BitSet concatenatedNulls = new BitSet();
+            int position = 0;
+            int bytePosition = 0;
+            for (Utf8Values value : values) {
+                int start = value.offsets[value.offset];
+                int end = value.offsets[value.offset + value.length];
+                System.arraycopy(value.bytes, start, concatenatedBytes, bytePosition, end - start);
+                for (int i = 1; i <= value.length; i++) {
+                    concatenatedOffsets[position + i] = bytePosition + value.offsets[value.offset + i] - start;
+                }
+                Slices.copyBits(value.nulls, value.offset, value.length, concatenatedNulls, position);
+                position += value.length;
+                bytePosition += end - start;
+            }
+            return new Utf8Values(concatenatedBytes, concatenatedOffsets, concatenatedNulls, 0, length);
+        }
+
+        @Override
+        String get(int index) {
+            Slices.checkIndex(index, length);
+            int position = offset + index;
+            if (nulls.get(position)) {
+                return null;
+            }
+            int start = offsets[position];
+            return new String(bytes, start, offsets[position + 1] - start, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        boolean isNull(int index) {
+            Slices.checkIndex(index, length);
+            return nulls.get(offset + index);
+        }
+
+        @Override
+        int length() {
+            return length;
+        }
+
+        @Override
+        boolean isPacked() {
+            return true;
+        }
+
+        @Override
+        StringValues slice(int fromIndex, int toIndex) {
+            return new Utf8Values(bytes, offsets, nulls, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        @Override
+        StringValues take(int[] indices) {
+            // first pass sizes the byte buffer exactly, second pass copies raw bytes
+            int[] takenOffsets = new int[indices.length + 1];
+            BitSet takenNulls = new BitSet();
+            int byteCount = 0;
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                if (index < 0 || nulls.get(offset + index)) {
+                    takenNulls.set(i);
+                } else {
+                    byteCount += offsets[offset + index + 1] - offsets[offset + index];
+                }
+                takenOffsets[i + 1] = byteCount;
+            }
+            byte[] takenBytes = new byte[byteCount];
+            for (int i = 0; i < indices.length; i++) {
+                if (!takenNulls.get(i)) {
+                    int start = offsets[offset + indices[i]];
+                    System.arraycopy(bytes, start, takenBytes, takenOffsets[i], takenOffsets[i + 1] - takenOffsets[i]);
+                }
+            }
+            return new Utf8Values(takenBytes, takenOffsets, takenNulls, 0, indices.length);
+        }
+
+        @Override
+        int hash(int index) {
+            Slices.checkIndex(index, length);
+            int position = offset + index;
+            if (nulls.get(position)) {
+                return 0;
+            }
+            int hash = 1;
+            for (int i = offsets[position], end = offsets[position + 1]; i < end; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            return hash;
+        }
+
+        /**
+         * Compares raw UTF-8 bytes up to the first difference, and only decodes the two differing characters (i.e. the
+         * result is consistent with {@link String#compareTo(String)}, which the non-packed values use).
+         */
+        @Override
+        int compare(int index, int otherIndex) {
+            Slices.checkIndex(index, length);
+            Slices.checkIndex(otherIndex, length);
+            int position = offset + index;
+            int otherPosition = offset + otherIndex;
+            boolean isNull = nulls.get(position);
+            boolean isOtherNull = nulls.get(otherPosition);
+            if (isNull || isOtherNull) {
+                return Boolean.compare(isNull, isOtherNull);
+            }
+            int i = offsets[position];
+            int end = offsets[position + 1];
+            int j = offsets[otherPosition];
+            int otherEnd = offsets[otherPosition + 1];
+            for (; i < end && j < otherEnd; i++, j++) {
+                if (bytes[i] != bytes[j]) {
+                    // the common prefix ends on the same character boundary in both values
+                    int start = i;
+                    while ((bytes[start] & 0xC0) == 0x80) {
+                        start--;
+                    }
+                    return compareUtf16(decode(bytes, start), decode(bytes, j - (i - start)));
+                }
+            }
+            return (end - i) - (otherEnd - j);
+        }
+
+        private static int decode(byte[] bytes, int position) {
+            int lead = bytes[position] & 0xFF;
+            if (lead < 0x80) {
+                return lead;
+            } else if (lead < 0xE0) {
+                return ((lead & 0x1F) << 6) | (bytes[position + 1] & 0x3F);
+            } else if (lead < 0xF0) {
+                return ((lead & 0x0F) << 12) | ((bytes[position + 1] & 0x3F) << 6) | (bytes[position + 2] & 0x3F);
+            } else {
+                return ((lead & 0x07) << 18) | ((bytes[position + 1] & 0x3F) << 12) | ((bytes[position + 2] & 0x3F) << 6) | (bytes[position + 3] & 0x3F);
+            }
+        }
+
+        /**
+         * Compares two distinct code points by their UTF-16 encoding, where supplementary characters sort by their high
+         * surrogate (i.e. below {@code U+E000} to {@code U+FFFF}, unlike in code point order).
+         */
+        private static int compareUtf16(int codePoint, int otherCodePoint) {
+            if (Character.isSupplementaryCodePoint(codePoint) && Character.isSupplementaryCodePoint(otherCodePoint)) {
+                return Integer.compare(codePoint, otherCodePoint);
+            }
+            return Integer.compare(firstChar(codePoint), firstChar(otherCodePoint));
+        }
+
+        private static int firstChar(int codePoint) {
+            return Character.isSupplementaryCodePoint(codePoint) ? Character.highSurrogate(codePoint) : codePoint;
+        }
+
+        @Override
+        boolean valueEquals(int index, StringValues other, int otherIndex) {
+            if (!(other instanceof Utf8Values)) {
+                return super.valueEquals(index, other, otherIndex);
+            }
+            Utf8Values that = (Utf8Values) other;
+            Slices.checkIndex(index, length);
+            Slices.checkIndex(otherIndex, that.length);
+            int position = offset + index;
+            int otherPosition = that.offset + otherIndex;
+            if (nulls.get(position) || that.nulls.get(otherPosition)) {
+                return nulls.get(position) && that.nulls.get(otherPosition);
+            }
+            int start = offsets[position];
+            int length = offsets[position + 1] - start;
+            int otherStart = that.offsets[otherPosition];
+            if (that.offsets[otherPosition + 1] - otherStart != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[start + i] != that.bytes[otherStart + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    private static final class Utf8Builder extends Builder {
+
+        private final IntArrayBuilder offsets = new IntArrayBuilder();
+        private final BitSet nulls = new BitSet();
+        private byte[] bytes = new byte[64];
+        private int byteCount;
+
+        private Utf8Builder() {
+            offsets.add(0);
+        }
+
+        @Override
+        void add(String value) {
+            if (value == null) {
+                nulls.set(offsets.size() - 1);
+            } else {
+                encode(value);
+            }
+            offsets.add(byteCount);
+        }
+
+        private void encode(String value) {
+            int length = value.length();
+            ensureCapacity(Math.multiplyExact(length, 3));
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[byteCount++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[byteCount++] = (byte) (0xC0 | (c >> 6));
+                    bytes[byteCount++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[byteCount++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[byteCount++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[byteCount++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[byteCount++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[byteCount++] = '?';
+                } else {
+                    bytes[byteCount++] = (byte) (0xE0 | (c >> 12));
+                    bytes[byteCount++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[byteCount++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+
+        private void ensureCapacity(int additionalBytes) {
+            int required = Math.addExact(byteCount, additionalBytes);
+            if (required > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(required, IntArrayBuilder.grow(bytes.length)));
+            }
+        }
+
+        @Override
+        StringValues build() {
+            return new Utf8Values(Arrays.copyOf(bytes, byteCount), offsets.toArray(), (BitSet) nulls.clone(), 0, offsets.size() - 1);
+        }
+
+    }
+
+}
@@ -14,20 +14,49 @@
 
 package ch.netzwerg.paleo;
 
+import ch.netzwerg.paleo.impl.IntArrayBuilder;
+import ch.netzwerg.paleo.impl.LongArrayBuilder;
 import ch.netzwerg.paleo.impl.MetaDataBuilder;
-import io.vavr.collection.Array;
+import io.vavr.collection.IndexedSeq;
 import io.vavr.collection.Map;
+import io.vavr.collection.Seq;
 import io.vavr.collection.Stream;
 
 import java.time.Instant;
-import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static ch.netzwerg.paleo.ColumnIds.TimestampColumnId;
 
-public final class TimestampColumn extends AbstractColumn<Instant, TimestampColumnId> {
+/**
+ * Timestamps are stored as primitive epoch seconds and nano adjustments (i.e. the same representation as used by
+ * {@link Instant} itself). {@link Instant} instances are only created upon access.
+ */
+public final class TimestampColumn implements Column<TimestampColumnId> {
+
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    private static final int MILLIS_PER_SECOND = 1_000;
 
-    private TimestampColumn(TimestampColumnId id, Array<Instant> values, Map<String, String> metaData) {
-        super(id, values, metaData);
+    private final TimestampColumnId id;
+    private final long[] epochSeconds;
+    private final int[] nanos;
+    private final BitSet nulls;
+    private final int offset;
+    private final int rowCount;
+    private final Map<String, String> metaData;
+    private volatile SortedIndex sortedIndex; // built lazily
+    private volatile ColumnStatistics<Instant> statistics; // computed lazily
+
+    private TimestampColumn(TimestampColumnId id, long[] epochSeconds, int[] nanos, BitSet nulls, int offset, int rowCount, Map<String, String> metaData) {
+        this.id = id;
+        this.epochSeconds = epochSeconds;
+        this.nanos = nanos;
+        this.nulls = nulls;
+        this.offset = offset;
+        this.rowCount = rowCount;
+        this.metaData = metaData;
     }
 
     public static TimestampColumn of(TimestampColumnId id, Instant value) {
@@ -46,21 +75,214 @@ public final class TimestampColumn extends AbstractColumn<Instant, TimestampColu
         return new Builder(id);
     }
 
+    @Override
+    public TimestampColumnId getId() {
+        return id;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public Map<String, String> getMetaData() {
+        return metaData;
+    }
+
+    /**
+     * Returns the timestamp at the given row, or {@code null} if the value is missing.
+     */
+    public Instant getValueAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, rowCount);
+        int index = offset + rowIndex;
+        return nulls.get(index) ? null : Instant.ofEpochSecond(epochSeconds[index], nanos[index]);
+    }
+
+    public boolean isNullAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, rowCount);
+        return nulls.get(offset + rowIndex);
+    }
+
+    public boolean hasNulls() {
+        return Slices.anySet(nulls, offset, rowCount);
+    }
+
+    public int getNullCount() {
+        return Slices.cardinality(nulls, offset, rowCount);
+    }
+
+    /**
+     * Returns the statistics of this column, which are computed in one pass upon first access (and then retained).
+     */
+    public ColumnStatistics<Instant> getStatistics() {
+        ColumnStatistics<Instant> result = statistics;
+        if (result == null) {
+            result = ColumnStatistics.compute(this);
+            statistics = result;
+        }
+        return result;
+    }
+
+    public long getEpochSecondAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, rowCount);
+        return epochSeconds[offset + rowIndex];
+    }
+
+    public int getNanoAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, rowCount);
+        return nanos[offset + rowIndex];
+    }
+
+    /**
+     * Equivalent to {@code getValueAt(rowIndex).toEpochMilli()}, but without creating an {@link Instant}, i.e. an
+     * {@link ArithmeticException} is thrown for timestamps which are too far from the epoch to be represented as
+     * epoch milliseconds. The result is unspecified for missing values (see {@link #isNullAt(int)}).
+     */
+    public long getEpochMilliAt(int rowIndex) {
+        Slices.checkIndex(rowIndex, rowCount);
+        int index = offset + rowIndex;
+        return Math.addExact(Math.multiplyExact(epochSeconds[index], MILLIS_PER_SECOND), nanos[index] / NANOS_PER_MILLI);
+    }
+
+    public IndexedSeq<Instant> getValues() {
+        return valueStream().toArray();
+    }
+
+    public Stream<Instant> valueStream() {
+        return Stream.range(0, getRowCount()).map(this::getValueAt);
+    }
+
+    /**
+     * Creates a stream of epoch milliseconds, e.g. for range scans or bucketing without creating {@link Instant}s (see
+     * {@link #getEpochMilliAt(int)}).
+     */
+    public LongStream epochMillisStream() {
+        return IntStream.range(0, getRowCount()).mapToLong(this::getEpochMilliAt);
+    }
+
+    @Override
+    public TimestampColumn slice(int fromIndex, int toIndex) {
+        Slices.checkRange(fromIndex, toIndex, rowCount);
+        return new TimestampColumn(id, epochSeconds, nanos, nulls, offset + fromIndex, toIndex - fromIndex, metaData);
+    }
+
+    /**
+     * Copies the given rows (in the given order) into a new column, where negative row indices lead to missing values.
+     */
+    @Override
+    public TimestampColumn take(int[] rowIndices) {
+        long[] takenEpochSeconds = new long[rowIndices.length];
+        int[] takenNanos = new int[rowIndices.length];
+        BitSet takenNulls = new BitSet();
+        for (int i = 0; i < rowIndices.length; i++) {
+            int rowIndex = rowIndices[i];
+            Slices.checkRowIndex(rowIndex, rowCount);
+            if (rowIndex < 0 || nulls.get(offset + rowIndex)) {
+                takenNulls.set(i);
+            } else {
+                takenEpochSeconds[i] = epochSeconds[offset + rowIndex];
+                takenNanos[i] = nanos[offset + rowIndex];
+            }
+        }
+        return new TimestampColumn(id, takenEpochSeconds, takenNanos, takenNulls, 0, rowIndices.length, metaData);
+    }
+
+    /**
+     * Copies the rows of the given (non-empty) columns into a new column, with the id and the meta data of the first
+     * column.
+     */
+    static TimestampColumn concat(Seq<TimestampColumn> columns) {
+        int rowCount = Slices.totalRowCount(columns);
+        long[] concatenatedEpochSeconds = new long[rowCount];
+        int[] concatenatedNanos = new int[rowCount];
+        BitSet concatenatedNulls = new BitSet();
+        int position = 0;
+        for (TimestampColumn column : columns) {
+            System.arraycopy(column.epochSeconds, column.offset, concatenatedEpochSeconds, position, column.rowCount);
+            System.arraycopy(column.nanos, column.offset, concatenatedNanos, position, column.rowCount);
+            Slices.copyBits(column.nulls, column.offset, column.rowCount, concatenatedNulls, position);
+            position += column.rowCount;
+        }
+        TimestampColumn first = columns.head();
+        return new TimestampColumn(first.id, concatenatedEpochSeconds, concatenatedNanos, concatenatedNulls, 0, rowCount, first.metaData);
+    }
+
+    /**
+     * Returns the rows with timestamps from {@code from} (inclusive) to {@code to} (exclusive), in ascending order of
+     * their timestamps. The first query builds a sorted index (a permutation of all rows with values, which is retained
+     * by this column), unless the column is already sorted. Each query is then a binary search plus a copy of the
+     * matching rows.
+     */
+    public int[] rowsInRange(Instant from, Instant to) {
+        ColumnStatistics<Instant> statistics = getStatistics();
+        if (statistics.getMin().forAll(value -> !to.isAfter(value)) || statistics.getMax().forAll(value -> from.isAfter(value))) {
+            return new int[0]; // disjoint ranges (or no values at all) need no index
+        }
+        SortedIndex index = getSortedIndex();
+        int fromPosition = index.lowerBound(row -> compareAt(row, from) < 0);
+        int toPosition = index.lowerBound(row -> compareAt(row, to) < 0);
+        return index.getRows(fromPosition, toPosition);
+    }
+
+    private int compareAt(int rowIndex, Instant value) {
+        int result = Long.compare(getEpochSecondAt(rowIndex), value.getEpochSecond());
+        return result != 0 ? result : Integer.compare(getNanoAt(rowIndex), value.getNano());
+    }
+
+    private SortedIndex getSortedIndex() {
+        SortedIndex result = sortedIndex;
+        if (result == null) {
+            // racy single-check: concurrent callers may build equivalent (immutable) indices
+            result = SortedIndex.of(this, getStatistics());
+            sortedIndex = result;
+        }
+        return result;
+    }
+
     public static final class Builder implements Column.Builder<Instant, TimestampColumn> {
 
         private final TimestampColumnId id;
-        private final java.util.List<Instant> values;
+        private final LongArrayBuilder epochSeconds;
+        private final IntArrayBuilder nanos;
+        private final BitSet nulls;
         private final MetaDataBuilder metaDataBuilder;
 
         private Builder(TimestampColumnId id) {
             this.id = id;
-            this.values = new ArrayList<>();
+            this.epochSeconds = new LongArrayBuilder();
+            this.nanos = new IntArrayBuilder();
+            this.nulls = new BitSet();
             this.metaDataBuilder = new MetaDataBuilder();
         }
 
+        /**
+         * Adds the given value, where {@code null} denotes a missing value.
+         */
         @Override
         public Builder add(Instant value) {
-            values.add(value);
+            return value == null ? addNull() : addEpochSecond(value.getEpochSecond(), value.getNano());
+        }
+
+        /**
+         * Adds a missing value (which is only recorded in a validity bitmap).
+         */
+        public Builder addNull() {
+            nulls.set(epochSeconds.size());
+            epochSeconds.add(0);
+            nanos.add(0);
+            return this;
+        }
+
+        public Builder addEpochSecond(long epochSecond, int nanoAdjustment) {
+            epochSeconds.add(Math.addExact(epochSecond, Math.floorDiv(nanoAdjustment, NANOS_PER_SECOND)));
+            nanos.add(Math.floorMod(nanoAdjustment, NANOS_PER_SECOND));
+            return this;
+        }
+
+        public Builder addEpochMilli(long epochMilli) {
+            epochSeconds.add(Math.floorDiv(epochMilli, MILLIS_PER_SECOND));
+            nanos.add((int) Math.floorMod(epochMilli, MILLIS_PER_SECOND) * NANOS_PER_MILLI);
             return this;
         }
 
@@ -69,7 +291,9 @@ public final class TimestampColumn extends AbstractColumn<Instant, TimestampColu
         }
 
         public Builder addAll(Iterable<Instant> values) {
-            this.values.addAll(Stream.ofAll(values).toJavaList());
+            for (Instant value : values) {
+                add(value);
+            }
             return this;
         }
 
@@ -87,7 +311,7 @@ public final class TimestampColumn extends AbstractColumn<Instant, TimestampColu
 
         @Override
         public TimestampColumn build() {
-            return new TimestampColumn(id, Array.ofAll(values), metaDataBuilder.build());
+            return new TimestampColumn(id, epochSeconds.toArray(), nanos.toArray(), (BitSet) nulls.clone(), 0, epochSeconds.size(), metaDataBuilder.build());
         }
 
     }
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.impl;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of primitive {@code int} values (i.e. an unboxed alternative to {@code List<Integer>}).
+ */
+public final class IntArrayBuilder {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] values;
+    private int size;
+
+    public IntArrayBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntArrayBuilder(int expectedSize) {
+        this.values = new int[Math.max(expectedSize, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(values.length));
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values added so far. The internal buffer is handed out without copying if it is completely filled,
+     * which is safe because any subsequent {@link #add(int)} has to grow into a new buffer first.
+     */
+    public int[] toArray() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the capacity to grow a buffer of the given capacity to (by a factor of 1.5).
+     */
+    public static int grow(int capacity) {
+        int newCapacity = capacity + (capacity >> 1) + 1;
+        return newCapacity < 0 ? Integer.MAX_VALUE - 8 : newCapacity;
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.impl;
+
+import java.util.Arrays;
+
+/**
+ * Growable buffer of primitive {@code long} values (i.e. an unboxed alternative to {@code List<Long>}).
+ */
+public final class LongArrayBuilder {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] values;
+    private int size;
+
+    public LongArrayBuilder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongArrayBuilder(int expectedSize) {
+        this.values = new long[Math.max(expectedSize, 1)];
+    }
+
+    public void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, IntArrayBuilder.grow(values.length));
+        }
+        values[size++] = value;
+    }
+
+    public long get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values added so far. The internal buffer is handed out without copying if it is completely filled,
+     * which is safe because any subsequent {@link #add(long)} has to grow into a new buffer first.
+     */
+    public long[] toArray() {
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+}
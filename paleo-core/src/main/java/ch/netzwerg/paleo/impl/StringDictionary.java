@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.impl;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Assigns dense {@code int} codes (in insertion order) to distinct strings. Backed by an open-addressing hash table
+ * with linear probing, which stores codes rather than boxed entries and caches string hashes for cheap probing and
+ * rehashing.
+ */
+public final class StringDictionary {
+
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final int NO_CODE = -1;
+
+    private String[] values;
+    private int[] hashes;
+    private int[] slots; // code + 1 per slot, 0 marks an empty slot
+    private int size;
+
+    public StringDictionary() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public StringDictionary(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        this.values = new String[capacity];
+        this.hashes = new int[capacity];
+        this.slots = new int[tableSizeFor(capacity)];
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        // keep load factor at or below 0.5
+        int tableSize = Integer.highestOneBit(Math.max(expectedSize, 2) - 1) << 2;
+        return tableSize > 0 ? tableSize : 1 << 30;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the code of the given value, or {@code -1} if the value has not been added.
+     */
+    public int getCode(String value) {
+        int hash = mix(Objects.hashCode(value));
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int code = slots[slot] - 1;
+            if (code == NO_CODE) {
+                return NO_CODE;
+            } else if (hashes[code] == hash && Objects.equals(values[code], value)) {
+                return code;
+            }
+        }
+    }
+
+    /**
+     * Returns the code of the given value, assigning the next free code if the value has not been added yet.
+     */
+    public int getOrAddCode(String value) {
+        int hash = mix(Objects.hashCode(value));
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            int code = slots[slot] - 1;
+            if (code == NO_CODE) {
+                return add(value, hash, slot);
+            } else if (hashes[code] == hash && Objects.equals(values[code], value)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int add(String value, int hash, int slot) {
+        int code = size;
+        if (code == values.length) {
+            int capacity = IntArrayBuilder.grow(code);
+            values = Arrays.copyOf(values, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        values[code] = value;
+        hashes[code] = hash;
+        slots[slot] = code + 1;
+        size++;
+        if (size > (slots.length >> 1)) {
+            rehash(slots.length << 1);
+        }
+        return code;
+    }
+
+    private void rehash(int tableSize) {
+        int[] newSlots = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = code + 1;
+        }
+        slots = newSlots;
+    }
+
+    public String getValue(int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("Unknown code: " + code);
+        }
+        return values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns all values, ordered by code.
+     */
+    public String[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+}
@@ -19,7 +19,7 @@ package ch.netzwerg.paleo;
 import io.vavr.collection.Array;
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class BooleanColumnTest extends AbstractBaseColumnTest<Boolean, BooleanColumn> {
 
@@ -40,4 +40,20 @@ public class BooleanColumnTest extends AbstractBaseColumnTest<Boolean, BooleanCo
         assertEquals(Array.of(true, false, false, true, false), column.valueStream().toArray());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void unboxedBuilding() {
+        BooleanColumn column = BooleanColumn.builder(ID, 2).addBoolean(false).addBoolean(true).addBoolean(false).build();
+        assertEquals(3, column.getRowCount());
+        assertEquals(Array.of(false, true, false), column.valueStream().toArray());
+    }
+
+    @Test
+    public void nulls() {
+        BooleanColumn column = builder().add(true).add(null).addNull().addBoolean(true).build();
+        assertEquals(4, column.getRowCount());
+        assertEquals(2, column.getNullCount());
+        assertTrue(column.isNullAt(1));
+        assertFalse(column.getValueAt(2));
+        assertTrue(column.getValueAt(3));
+    }
+}
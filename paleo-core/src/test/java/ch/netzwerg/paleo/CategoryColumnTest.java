@@ -19,13 +19,14 @@ package ch.netzwerg.paleo;
 import ch.netzwerg.chabis.WordGenerator;
 import io.vavr.collection.Array;
 import io.vavr.collection.HashSet;
+import io.vavr.control.Option;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Random;
 
 import static ch.netzwerg.paleo.ColumnIds.CategoryColumnId;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class CategoryColumnTest extends AbstractBaseColumnTest<String, CategoryColumn> {
 
@@ -62,4 +63,113 @@ public class CategoryColumnTest extends AbstractBaseColumnTest<String, CategoryC
         assertEquals(values, column.valueStream().toArray());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void codes() {
+        CategoryColumn column = builder().addAll("foo", "bar", "foo").build();
+        assertEquals(2, column.getCategoryCount());
+        assertEquals(0, column.getCodeAt(0));
+        assertEquals(1, column.getCodeAt(1));
+        assertEquals(0, column.getCodeAt(2));
+        assertEquals("bar", column.getCategory(column.getCodeAt(1)));
+    }
+
+    @Test
+    public void expectedCardinality() {
+        CategoryColumn column = CategoryColumn.builder(ID, 2).addAll("a", "b", "c", "d", "a").build();
+        assertEquals(4, column.getCategoryCount());
+        assertEquals(0, column.getCodeAt(4));
+        assertEquals(Array.of("a", "b", "c", "d", "a"), column.valueStream().toArray());
+    }
+
+    @Test
+    public void codeWidths() {
+        for (int categoryCount : new int[]{256, 257, 65536, 65537}) {
+            CategoryColumn.Builder builder = builder();
+            for (int i = 0; i < categoryCount; i++) {
+                builder.add(String.valueOf(i));
+            }
+            builder.add("0");
+            CategoryColumn column = builder.build();
+            assertEquals(categoryCount, column.getCategoryCount());
+            assertEquals(categoryCount - 1, column.getCodeAt(categoryCount - 1));
+            assertEquals(String.valueOf(categoryCount - 1), column.getValueAt(categoryCount - 1));
+            assertEquals(0, column.getCodeAt(categoryCount));
+        }
+    }
+
+    @Test
+    public void nulls() {
+        CategoryColumn column = builder().add(null).addNull().add("foo").build();
+        assertEquals(3, column.getRowCount());
+        assertEquals(2, column.getNullCount());
+        assertTrue(column.isNullAt(0));
+        assertNull(column.getValueAt(1));
+        assertEquals("foo", column.getValueAt(2));
+        assertEquals(HashSet.of("foo"), column.getCategories());
+        assertFalse(CategoryColumn.of(ID, "foo").hasNulls());
+    }
+
+    @Test
+    public void slice() {
+        CategoryColumn column = builder().addAll("foo", "bar").addNull().addAll("baz", "foo").build();
+        CategoryColumn slice = column.slice(2, 5);
+        assertEquals(3, slice.getRowCount());
+        assertEquals(Array.of(null, "baz", "foo"), slice.valueStream().toArray());
+        assertEquals(column.getCodeAt(4), slice.getCodeAt(2));
+        assertEquals(3, slice.getCategoryCount());
+        assertTrue(slice.hasNulls());
+        assertFalse(slice.slice(1, 3).hasNulls());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readPastEndOfSlice() {
+        CategoryColumn.ofAll(ID, "a", "b", "c").slice(0, 1).getValueAt(2);
+    }
+
+    @Test
+    public void take() {
+        CategoryColumn column = builder().addAll("foo", "bar").addNull().addAll("baz", "foo").build();
+        CategoryColumn taken = column.slice(1, 5).take(new int[]{3, 1, -1, 0});
+        assertEquals(Array.of("foo", null, null, "bar"), taken.valueStream().toArray());
+        assertEquals(column.getCodeAt(0), taken.getCodeAt(0));
+        assertEquals(3, taken.getCategoryCount());
+        assertEquals(2, taken.getNullCount());
+    }
+
+    @Test
+    public void concat() {
+        CategoryColumn first = builder().addAll("foo", "bar").addNull().addAll("baz", "foo").build();
+        CategoryColumn second = CategoryColumn.builder(CategoryColumnId.of("other")).addAll("qux", "baz").addNull().add("foo").build();
+        CategoryColumn concatenated = CategoryColumn.concat(Array.of(first.slice(1, 5), second));
+        assertSame(ID, concatenated.getId());
+        assertEquals(Array.of("bar", null, "baz", "foo", "qux", "baz", null, "foo"), concatenated.valueStream().toArray());
+        // codes of the first column are retained, new categories are appended
+        assertEquals(first.getCodeAt(1), concatenated.getCodeAt(0));
+        assertEquals(Array.of("foo", "bar", "baz", "qux"), Array.range(0, concatenated.getCategoryCount()).map(concatenated::getCategory));
+        assertEquals(2, concatenated.getNullCount());
+        assertEquals(2, concatenated.countOf("baz"));
+    }
+
+    @Test
+    public void rowsEqualTo() {
+        CategoryColumn column = builder().addAll("foo", "bar").addNull().addAll("baz", "foo").build();
+        assertArrayEquals(new int[]{0, 4}, column.rowsEqualTo("foo").toArray());
+        assertTrue(column.rowsEqualTo("unknown").isEmpty());
+        assertArrayEquals(new int[]{0, 3, 4}, column.rowsIn("foo", "baz", "unknown").toArray());
+        assertEquals(2, column.countOf("foo"));
+        assertEquals(0, column.countOf(null));
+        // slices have their own index
+        assertArrayEquals(new int[]{3}, column.slice(1, 5).rowsEqualTo("foo").toArray());
+        assertEquals(0, column.slice(1, 3).countOf("foo"));
+    }
+
+    @Test
+    public void statistics() {
+        ColumnStatistics<String> statistics = builder().addAll("foo", "bar").addNull().addAll("baz", "foo").build().slice(1, 5).getStatistics();
+        assertEquals(Option.of("bar"), statistics.getMin());
+        assertEquals(Option.of("foo"), statistics.getMax());
+        assertEquals(1, statistics.getNullCount());
+        assertEquals(3, statistics.getDistinctCount());
+        assertTrue(statistics.isAscending());
+    }
+}
@@ -146,6 +146,181 @@ public class DataFrameTest {
         assertEquals(fileB, fileValue);
     }
 
+    @Test
+    public void columnIndex() {
+        StringColumn nameColumn = StringColumn.ofAll(NAME, "Ada", "Homer");
+        IntColumn ageColumn = IntColumn.ofAll(AGE, 42, 99);
+        DataFrame df = DataFrame.ofAll(nameColumn, ageColumn);
+        assertEquals(0, df.getColumnIndex(NAME));
+        assertEquals(1, df.getColumnIndex(AGE));
+        assertEquals(1, df.getColumnIndex("Age"));
+        assertEquals(ageColumn, df.getColumn(df.getColumnIndex(AGE)));
+        assertEquals(1, df.withMetaData(LinkedHashMap.of("foo", "bar")).getColumnIndex(AGE));
+    }
+
+    @Test
+    public void slice() {
+        StringColumn nameColumn = StringColumn.ofAll(NAME, "Ada", "Homer", "Hera");
+        IntColumn ageColumn = IntColumn.ofAll(AGE, 42, 99, 3);
+        DoubleColumn heightColumn = DoubleColumn.ofAll(HEIGHT, 1.74, 1.20, 0.80);
+        BooleanColumn vegetarianColumn = BooleanColumn.ofAll(VEGETARIAN, true, false, true);
+        TimestampColumn dateOfBirthColumn = TimestampColumn.ofAll(DATE_OF_BIRTH, AUG_26_1975, JAN_08_2006, OCT_26_1947);
+        CategoryColumn genderColumn = CategoryColumn.ofAll(GENDER, "Female", "Male", "Female");
+        DataFrame df = DataFrame.ofAll(nameColumn, ageColumn, heightColumn, vegetarianColumn, dateOfBirthColumn, genderColumn)
+                .withMetaData(LinkedHashMap.of("foo", "bar"));
+
+        DataFrame slice = df.slice(1, 3);
+        assertEquals(2, slice.getRowCount());
+        assertEquals(6, slice.getColumnCount());
+        assertEquals(df.getMetaData(), slice.getMetaData());
+        assertEquals("Homer", slice.getValueAt(0, NAME));
+        assertEquals(3, slice.getValueAt(1, AGE));
+        assertEquals(0.80, slice.getValueAt(1, HEIGHT), 0.01);
+        assertFalse(slice.getValueAt(0, VEGETARIAN));
+        assertEquals(OCT_26_1947, slice.getValueAt(1, DATE_OF_BIRTH));
+        assertEquals("Male", slice.getValueAt(0, GENDER));
+
+        assertEquals(0, df.slice(3, 3).getRowCount());
+        assertEquals(0, DataFrame.empty().slice(0, 0).getRowCount());
+    }
+
+    @Test
+    public void take() {
+        StringColumn nameColumn = StringColumn.ofAll(NAME, "Ada", "Homer", "Hera");
+        IntColumn ageColumn = IntColumn.ofAll(AGE, 42, 99, 3);
+        DoubleColumn heightColumn = DoubleColumn.ofAll(HEIGHT, 1.74, 1.20, 0.80);
+        BooleanColumn vegetarianColumn = BooleanColumn.ofAll(VEGETARIAN, true, false, true);
+        TimestampColumn dateOfBirthColumn = TimestampColumn.ofAll(DATE_OF_BIRTH, AUG_26_1975, JAN_08_2006, OCT_26_1947);
+        CategoryColumn genderColumn = CategoryColumn.ofAll(GENDER, "Female", "Male", "Female");
+        DataFrame df = DataFrame.ofAll(nameColumn, ageColumn, heightColumn, vegetarianColumn, dateOfBirthColumn, genderColumn)
+                .withMetaData(LinkedHashMap.of("foo", "bar"));
+
+        DataFrame taken = df.slice(1, 3).take(new int[]{1, -1, 0, 1});
+        assertEquals(4, taken.getRowCount());
+        assertEquals(df.getMetaData(), taken.getMetaData());
+        assertEquals(Array.of("Hera", null, "Homer", "Hera"), taken.getColumn(NAME).getValues());
+        assertEquals(3, taken.getValueAt(0, AGE));
+        assertEquals(99, taken.getValueAt(2, AGE));
+        assertTrue(taken.getColumn(AGE).isNullAt(1));
+        assertEquals(0.80, taken.getValueAt(0, HEIGHT), 0.01);
+        assertTrue(taken.getColumn(HEIGHT).isNullAt(1));
+        assertTrue(taken.getValueAt(0, VEGETARIAN));
+        assertTrue(taken.getColumn(VEGETARIAN).isNullAt(1));
+        assertFalse(taken.getValueAt(2, VEGETARIAN));
+        assertEquals(Array.of(OCT_26_1947, null, JAN_08_2006, OCT_26_1947), taken.getColumn(DATE_OF_BIRTH).getValues());
+        assertEquals(Array.of("Female", null, "Male", "Female"), taken.getColumn(GENDER).valueStream().toArray());
+
+        assertEquals(0, df.take(new int[0]).getRowCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void takeOutOfRange() {
+        DataFrame.of(IntColumn.ofAll(AGE, 1, 2, 3)).slice(0, 2).take(new int[]{2});
+    }
+
+    @Test
+    public void concat() {
+        StringColumn nameColumn = StringColumn.ofAll(NAME, "Ada", "Homer", "Hera");
+        IntColumn ageColumn = IntColumn.builder(AGE).addInt(42).addNull().addInt(3).build();
+        DoubleColumn heightColumn = DoubleColumn.ofAll(HEIGHT, 1.74, 1.20, 0.80);
+        BooleanColumn vegetarianColumn = BooleanColumn.ofAll(VEGETARIAN, true, false, true);
+        TimestampColumn dateOfBirthColumn = TimestampColumn.ofAll(DATE_OF_BIRTH, AUG_26_1975, JAN_08_2006, OCT_26_1947);
+        CategoryColumn genderColumn = CategoryColumn.ofAll(GENDER, "Female", "Male", "Female");
+        DataFrame df = DataFrame.ofAll(nameColumn, ageColumn, heightColumn, vegetarianColumn, dateOfBirthColumn, genderColumn)
+                .withMetaData(LinkedHashMap.of("foo", "bar"));
+
+        DataFrame concatenated = DataFrame.concat(df.slice(1, 3), df.slice(0, 0).withMetaData(LinkedHashMap.empty()), df);
+        assertEquals(5, concatenated.getRowCount());
+        assertEquals(df.getColumnIds(), concatenated.getColumnIds());
+        assertEquals(df.getMetaData(), concatenated.getMetaData());
+        assertEquals(Array.of("Homer", "Hera", "Ada", "Homer", "Hera"), concatenated.getColumn(NAME).getValues());
+        assertTrue(concatenated.getColumn(AGE).isNullAt(0));
+        assertEquals(3, concatenated.getValueAt(1, AGE));
+        assertTrue(concatenated.getColumn(AGE).isNullAt(3));
+        assertEquals(2, concatenated.getColumn(AGE).getNullCount());
+        assertEquals(0.80, concatenated.getValueAt(4, HEIGHT), 0.01);
+        assertFalse(concatenated.getValueAt(0, VEGETARIAN));
+        assertTrue(concatenated.getValueAt(2, VEGETARIAN));
+        assertEquals(Array.of(JAN_08_2006, OCT_26_1947, AUG_26_1975, JAN_08_2006, OCT_26_1947), concatenated.getColumn(DATE_OF_BIRTH).getValues());
+        assertEquals(Array.of("Male", "Female", "Female", "Male", "Female"), concatenated.getColumn(GENDER).valueStream().toArray());
+        assertEquals(2, concatenated.getColumn(GENDER).getCategoryCount());
+
+        assertEquals(0, DataFrame.concat(List.empty()).getColumnCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void concatDifferingColumnTypes() {
+        DataFrame.concat(DataFrame.of(IntColumn.ofAll(AGE, 42)), DataFrame.of(StringColumn.ofAll(NAME, "Ada")));
+    }
+
+    @Test
+    public void rowCursor() {
+        StringColumn nameColumn = StringColumn.ofAll(NAME, "Ada", null);
+        IntColumn ageColumn = IntColumn.builder(AGE).addInt(42).addNull().build();
+        DoubleColumn heightColumn = DoubleColumn.ofAll(HEIGHT, 1.74, 1.20);
+        BooleanColumn vegetarianColumn = BooleanColumn.ofAll(VEGETARIAN, true, false);
+        TimestampColumn dateOfBirthColumn = TimestampColumn.ofAll(DATE_OF_BIRTH, AUG_26_1975, JAN_08_2006);
+        CategoryColumn genderColumn = CategoryColumn.ofAll(GENDER, "Female", "Male");
+        DataFrame df = DataFrame.ofAll(nameColumn, ageColumn, heightColumn, vegetarianColumn, dateOfBirthColumn, genderColumn);
+
+        RowCursor cursor = df.rowCursor();
+        assertTrue(cursor.next());
+        assertEquals(0, cursor.getRowIndex());
+        assertEquals("Ada", cursor.getString(NAME));
+        assertEquals(42, cursor.getInt(AGE));
+        assertEquals(1.74, cursor.getDouble(HEIGHT), 0.01);
+        assertTrue(cursor.getBoolean(VEGETARIAN));
+        assertEquals(AUG_26_1975, cursor.getTimestamp(DATE_OF_BIRTH));
+        assertEquals(AUG_26_1975.toEpochMilli(), cursor.getEpochMilli(DATE_OF_BIRTH));
+        assertEquals("Female", cursor.getCategory(GENDER));
+        assertFalse(cursor.isNull(AGE));
+
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.getRowIndex());
+        assertTrue(cursor.isNull(NAME));
+        assertTrue(cursor.isNull(AGE));
+        assertEquals(1.20, cursor.getDouble(df.getColumnIndex(HEIGHT)), 0.01);
+        assertEquals(genderColumn.getCodeAt(1), cursor.getCategoryCode(GENDER));
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+
+        assertEquals("Ada", cursor.reset().moveTo(0).getString(NAME));
+    }
+
+    @Test
+    public void rowCursorBoundAccessors() {
+        StringColumn nameColumn = StringColumn.packedBuilder(NAME).add("Ada").add(null).build();
+        IntColumn ageColumn = IntColumn.builder(AGE).addInt(42).addNull().build();
+        TimestampColumn dateOfBirthColumn = TimestampColumn.ofAll(DATE_OF_BIRTH, AUG_26_1975, JAN_08_2006);
+        CategoryColumn genderColumn = CategoryColumn.ofAll(GENDER, "Female", "Male");
+        DataFrame df = DataFrame.ofAll(nameColumn, ageColumn, dateOfBirthColumn, genderColumn);
+
+        RowCursor cursor = df.rowCursor();
+        RowCursor.StringAccessor name = cursor.bind(NAME);
+        RowCursor.IntAccessor age = cursor.bind(AGE);
+        RowCursor.TimestampAccessor dateOfBirth = cursor.bind(DATE_OF_BIRTH);
+        RowCursor.CategoryAccessor gender = cursor.bind(GENDER);
+
+        assertTrue(cursor.next());
+        assertEquals("Ada", name.get());
+        assertEquals(42, age.get());
+        assertFalse(age.isNull());
+        assertEquals(AUG_26_1975.toEpochMilli(), dateOfBirth.getEpochMilli());
+        assertEquals("Female", gender.get());
+
+        assertTrue(cursor.next());
+        assertTrue(name.isNull());
+        assertTrue(age.isNull());
+        assertEquals(JAN_08_2006, dateOfBirth.get());
+        assertEquals(genderColumn.getCodeAt(1), gender.getCode());
+        assertTrue(cursor.isNull(NAME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUnknownColumnId() {
+        DataFrame.of(IntColumn.ofAll(AGE, 42, 99)).getColumn(IntColumnId.of("Age"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void failOnDifferingColumnSizes() {
         StringColumn oneRowColumn = StringColumn.builder(NAME).add("foo").build();
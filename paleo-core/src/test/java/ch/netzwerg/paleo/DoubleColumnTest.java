@@ -21,8 +21,7 @@ import org.junit.Test;
 import java.util.stream.DoubleStream;
 
 import static ch.netzwerg.paleo.ColumnIds.DoubleColumnId;
-import static org.junit.Assert.assertArrayEquals;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class DoubleColumnTest extends AbstractBaseColumnTest<Double, DoubleColumn> {
 
@@ -70,4 +69,57 @@ public class DoubleColumnTest extends AbstractBaseColumnTest<Double, DoubleColum
         assertArrayEquals(new double[]{1, 2, 9, 0}, column.valueStream().toArray(), DELTA);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void unboxedBuilding() {
+        DoubleColumn.Builder builder = DoubleColumn.builder(ID, 2);
+        for (int i = 0; i < 100; i++) {
+            builder.addDouble(i / 2d);
+        }
+        DoubleColumn column = builder.build();
+        assertEquals(100, column.getRowCount());
+        assertEquals(49.5, column.getValueAt(99), DELTA);
+    }
+
+    @Test
+    public void nulls() {
+        DoubleColumn column = builder().add(1d).add(null).addNull().build();
+        assertTrue(column.hasNulls());
+        assertEquals(2, column.getNullCount());
+        assertTrue(column.isNullAt(1));
+        assertTrue(Double.isNaN(column.getValueAt(2)));
+        assertEquals(0d, column.getValueOrElse(2, 0d), DELTA);
+        assertEquals(1d, column.getValueOrElse(0, 0d), DELTA);
+    }
+
+    @Test
+    public void aggregations() {
+        DoubleColumn column = builder().addAll(3, 1).addNull().addAll(4, 1, 5, 9, 2, 6).build();
+        assertEquals(8, column.count());
+        assertEquals(31, column.sum(), 1e-9);
+        assertEquals(1, column.min().getAsDouble(), 0);
+        assertEquals(9, column.max().getAsDouble(), 0);
+        assertEquals(3.875, column.mean().getAsDouble(), 1e-9);
+        assertEquals(52.875 / 7, column.variance().getAsDouble(), 1e-9);
+        assertFalse(DoubleColumn.builder(ID).addNull().build().mean().isPresent());
+    }
+
+    @Test
+    public void compensatedSum() {
+        DoubleColumn.Builder builder = builder().addDouble(1);
+        for (int i = 0; i < 10_000; i++) {
+            builder.addDouble(1e-16);
+        }
+        assertEquals(1 + 1e-12, builder.build().sum(), 1e-15);
+        assertEquals(Double.POSITIVE_INFINITY, DoubleColumn.ofAll(ID, 1, Double.POSITIVE_INFINITY).sum(), 0);
+        assertTrue(Double.isNaN(DoubleColumn.ofAll(ID, 1, Double.NaN, 2).sum()));
+        assertTrue(Double.isNaN(DoubleColumn.ofAll(ID, 1, Double.NaN, 2).min().getAsDouble()));
+    }
+
+    @Test
+    public void rowsBetween() {
+        DoubleColumn column = DoubleColumn.builder(ID).addAll(1.5, -0.5, Double.NaN).addNull().addAll(2.0, 0.0).build();
+        assertArrayEquals(new int[]{1, 5, 0}, column.rowsBetween(-1, 1.5));
+        assertArrayEquals(new int[]{5, 0, 4}, column.rowsBetween(0, Double.POSITIVE_INFINITY));
+        assertArrayEquals(new int[]{2}, column.rowsBetween(Double.NaN, Double.NaN));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Array;
+import org.junit.Test;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+import static org.junit.Assert.*;
+
+public class GroupByTest {
+
+    private static final CategoryColumnId MONTH = CategoryColumnId.of("Month");
+    private static final IntColumnId AGE = IntColumnId.of("Age");
+    private static final LongColumnId VISITS = LongColumnId.of("Visits");
+    private static final DoubleColumnId HEIGHT = DoubleColumnId.of("Height");
+
+    private static final DataFrame DF = DataFrame.ofAll(
+            CategoryColumn.builder(MONTH).addAll("JANUARY", "MARCH", "JANUARY", "MARCH", "JANUARY").addNull().add("APRIL").build(),
+            IntColumn.builder(AGE).addAll(10, 20, 30, 40).addNull().addAll(60, 70).build(),
+            LongColumn.ofAll(VISITS, 1, 2, 3, 4, 5, 6, 7),
+            DoubleColumn.builder(HEIGHT).addAll(1.0, 2.0, 1.5, 2.5, 2.0, 1.0).addNull().build()
+    );
+
+    @Test
+    public void groupByCategory() {
+        Aggregate<IntColumnId> count = Aggregate.count();
+        Aggregate<LongColumnId> ageSum = Aggregate.sum(AGE);
+        Aggregate<DoubleColumnId> ageMean = Aggregate.mean(AGE);
+        Aggregate<IntColumnId> ageMin = Aggregate.min(AGE);
+        Aggregate<LongColumnId> visitsMax = Aggregate.max(VISITS);
+        Aggregate<DoubleColumnId> heightSum = Aggregate.sum(HEIGHT);
+        Aggregate<DoubleColumnId> heightMean = Aggregate.mean(HEIGHT);
+
+        DataFrame result = DF.groupBy(MONTH, count, ageSum, ageMean, ageMin, visitsMax, heightSum, heightMean);
+
+        assertEquals(8, result.getColumnCount());
+        assertEquals(Array.of("Month", "count", "sum(Age)", "mean(Age)", "min(Age)", "max(Visits)", "sum(Height)", "mean(Height)"), result.getColumnNames());
+        assertEquals(Array.of("JANUARY", "MARCH", "APRIL"), result.getColumn(MONTH).valueStream().toArray());
+        assertArrayEquals(new int[]{3, 2, 1}, result.getColumn(count.getResultId()).valueStream().toArray());
+        assertArrayEquals(new long[]{40, 60, 70}, result.getColumn(ageSum.getResultId()).valueStream().toArray());
+        assertArrayEquals(new double[]{20, 30, 70}, result.getColumn(ageMean.getResultId()).valueStream().toArray(), 1e-9);
+        assertArrayEquals(new int[]{10, 20, 70}, result.getColumn(ageMin.getResultId()).valueStream().toArray());
+        assertArrayEquals(new long[]{5, 4, 7}, result.getColumn(visitsMax.getResultId()).valueStream().toArray());
+        assertArrayEquals(new double[]{4.5, 4.5, 0}, result.getColumn(heightSum.getResultId()).valueStream().toArray(), 1e-9);
+
+        DoubleColumn heightMeans = result.getColumn(heightMean.getResultId());
+        assertEquals(1.5, heightMeans.getValueAt(0), 1e-9);
+        assertTrue(heightMeans.isNullAt(2));
+    }
+
+    @Test
+    public void aggregatesSpanningChunks() {
+        // aggregates of several source columns are accumulated in one pass over chunks of rows
+        int rowCount = 5000;
+        CategoryColumn.Builder months = CategoryColumn.builder(MONTH);
+        IntColumn.Builder ages = IntColumn.builder(AGE);
+        DoubleColumn.Builder heights = DoubleColumn.builder(HEIGHT);
+        for (int row = 0; row < rowCount; row++) {
+            months.add(row % 2 == 0 ? "JANUARY" : "MARCH");
+            ages.addInt(row);
+            heights.addDouble(row % 10);
+        }
+        Aggregate<LongColumnId> ageSum = Aggregate.sum(AGE);
+        Aggregate<IntColumnId> ageMax = Aggregate.max(AGE);
+        Aggregate<DoubleColumnId> heightMean = Aggregate.mean(HEIGHT);
+        DataFrame result = DataFrame.ofAll(months.build(), ages.build(), heights.build()).groupBy(MONTH, ageSum, ageMax, heightMean);
+        assertArrayEquals(new long[]{6247500, 6250000}, result.getColumn(ageSum.getResultId()).valueStream().toArray());
+        assertArrayEquals(new int[]{4998, 4999}, result.getColumn(ageMax.getResultId()).valueStream().toArray());
+        assertArrayEquals(new double[]{4, 5}, result.getColumn(heightMean.getResultId()).valueStream().toArray(), 1e-9);
+    }
+
+    @Test
+    public void renamedAggregate() {
+        Aggregate<IntColumnId> count = Aggregate.count().as("n");
+        DataFrame result = DF.groupBy(MONTH, count);
+        assertEquals("n", count.getResultId().getName());
+        assertEquals(3, result.getValueAt(0, count.getResultId()));
+    }
+
+    @Test
+    public void groupBySlice() {
+        Aggregate<IntColumnId> count = Aggregate.count();
+        DataFrame result = DF.slice(1, 4).groupBy(MONTH, count);
+        // dictionary order, without categories which do not occur in the slice
+        assertEquals(Array.of("JANUARY", "MARCH"), result.getColumn(MONTH).valueStream().toArray());
+        assertArrayEquals(new int[]{1, 2}, result.getColumn(count.getResultId()).valueStream().toArray());
+    }
+
+    @Test
+    public void groupByMultipleKeys() {
+        BooleanColumnId adult = BooleanColumnId.of("Adult");
+        DataFrame df = DataFrame.ofAll(
+                CategoryColumn.ofAll(MONTH, "JANUARY", "MARCH", "JANUARY", "JANUARY", "MARCH"),
+                BooleanColumn.ofAll(adult, true, false, true, false, false),
+                IntColumn.builder(AGE).addAll(30, 10, 30, 10).addNull().build(),
+                DoubleColumn.ofAll(HEIGHT, 1.8, 1.2, 1.6, 1.1, 1.3));
+        Aggregate<IntColumnId> count = Aggregate.count();
+        Aggregate<DoubleColumnId> heightMean = Aggregate.mean(HEIGHT);
+
+        DataFrame result = df.groupBy(Array.of(MONTH, adult, AGE), count, heightMean);
+
+        assertEquals(Array.of("Month", "Adult", "Age", "count", "mean(Height)"), result.getColumnNames());
+        assertEquals(Array.of("JANUARY", "MARCH", "JANUARY"), result.getColumn(MONTH).valueStream().toArray());
+        assertEquals(Array.of(true, false, false), result.getColumn(adult).valueStream().toArray());
+        assertArrayEquals(new int[]{30, 10, 10}, result.getColumn(AGE).valueStream().toArray());
+        assertArrayEquals(new int[]{2, 1, 1}, result.getColumn(count.getResultId()).valueStream().toArray());
+        assertArrayEquals(new double[]{1.7, 1.2, 1.1}, result.getColumn(heightMean.getResultId()).valueStream().toArray(), 1e-9);
+    }
+
+    @Test
+    public void groupByWideKeys() {
+        // two full-range long keys do not fit into 64 bits, i.e. keys are kept in an arena
+        LongColumnId first = LongColumnId.of("First");
+        LongColumnId second = LongColumnId.of("Second");
+        DataFrame df = DataFrame.ofAll(
+                LongColumn.ofAll(first, Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, 0),
+                LongColumn.ofAll(second, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, 0),
+                LongColumn.ofAll(VISITS, 1, 2, 3, 4));
+        Aggregate<LongColumnId> visitsSum = Aggregate.sum(VISITS);
+
+        DataFrame result = df.groupBy(Array.of(first, second), visitsSum);
+
+        assertArrayEquals(new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0}, result.getColumn(first).valueStream().toArray());
+        assertArrayEquals(new long[]{Long.MAX_VALUE, Long.MIN_VALUE, 0}, result.getColumn(second).valueStream().toArray());
+        assertArrayEquals(new long[]{4, 2, 4}, result.getColumn(visitsSum.getResultId()).valueStream().toArray());
+    }
+
+    @Test
+    public void groupByManyKeys() {
+        IntColumn.Builder keys = IntColumn.builder(AGE);
+        IntColumn.Builder values = IntColumn.builder(IntColumnId.of("Value"));
+        for (int i = 0; i < 10_000; i++) {
+            keys.addInt(i % 1000 * 7919);
+            values.addInt(1);
+        }
+        Aggregate<IntColumnId> count = Aggregate.count();
+        DataFrame result = DataFrame.ofAll(keys.build(), values.build()).groupBy(Array.of(AGE), count);
+        assertEquals(1000, result.getRowCount());
+        assertEquals(7919, result.getValueAt(1, AGE));
+        assertTrue(result.getColumn(count.getResultId()).valueStream().allMatch(c -> c == 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUnsupportedKey() {
+        DF.groupBy(Array.of(HEIGHT), Aggregate.count());
+    }
+
+}
@@ -16,11 +16,11 @@
 
 package ch.netzwerg.paleo;
 
+import io.vavr.control.Option;
 import org.junit.Test;
 
 import static ch.netzwerg.paleo.ColumnIds.IntColumnId;
-import static org.junit.Assert.assertArrayEquals;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class IntColumnTest extends AbstractBaseColumnTest<Integer, IntColumn> {
 
@@ -41,4 +41,130 @@ public class IntColumnTest extends AbstractBaseColumnTest<Integer, IntColumn> {
         assertArrayEquals(new int[]{42, 33, 69, 99}, column.valueStream().toArray());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void unboxedBuilding() {
+        IntColumn.Builder builder = IntColumn.builder(ID, 2);
+        for (int i = 0; i < 100; i++) {
+            builder.addInt(i);
+        }
+        IntColumn column = builder.build();
+        assertEquals(100, column.getRowCount());
+        assertEquals(99, column.getValueAt(99));
+    }
+
+    @Test
+    public void nulls() {
+        IntColumn column = builder().add(1).add(null).addNull().addInt(4).build();
+        assertEquals(4, column.getRowCount());
+        assertTrue(column.hasNulls());
+        assertEquals(2, column.getNullCount());
+        assertFalse(column.isNullAt(0));
+        assertTrue(column.isNullAt(1));
+        assertTrue(column.isNullAt(2));
+        assertEquals(-1, column.getValueOrElse(2, -1));
+        assertEquals(4, column.getValueOrElse(3, -1));
+        assertFalse(IntColumn.ofAll(ID, 1, 2).hasNulls());
+    }
+
+    @Test
+    public void slice() {
+        IntColumn column = builder().addAll(1, 2).addNull().addAll(4, 5).build();
+        IntColumn slice = column.slice(1, 4);
+        assertEquals(3, slice.getRowCount());
+        assertEquals(2, slice.getValueAt(0));
+        assertTrue(slice.isNullAt(1));
+        assertEquals(4, slice.getValueAt(2));
+        assertEquals(1, slice.getNullCount());
+        assertArrayEquals(new int[]{4}, slice.slice(2, 3).valueStream().toArray());
+        assertFalse(column.slice(3, 5).hasNulls());
+        assertEquals(0, column.slice(2, 2).getRowCount());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void sliceOutOfRange() {
+        IntColumn.ofAll(ID, 1, 2).slice(1, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readPastEndOfSlice() {
+        IntColumn.ofAll(ID, 1, 2, 3, 4, 5).slice(0, 2).getValueAt(3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readBeforeStartOfSlice() {
+        IntColumn.ofAll(ID, 1, 2, 3, 4, 5).slice(2, 4).isNullAt(-1);
+    }
+
+    @Test
+    public void aggregations() {
+        IntColumn column = builder().addAll(3, 1).addNull().addAll(4, 1, 5, 9, 2, 6).build();
+        assertEquals(8, column.count());
+        assertEquals(31, column.sum());
+        assertEquals(1, column.min().getAsInt());
+        assertEquals(9, column.max().getAsInt());
+        assertEquals(3.875, column.mean().getAsDouble(), 1e-9);
+        assertEquals(column.valueStream().filter(v -> v != 0).sum(), column.sum());
+        assertEquals(52.875 / 7, column.variance().getAsDouble(), 1e-9);
+        assertEquals(Integer.MAX_VALUE * 2L, IntColumn.ofAll(ID, Integer.MAX_VALUE, Integer.MAX_VALUE).sum());
+        assertEquals(5, column.slice(5, 6).min().getAsInt());
+    }
+
+    @Test
+    public void aggregationsWithoutValues() {
+        IntColumn column = builder().addNull().build();
+        assertEquals(0, column.count());
+        assertEquals(0, column.sum());
+        assertFalse(column.min().isPresent());
+        assertFalse(column.max().isPresent());
+        assertFalse(column.mean().isPresent());
+        assertFalse(column.variance().isPresent());
+        assertFalse(IntColumn.of(ID, 42).variance().isPresent());
+    }
+
+    @Test
+    public void rowsBetween() {
+        IntColumn column = builder().addAll(42, 7).addNull().addAll(30, 40, 30, 99).build();
+        assertArrayEquals(new int[]{3, 5, 4}, column.rowsBetween(30, 40));
+        assertArrayEquals(new int[]{1, 3, 5, 4, 0, 6}, column.rowsBetween(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(0, column.rowsBetween(41, 30).length);
+        assertEquals(0, column.rowsBetween(100, 200).length);
+        assertArrayEquals(new int[]{0, 2}, column.slice(3, 7).rowsBetween(30, 30));
+    }
+
+    @Test
+    public void sortedColumnNeedsNoIndex() {
+        assertTrue(SortedIndex.of(IntColumn.ofAll(ID, 1, 2, 2, 5), IntColumn.ofAll(ID, 1, 2, 2, 5).getStatistics()).isIdentity());
+        assertFalse(SortedIndex.of(IntColumn.ofAll(ID, 1, 3, 2), IntColumn.ofAll(ID, 1, 3, 2).getStatistics()).isIdentity());
+        assertArrayEquals(new int[]{1, 2}, IntColumn.ofAll(ID, 1, 2, 2, 5).rowsBetween(2, 4));
+    }
+
+    @Test
+    public void statistics() {
+        ColumnStatistics<Integer> statistics = builder().addAll(3, 7).addNull().addAll(7, 42).build().getStatistics();
+        assertEquals(Option.of(3), statistics.getMin());
+        assertEquals(Option.of(42), statistics.getMax());
+        assertEquals(1, statistics.getNullCount());
+        assertEquals(3, statistics.getDistinctCount());
+        assertTrue(statistics.isAscending());
+        assertFalse(statistics.isDescending());
+
+        ColumnStatistics<Integer> empty = builder().addNull().build().getStatistics();
+        assertTrue(empty.getMin().isEmpty());
+        assertEquals(0, empty.getDistinctCount());
+        assertTrue(empty.isAscending() && empty.isDescending());
+
+        // slices compute their own statistics
+        ColumnStatistics<Integer> slice = IntColumn.ofAll(ID, 9, 5, 1, 5).slice(0, 3).getStatistics();
+        assertEquals(Option.of(1), slice.getMin());
+        assertTrue(slice.isDescending());
+    }
+
+    @Test
+    public void distinctCountEstimate() {
+        IntColumn.Builder builder = builder();
+        for (int i = 0; i < 100_000; i++) {
+            builder.addInt(i % 50_000);
+        }
+        assertEquals(50_000, builder.build().getStatistics().getDistinctCount(), 50_000 * 0.05);
+    }
+}
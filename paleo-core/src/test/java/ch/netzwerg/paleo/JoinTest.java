@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Array;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+import static org.junit.Assert.*;
+
+public class JoinTest {
+
+    private static final IntColumnId ORDER_CUSTOMER = IntColumnId.of("Customer");
+    private static final DoubleColumnId AMOUNT = DoubleColumnId.of("Amount");
+    private static final CategoryColumnId ORDER_COUNTRY = CategoryColumnId.of("Country");
+
+    private static final LongColumnId CUSTOMER_ID = LongColumnId.of("Id");
+    private static final StringColumnId NAME = StringColumnId.of("Name");
+
+    private static final StringColumnId COUNTRY_CODE = StringColumnId.of("Code");
+    private static final StringColumnId COUNTRY_NAME = StringColumnId.of("Country Name");
+
+    private static final DataFrame ORDERS = DataFrame.ofAll(
+            IntColumn.builder(ORDER_CUSTOMER).addAll(1, 2, 1, 3).addNull().build(),
+            DoubleColumn.ofAll(AMOUNT, 10, 20, 30, 40, 50),
+            CategoryColumn.ofAll(ORDER_COUNTRY, "CH", "DE", "CH", "FR", "DE"));
+
+    private static final DataFrame CUSTOMERS = DataFrame.ofAll(
+            LongColumn.ofAll(CUSTOMER_ID, 2, 1, 2),
+            StringColumn.ofAll(NAME, "Bob", "Ada", "Bobby"));
+
+    private static final DataFrame COUNTRIES = DataFrame.ofAll(
+            StringColumn.ofAll(COUNTRY_CODE, "DE", "CH", null),
+            StringColumn.ofAll(COUNTRY_NAME, "Germany", "Switzerland", "Unknown"));
+
+    @Test
+    public void innerJoin() {
+        DataFrame joined = ORDERS.innerJoin(CUSTOMERS, ORDER_CUSTOMER, CUSTOMER_ID);
+        assertEquals(Array.of("Customer", "Amount", "Country", "Name"), joined.getColumnNames());
+        assertArrayEquals(new int[]{1, 2, 2, 1}, joined.getColumn(ORDER_CUSTOMER).valueStream().toArray());
+        assertArrayEquals(new double[]{10, 20, 20, 30}, joined.getColumn(AMOUNT).valueStream().toArray(), 0);
+        assertEquals(Array.of("Ada", "Bob", "Bobby", "Ada"), joined.getColumn(NAME).getValues());
+    }
+
+    @Test
+    public void leftJoin() {
+        DataFrame joined = ORDERS.leftJoin(CUSTOMERS, ORDER_CUSTOMER, CUSTOMER_ID);
+        assertEquals(6, joined.getRowCount());
+        assertEquals(Array.of("Ada", "Bob", "Bobby", "Ada", null, null), joined.getColumn(NAME).getValues());
+        assertArrayEquals(new double[]{10, 20, 20, 30, 40, 50}, joined.getColumn(AMOUNT).valueStream().toArray(), 0);
+        assertTrue(joined.getColumn(ORDER_CUSTOMER).isNullAt(5));
+    }
+
+    @Test
+    public void joinCategoryWithString() {
+        DataFrame joined = ORDERS.leftJoin(COUNTRIES, ORDER_COUNTRY, COUNTRY_CODE);
+        assertEquals(Array.of("Switzerland", "Germany", "Switzerland", null, "Germany"), joined.getColumn(COUNTRY_NAME).getValues());
+        assertEquals(Array.of("CH", "DE", "CH", "FR", "DE"), joined.getColumn(ORDER_COUNTRY).valueStream().toArray());
+
+        DataFrame reversed = COUNTRIES.innerJoin(ORDERS, COUNTRY_CODE, ORDER_COUNTRY);
+        assertEquals(Array.of("DE", "DE", "CH", "CH"), reversed.getColumn(COUNTRY_CODE).getValues());
+        assertArrayEquals(new double[]{20, 50, 10, 30}, reversed.getColumn(AMOUNT).valueStream().toArray(), 0);
+    }
+
+    @Test
+    public void joinPackedStrings() {
+        StringColumnId code = StringColumnId.of("Code");
+        Array<String> codes = Array.of("CH", "Grüezi", null, "\uD83D\uDE00", "CH");
+        DataFrame countries = DataFrame.ofAll(
+                StringColumn.packedBuilder(COUNTRY_CODE).addAll("Grüezi", "CH", null, "\uD83D\uDE00").build(),
+                IntColumn.ofAll(ORDER_CUSTOMER, 1, 2, 3, 4));
+        for (StringColumn keys : Array.of(StringColumn.ofAll(code, codes), StringColumn.packedBuilder(code).addAll(codes).build())) {
+            DataFrame joined = DataFrame.of(keys).leftJoin(countries, code, COUNTRY_CODE);
+            assertArrayEquals(new int[]{2, 1, 0, 4, 2}, joined.getColumn(ORDER_CUSTOMER).valueStream().toArray());
+            assertTrue(joined.getColumn(ORDER_CUSTOMER).isNullAt(2));
+        }
+
+        // categories which are missing on the other side (or not used by a slice) never match
+        DataFrame categories = DataFrame.of(CategoryColumn.ofAll(ORDER_COUNTRY, "\uD83D\uDE00", "FR", "CH").slice(1, 3));
+        DataFrame joined = categories.innerJoin(countries, ORDER_COUNTRY, COUNTRY_CODE);
+        assertArrayEquals(new int[]{2}, joined.getColumn(ORDER_CUSTOMER).valueStream().toArray());
+        DataFrame reversed = countries.innerJoin(categories, COUNTRY_CODE, ORDER_COUNTRY);
+        assertEquals(Array.of("CH"), reversed.getColumn(COUNTRY_CODE).getValues());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnIncompatibleKeys() {
+        ORDERS.innerJoin(COUNTRIES, ORDER_CUSTOMER, COUNTRY_CODE);
+    }
+
+    @Test
+    public void asOfJoin() {
+        TimestampColumnId tradeTime = TimestampColumnId.of("Trade Time");
+        TimestampColumnId quoteTime = TimestampColumnId.of("Quote Time");
+        DoubleColumnId bid = DoubleColumnId.of("Bid");
+        DataFrame trades = DataFrame.ofAll(
+                TimestampColumn.builder(tradeTime).addEpochMilli(5).addNull().addEpochMilli(20).addEpochMilli(20).addEpochMilli(31).build(),
+                IntColumn.ofAll(ORDER_CUSTOMER, 1, 2, 3, 4, 5));
+        DataFrame quotes = DataFrame.ofAll(
+                TimestampColumn.builder(quoteTime).addEpochMilli(10).addNull().addEpochMilli(20).addEpochMilli(25).build(),
+                DoubleColumn.ofAll(bid, 1.0, 2.0, 3.0, 4.0));
+
+        DataFrame joined = trades.asOfJoin(quotes, tradeTime, quoteTime);
+        assertEquals(Array.of("Trade Time", "Customer", "Bid"), joined.getColumnNames());
+        assertEquals(5, joined.getRowCount());
+        DoubleColumn bids = joined.getColumn(bid);
+        assertTrue(bids.isNullAt(0));
+        assertTrue(bids.isNullAt(1));
+        assertArrayEquals(new double[]{3.0, 3.0, 4.0}, bids.slice(2, 5).valueStream().toArray(), 0);
+
+        DataFrame withTolerance = trades.asOfJoin(quotes, tradeTime, quoteTime, Duration.ofMillis(5));
+        assertArrayEquals(new double[]{3.0, 3.0}, withTolerance.getColumn(bid).slice(2, 4).valueStream().toArray(), 0);
+        assertTrue(withTolerance.getColumn(bid).isNullAt(4));
+    }
+
+    @Test
+    public void asOfJoinByCategory() {
+        TimestampColumnId time = TimestampColumnId.of("Time");
+        CategoryColumnId symbol = CategoryColumnId.of("Symbol");
+        DoubleColumnId price = DoubleColumnId.of("Price");
+        Instant t0 = Instant.parse("2020-01-01T00:00:00Z");
+        DataFrame trades = DataFrame.ofAll(
+                TimestampColumn.ofAll(time, t0.plusSeconds(1), t0.plusSeconds(2), t0.plusSeconds(3), t0.plusSeconds(4)),
+                CategoryColumn.builder(symbol).addAll("AAPL", "MSFT", "GOOG").addNull().build());
+        DataFrame quotes = DataFrame.ofAll(
+                TimestampColumn.ofAll(time, t0, t0.plusSeconds(1), t0.plusSeconds(2), t0.plusSeconds(2)),
+                CategoryColumn.ofAll(symbol, "MSFT", "AAPL", "MSFT", "AAPL"),
+                DoubleColumn.ofAll(price, 10, 20, 11, 21));
+
+        DataFrame joined = trades.asOfJoin(quotes, time, time, symbol, symbol);
+        assertEquals(Array.of("Time", "Symbol", "Price"), joined.getColumnNames());
+        DoubleColumn prices = joined.getColumn(price);
+        assertEquals(20, prices.getValueAt(0), 0);
+        assertEquals(11, prices.getValueAt(1), 0);
+        assertTrue(prices.isNullAt(2));
+        assertTrue(prices.isNullAt(3));
+
+        DataFrame withTolerance = trades.asOfJoin(quotes, time, time, symbol, symbol, Duration.ZERO);
+        assertArrayEquals(new double[]{20, 11}, withTolerance.getColumn(price).slice(0, 2).valueStream().toArray(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUnsortedAsOfJoin() {
+        TimestampColumnId time = TimestampColumnId.of("Time");
+        DataFrame df = DataFrame.of(TimestampColumn.builder(time).addEpochMilli(2).addEpochMilli(1).build());
+        df.asOfJoin(df, time, time);
+    }
+
+}
@@ -19,8 +19,7 @@ package ch.netzwerg.paleo;
 import org.junit.Test;
 
 import static ch.netzwerg.paleo.ColumnIds.*;
-import static org.junit.Assert.assertArrayEquals;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class LongColumnTest extends AbstractBaseColumnTest<Long, LongColumn> {
 
@@ -41,4 +40,44 @@ public class LongColumnTest extends AbstractBaseColumnTest<Long, LongColumn> {
         assertArrayEquals(new long[]{42L, 33L, 69L, 99L, 7093740276L}, column.valueStream().toArray());
     }
 
+    @Test
+    public void unboxedBuilding() {
+        LongColumn.Builder builder = LongColumn.builder(ID, 2);
+        for (long i = 0; i < 100; i++) {
+            builder.addLong(i * Integer.MAX_VALUE);
+        }
+        LongColumn column = builder.build();
+        assertEquals(100, column.getRowCount());
+        assertEquals(99L * Integer.MAX_VALUE, column.getValueAt(99));
+    }
+
+    @Test
+    public void nulls() {
+        LongColumn column = builder().add(1L).add((Long) null).add((Integer) null).addNull().build();
+        assertEquals(3, column.getNullCount());
+        assertFalse(column.isNullAt(0));
+        assertTrue(column.isNullAt(3));
+        assertEquals(-1L, column.getValueOrElse(3, -1L));
+        assertEquals(1L, column.getValueOrElse(0, -1L));
+    }
+
+    @Test
+    public void aggregations() {
+        LongColumn column = builder().addAll(3L, 1L).addNull().addAll(4L, 1L, 5L, 9L, 2L, 6L).build();
+        assertEquals(8, column.count());
+        assertEquals(31, column.sum());
+        assertEquals(1, column.min().getAsLong());
+        assertEquals(9, column.max().getAsLong());
+        assertEquals(3.875, column.mean().getAsDouble(), 1e-9);
+        assertEquals(52.875 / 7, column.variance().getAsDouble(), 1e-9);
+        assertEquals(Long.MAX_VALUE, LongColumn.ofAll(ID, Long.MAX_VALUE, Long.MAX_VALUE).mean().getAsDouble(), 1);
+        assertFalse(LongColumn.builder(ID).addNull().build().min().isPresent());
+    }
+
+    @Test
+    public void rowsBetween() {
+        LongColumn column = LongColumn.builder(ID).addAll(Long.MAX_VALUE, -5).addNull().add(0L).build();
+        assertArrayEquals(new int[]{1, 3}, column.rowsBetween(Long.MIN_VALUE, 0));
+        assertArrayEquals(new int[]{0}, column.rowsBetween(1, Long.MAX_VALUE));
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class RowBitmapTest {
+
+    @Test
+    public void empty() {
+        RowBitmap bitmap = RowBitmap.empty();
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.getCardinality());
+        assertFalse(bitmap.contains(0));
+        assertEquals(0, bitmap.toArray().length);
+    }
+
+    @Test
+    public void of() {
+        RowBitmap bitmap = RowBitmap.of(70_000, 3, 1, 3, 65_536);
+        assertEquals(4, bitmap.getCardinality());
+        assertArrayEquals(new int[]{1, 3, 65_536, 70_000}, bitmap.toArray());
+        assertTrue(bitmap.contains(65_536));
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(-1));
+    }
+
+    @Test
+    public void denseChunks() {
+        // more than 4096 rows per chunk are kept in bitmap containers
+        int[] even = IntStream.range(0, 100_000).filter(i -> i % 2 == 0).toArray();
+        int[] multiplesOfThree = IntStream.range(0, 100_000).filter(i -> i % 3 == 0).toArray();
+        RowBitmap a = RowBitmap.of(even);
+        RowBitmap b = RowBitmap.of(multiplesOfThree);
+        assertArrayEquals(even, a.toArray());
+        assertTrue(a.contains(99_998));
+        assertFalse(a.contains(99_999));
+
+        assertArrayEquals(IntStream.range(0, 100_000).filter(i -> i % 2 == 0 || i % 3 == 0).toArray(), a.or(b).toArray());
+        assertArrayEquals(IntStream.range(0, 100_000).filter(i -> i % 6 == 0).toArray(), a.and(b).toArray());
+    }
+
+    @Test
+    public void mixedContainers() {
+        RowBitmap dense = RowBitmap.of(IntStream.range(0, 10_000).toArray());
+        RowBitmap sparse = RowBitmap.of(5, 9_999, 10_000, 200_000);
+        assertEquals(10_002, dense.or(sparse).getCardinality());
+        assertEquals(sparse.or(dense), dense.or(sparse));
+        assertEquals(RowBitmap.of(5, 9_999), dense.and(sparse));
+        assertEquals(RowBitmap.of(5, 9_999), sparse.and(dense));
+        assertTrue(RowBitmap.of(1).and(RowBitmap.of(2)).isEmpty());
+    }
+
+}
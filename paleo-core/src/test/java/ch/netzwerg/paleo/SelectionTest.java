@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Array;
+import io.vavr.collection.LinkedHashMap;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+import static org.junit.Assert.*;
+
+public class SelectionTest {
+
+    private static final StringColumnId NAME = StringColumnId.of("Name");
+    private static final IntColumnId AGE = IntColumnId.of("Age");
+    private static final DoubleColumnId HEIGHT = DoubleColumnId.of("Height");
+    private static final BooleanColumnId VEGETARIAN = BooleanColumnId.of("Vegetarian");
+    private static final TimestampColumnId DATE_OF_BIRTH = TimestampColumnId.of("Date Of Birth");
+    private static final CategoryColumnId GENDER = CategoryColumnId.of("Gender");
+
+    private static final Instant AUG_26_1975 = Instant.parse("1975-08-26T12:08:30.00Z");
+    private static final Instant JAN_08_2006 = Instant.parse("2006-01-08T23:43:30.00Z");
+    private static final Instant OCT_26_1947 = Instant.parse("1947-10-26T03:23:36.00Z");
+
+    private static final DataFrame DF = DataFrame.ofAll(
+            StringColumn.ofAll(NAME, "Ada", "Homer", "Hera", "Bart"),
+            IntColumn.builder(AGE).addAll(42, 99, 3).addNull().build(),
+            DoubleColumn.ofAll(HEIGHT, 1.74, 1.20, 0.80, 1.30),
+            BooleanColumn.ofAll(VEGETARIAN, true, false, true, false),
+            TimestampColumn.builder(DATE_OF_BIRTH).addAll(AUG_26_1975, OCT_26_1947, JAN_08_2006).addNull().build(),
+            CategoryColumn.ofAll(GENDER, "Female", "Male", "Female", "Male")
+    ).withMetaData(LinkedHashMap.of("foo", "bar"));
+
+    @Test
+    public void filter() {
+        assertArrayEquals(new int[]{0, 1}, DF.filter(AGE, age -> age > 10).toRowIndices());
+        assertArrayEquals(new int[]{1, 2, 3}, DF.filter(HEIGHT, height -> height < 1.5).toRowIndices());
+        assertArrayEquals(new int[]{0, 2}, DF.filter(VEGETARIAN, true).toRowIndices());
+        assertArrayEquals(new int[]{0, 2}, DF.filter(DATE_OF_BIRTH, millis -> millis > 0).toRowIndices());
+        assertArrayEquals(new int[]{1, 3}, DF.filter(GENDER, "Male"::equals).toRowIndices());
+        assertTrue(DF.filter(AGE, age -> age < 0).isEmpty());
+    }
+
+    @Test
+    public void filterIn() {
+        assertArrayEquals(new int[]{1, 3}, DF.filterIn(GENDER, "Male").toRowIndices());
+        assertArrayEquals(new int[]{0, 1, 2, 3}, DF.filterIn(GENDER, "Male", "Female").toRowIndices());
+        assertArrayEquals(new int[]{3}, DF.filter(VEGETARIAN, false).filterIn(GENDER, "Male", "Unknown").filter(HEIGHT, height -> height > 1.25).toRowIndices());
+        assertTrue(DF.filterIn(GENDER).isEmpty());
+    }
+
+    @Test
+    public void missingValuesNeverMatch() {
+        assertArrayEquals(new int[]{0, 1, 2}, DF.filter(AGE, age -> true).toRowIndices());
+        assertEquals(3, DF.filter(DATE_OF_BIRTH, millis -> true).size());
+    }
+
+    @Test
+    public void refine() {
+        Selection selection = DF.filter(GENDER, "Female"::equals).filter(AGE, age -> age < 10);
+        assertEquals(1, selection.size());
+        assertEquals(2, selection.getRowIndex(0));
+        assertSame(DF, selection.getDataFrame());
+    }
+
+    @Test
+    public void rowCursor() {
+        RowCursor cursor = DF.filter(VEGETARIAN, false).rowCursor();
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.getRowIndex());
+        assertEquals("Homer", cursor.getString(NAME));
+        assertTrue(cursor.next());
+        assertEquals("Bart", cursor.getString(NAME));
+        assertTrue(cursor.isNull(AGE));
+        assertFalse(cursor.next());
+        assertEquals("Bart", cursor.moveTo(1).getString(NAME));
+    }
+
+    @Test
+    public void toDataFrame() {
+        DataFrame df = DF.filter(HEIGHT, height -> height > 1.25).toDataFrame();
+        assertEquals(2, df.getRowCount());
+        assertEquals(DF.getColumnIds(), df.getColumnIds());
+        assertEquals(DF.getMetaData(), df.getMetaData());
+        assertEquals(Array.of("Ada", "Bart"), df.getColumn(NAME).getValues());
+        assertEquals(42, df.getValueAt(0, AGE));
+        assertTrue(df.getColumn(AGE).isNullAt(1));
+        assertTrue(df.getValueAt(0, VEGETARIAN));
+        assertEquals(AUG_26_1975, df.getValueAt(0, DATE_OF_BIRTH));
+        assertNull(df.getValueAt(1, DATE_OF_BIRTH));
+        assertEquals("Male", df.getValueAt(1, GENDER));
+    }
+
+}
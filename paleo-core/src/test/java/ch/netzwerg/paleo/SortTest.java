@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo;
+
+import io.vavr.collection.Array;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static ch.netzwerg.paleo.ColumnIds.*;
+import static org.junit.Assert.*;
+
+public class SortTest {
+
+    private static final CategoryColumnId MONTH = CategoryColumnId.of("Month");
+    private static final IntColumnId AGE = IntColumnId.of("Age");
+    private static final DoubleColumnId HEIGHT = DoubleColumnId.of("Height");
+    private static final StringColumnId NAME = StringColumnId.of("Name");
+    private static final TimestampColumnId BIRTH = TimestampColumnId.of("Birth");
+
+    private static final DataFrame DF = DataFrame.ofAll(
+            CategoryColumn.ofAll(MONTH, "MARCH", "JANUARY", "MARCH", "APRIL", "JANUARY"),
+            IntColumn.builder(AGE).addAll(40, -10).addNull().addAll(70, -10).build(),
+            DoubleColumn.builder(HEIGHT).addAll(1.5, -0.5, Double.NaN).addNull().add(-2.0).build(),
+            StringColumn.ofAll(NAME, "Bob", "Ada", null, "Eve", "Al"),
+            TimestampColumn.ofAll(BIRTH, Instant.ofEpochSecond(5, 2), Instant.ofEpochSecond(5, 1), Instant.ofEpochSecond(-3), Instant.ofEpochSecond(7), Instant.ofEpochSecond(5, 1)));
+
+    @Test
+    public void sortByInt() {
+        DataFrame sorted = DF.sortBy(AGE, true);
+        assertEquals(Array.of("Ada", "Al", "Bob", "Eve", null), sorted.getColumn(NAME).getValues());
+        assertTrue(sorted.getColumn(AGE).isNullAt(4));
+        assertArrayEquals(new int[]{3, 0, 1, 4, 2}, DF.sortIndices(SortKey.descending(AGE)));
+    }
+
+    @Test
+    public void sortByDouble() {
+        assertArrayEquals(new int[]{4, 1, 0, 2, 3}, DF.sortIndices(SortKey.ascending(HEIGHT)));
+        assertArrayEquals(new int[]{2, 0, 1, 4, 3}, DF.sortIndices(SortKey.descending(HEIGHT)));
+    }
+
+    @Test
+    public void sortByCategoryAndString() {
+        assertArrayEquals(new int[]{3, 1, 4, 0, 2}, DF.sortIndices(SortKey.ascending(MONTH)));
+        assertArrayEquals(new int[]{1, 4, 0, 3, 2}, DF.sortIndices(SortKey.ascending(NAME)));
+        assertArrayEquals(new int[]{3, 0, 4, 1, 2}, DF.sortIndices(SortKey.descending(NAME)));
+    }
+
+    @Test
+    public void sortByTimestamp() {
+        assertArrayEquals(new int[]{2, 1, 4, 0, 3}, DF.sortIndices(SortKey.ascending(BIRTH)));
+    }
+
+    @Test
+    public void sortByMultipleKeys() {
+        DataFrame sorted = DF.sortBy(SortKey.ascending(MONTH), SortKey.descending(NAME));
+        assertEquals(Array.of("APRIL", "JANUARY", "JANUARY", "MARCH", "MARCH"), sorted.getColumn(MONTH).valueStream().toArray());
+        assertEquals(Array.of("Eve", "Al", "Ada", "Bob", null), sorted.getColumn(NAME).getValues());
+        assertEquals(DF.getMetaData(), sorted.getMetaData());
+    }
+
+    @Test
+    public void sortIsStable() {
+        assertArrayEquals(new int[]{1, 4, 0, 3, 2}, DF.sortIndices(SortKey.ascending(AGE), SortKey.ascending(MONTH)));
+        assertArrayEquals(new int[]{1, 4, 0, 3, 2}, DF.sortIndices(SortKey.ascending(AGE)));
+    }
+
+    @Test
+    public void parallelSort() {
+        Random random = new Random(42);
+        int rowCount = 100_000;
+        LongColumnId randomId = LongColumnId.of("Random");
+        IntColumn.Builder ints = IntColumn.builder(AGE);
+        LongColumn.Builder longs = LongColumn.builder(randomId);
+        for (int i = 0; i < rowCount; i++) {
+            ints.addInt(random.nextInt(100) - 50);
+            longs.addLong(random.nextLong());
+        }
+        DataFrame df = DataFrame.ofAll(ints.build(), longs.build());
+        Array<SortKey> keys = Array.of(SortKey.descending(AGE), SortKey.ascending(randomId));
+
+        int[] parallel = Sort.permutation(df, keys, 0);
+        int[] sequential = Sort.permutation(df, keys, Integer.MAX_VALUE);
+        IntColumn ageColumn = df.getColumn(AGE);
+        LongColumn longColumn = df.getColumn(randomId);
+        int[] expected = IntStream.range(0, rowCount).boxed()
+                .sorted(Comparator.<Integer>comparingInt(row -> -ageColumn.getValueAt(row)).thenComparingLong(longColumn::getValueAt))
+                .mapToInt(Integer::intValue).toArray();
+        assertArrayEquals(expected, parallel);
+        assertArrayEquals(expected, sequential);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failOnUnsupportedKey() {
+        DataFrame.of(GenericColumn.ofAll(GenericColumnTest.ID, "a")).sortBy(GenericColumnTest.ID, true);
+    }
+
+    @Test
+    public void sortBySortedKeys() {
+        DataFrame df = DataFrame.ofAll(IntColumn.ofAll(AGE, 1, 2, 2, 3), StringColumn.ofAll(NAME, "d", "c", "b", "a"));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, df.sortIndices(SortKey.ascending(AGE)));
+        assertArrayEquals(new int[]{3, 2, 1, 0}, df.sortIndices(SortKey.ascending(NAME)));
+        assertArrayEquals(new int[]{0, 2, 1, 3}, df.sortIndices(SortKey.ascending(AGE), SortKey.ascending(NAME)));
+        assertArrayEquals(new int[]{3, 1, 2, 0}, df.sortIndices(SortKey.descending(AGE), SortKey.descending(NAME)));
+    }
+
+    @Test
+    public void sortOrderIndependentOfStringLayout() {
+        // supplementary characters sort below U+E000..U+FFFF (like String#compareTo)
+        Array<String> values = Array.of("\uFFFF", "\uD83D\uDE00", "\uE000x", "a");
+        StringColumn column = StringColumn.ofAll(NAME, values);
+        StringColumn packed = StringColumn.packedBuilder(NAME).addAll(values).build();
+        Array<String> expected = values.sorted();
+        assertEquals(expected, DataFrame.of(column).sortBy(NAME, true).getColumn(NAME).getValues());
+        assertEquals(expected, DataFrame.of(packed).sortBy(NAME, true).getColumn(NAME).getValues());
+        assertFalse(packed.getStatistics().isAscending());
+        assertEquals(column.getStatistics().getMax(), packed.getStatistics().getMax());
+    }
+}
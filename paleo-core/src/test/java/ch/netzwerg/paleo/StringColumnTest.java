@@ -16,20 +16,20 @@
 
 package ch.netzwerg.paleo;
 
+import io.vavr.collection.Array;
+import io.vavr.control.Option;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import static ch.netzwerg.paleo.ColumnIds.StringColumnId;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
-public class StringColumnTest extends AbstractColumnTest<String, StringColumn> {
+public class StringColumnTest extends AbstractBaseColumnTest<String, StringColumn> {
 
     private static final StringColumnId ID = StringColumnId.of("test");
 
-    @Override
-    String generateValue() {
-        return String.valueOf(System.currentTimeMillis());
-    }
-
     @Override
     protected StringColumn.Builder builder() {
         return StringColumn.builder(ID);
@@ -44,4 +44,138 @@ public class StringColumnTest extends AbstractColumnTest<String, StringColumn> {
         assertEquals("zzz", column.getValueAt(column.getRowCount() - 1));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void values() {
+        Array<String> expected = Array.of("foo", null, "bar");
+        StringColumn column = builder().addAll(expected).build();
+        assertFalse(column.isPacked());
+        assertEquals(expected, column.getValues());
+        assertEquals(expected, column.valueStream().toArray());
+    }
+
+    @Test
+    public void packed() {
+        Array<String> expected = Array.of("bli", "", null, "Grüezi", "\u20AC", "\uD83D\uDE00", "zzz");
+        StringColumn column = StringColumn.packedBuilder(ID).addAll(expected).putMetaData("k", "v").build();
+        assertTrue(column.isPacked());
+        assertEquals(expected.length(), column.getRowCount());
+        assertEquals(expected, column.getValues());
+        assertEquals("Grüezi", column.getValueAt(3));
+        assertNull(column.getValueAt(2));
+        assertEquals("v", column.getMetaData().get("k").get());
+    }
+
+    @Test
+    public void compareValues() {
+        Array<String> values = Array.of("b", "ab", "abc", null, "ä", "");
+        for (StringColumn column : Arrays.asList(builder().addAll(values).build(), StringColumn.packedBuilder(ID).addAll(values).build())) {
+            assertTrue(column.compareValues(0, 1) > 0);
+            assertTrue(column.compareValues(1, 2) < 0);
+            assertTrue(column.compareValues(3, 0) > 0);
+            assertTrue(column.compareValues(0, 3) < 0);
+            assertEquals(0, column.compareValues(3, 3));
+            assertTrue(column.compareValues(4, 0) > 0);
+            assertTrue(column.compareValues(5, 1) < 0);
+            assertEquals(0, column.compareValues(2, 2));
+        }
+        Array<String> supplementary = Array.of("\uFFFF", "\uD83D\uDE00", "\uD83D\uDE01", "\uFFFFa");
+        for (StringColumn column : Arrays.asList(builder().addAll(supplementary).build(), StringColumn.packedBuilder(ID).addAll(supplementary).build())) {
+            assertTrue(column.compareValues(0, 1) > 0);
+            assertTrue(column.compareValues(1, 2) < 0);
+            assertTrue(column.compareValues(3, 0) > 0);
+        }
+    }
+
+    @Test
+    public void hashAndEquality() {
+        Array<String> values = Array.of("foo", "Grüezi", "\uD83D\uDE00", "", null);
+        StringColumn objects = builder().addAll(values).build();
+        StringColumn packed = StringColumn.packedBuilder(ID).addAll(values).build();
+        for (int i = 0; i < values.length(); i++) {
+            String value = values.get(i);
+            int expectedHash = value == null ? 0 : Arrays.hashCode(value.getBytes(StandardCharsets.UTF_8));
+            assertEquals(expectedHash, objects.hashValueAt(i));
+            assertEquals(expectedHash, packed.hashValueAt(i));
+            assertTrue(packed.valueEquals(i, packed, i));
+            assertTrue(packed.valueEquals(i, objects, i));
+            assertTrue(objects.valueEquals(i, packed, i));
+        }
+        assertFalse(packed.valueEquals(0, packed, 1));
+        assertFalse(packed.valueEquals(3, packed, 4));
+
+        // unpaired surrogates are encoded as '?'
+        String unpaired = "\uD83D";
+        assertEquals(Arrays.hashCode(unpaired.getBytes(StandardCharsets.UTF_8)), StringColumn.of(ID, unpaired).hashValueAt(0));
+        assertEquals("?", StringColumn.packedBuilder(ID).add(unpaired).build().getValueAt(0));
+    }
+
+    @Test
+    public void slice() {
+        Array<String> values = Array.of("foo", null, "Grüezi", "bar", "foo");
+        StringColumn column = StringColumn.ofAll(ID, values);
+        StringColumn packed = StringColumn.packedBuilder(ID).addAll(values).build();
+        for (StringColumn slice : Array.of(column.slice(1, 5), packed.slice(1, 5))) {
+            assertEquals(values.slice(1, 5), slice.getValues());
+            assertEquals(values.slice(3, 4), slice.slice(2, 3).getValues());
+            assertEquals(column.hashValueAt(4), slice.hashValueAt(3));
+            assertTrue(slice.valueEquals(3, packed, 0));
+            assertTrue(slice.compareValues(2, 1) > 0);
+            assertTrue(slice.compareValues(0, 1) > 0);
+        }
+    }
+
+    @Test
+    public void readPastEndOfSlice() {
+        Array<String> values = Array.of("foo", "bar", "baz");
+        StringColumn column = StringColumn.ofAll(ID, values);
+        StringColumn packed = StringColumn.packedBuilder(ID).addAll(values).build();
+        for (StringColumn slice : Array.of(column.slice(0, 1), packed.slice(0, 1))) {
+            try {
+                slice.getValueAt(2);
+                fail("reads past the end of a slice should fail");
+            } catch (IndexOutOfBoundsException expected) {
+                assertEquals(1, slice.getRowCount());
+            }
+        }
+    }
+
+    @Test
+    public void take() {
+        Array<String> values = Array.of("foo", null, "Grüezi", "bar");
+        StringColumn column = StringColumn.ofAll(ID, values);
+        StringColumn packed = StringColumn.packedBuilder(ID).addAll(values).build();
+        for (StringColumn source : Array.of(column, packed)) {
+            StringColumn taken = source.slice(1, 4).take(new int[]{1, 0, -1, 1, 2});
+            assertEquals(source.isPacked(), taken.isPacked());
+            assertEquals(Array.of("Grüezi", null, null, "Grüezi", "bar"), taken.getValues());
+            assertTrue(taken.valueEquals(0, packed, 2));
+        }
+    }
+
+    @Test
+    public void concat() {
+        Array<String> values = Array.of("foo", null, "Grüezi", "bar");
+        StringColumn column = StringColumn.ofAll(ID, values);
+        StringColumn packed = StringColumn.packedBuilder(ID).addAll(values).build();
+        StringColumn concatenatedPacked = StringColumn.concat(Array.of(packed.slice(1, 3), packed));
+        assertTrue(concatenatedPacked.isPacked());
+        assertEquals(Array.of(null, "Grüezi", "foo", null, "Grüezi", "bar"), concatenatedPacked.getValues());
+        assertTrue(concatenatedPacked.valueEquals(1, packed, 2));
+        StringColumn concatenated = StringColumn.concat(Array.of(packed.slice(1, 3), column));
+        assertFalse(concatenated.isPacked());
+        assertEquals(concatenatedPacked.getValues(), concatenated.getValues());
+    }
+
+    @Test
+    public void statistics() {
+        Array<String> values = Array.of("bar", null, "Grüezi", "foo", "bar");
+        for (StringColumn column : Array.of(StringColumn.ofAll(ID, values), StringColumn.packedBuilder(ID).addAll(values).build())) {
+            ColumnStatistics<String> statistics = column.getStatistics();
+            assertEquals(Option.of("Grüezi"), statistics.getMin());
+            assertEquals(Option.of("foo"), statistics.getMax());
+            assertEquals(1, statistics.getNullCount());
+            assertEquals(3, statistics.getDistinctCount());
+            assertFalse(statistics.isAscending() || statistics.isDescending());
+        }
+    }
+}
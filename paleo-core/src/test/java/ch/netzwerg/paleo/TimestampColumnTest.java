@@ -20,11 +20,12 @@ import io.vavr.collection.Array;
 import org.junit.Test;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 import static ch.netzwerg.paleo.ColumnIds.TimestampColumnId;
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
-public class TimestampColumnTest extends AbstractColumnTest<Instant, TimestampColumn> {
+public class TimestampColumnTest extends AbstractBaseColumnTest<Instant, TimestampColumn> {
 
     private static final Instant AUG_26_1975 = Instant.parse("1975-08-26T12:08:30.00Z");
     private static final Instant JAN_08_2008 = Instant.parse("2006-01-08T23:43:30.00Z");
@@ -32,11 +33,6 @@ public class TimestampColumnTest extends AbstractColumnTest<Instant, TimestampCo
 
     private static final TimestampColumnId ID = TimestampColumnId.of("test");
 
-    @Override
-    Instant generateValue() {
-        return Instant.now();
-    }
-
     @Override
     protected TimestampColumn.Builder builder() {
         return TimestampColumn.builder(ID);
@@ -51,4 +47,49 @@ public class TimestampColumnTest extends AbstractColumnTest<Instant, TimestampCo
         assertEquals(Array.of(AUG_26_1975, JAN_08_2008, OCT_26_1947), column.getValues());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void values() {
+        Instant now = Instant.now();
+        TimestampColumn column = builder().add(now).add(AUG_26_1975).build();
+        assertEquals(Array.of(now, AUG_26_1975), column.getValues());
+        assertEquals(Array.of(now, AUG_26_1975), column.valueStream().toArray());
+        assertEquals(now.getEpochSecond(), column.getEpochSecondAt(0));
+        assertEquals(now.getNano(), column.getNanoAt(0));
+    }
+
+    @Test
+    public void epochMillis() {
+        Instant beforeEpoch = Instant.parse("1969-12-31T23:59:59.999999999Z");
+        Instant withNanos = Instant.parse("2006-01-08T23:43:30.123456789Z");
+        TimestampColumn column = builder().addAll(OCT_26_1947, beforeEpoch, withNanos).addEpochMilli(-1).addEpochSecond(10, -1).build();
+        assertArrayEquals(new long[]{OCT_26_1947.toEpochMilli(), beforeEpoch.toEpochMilli(), withNanos.toEpochMilli(), -1, 9999}, column.epochMillisStream().toArray());
+        assertEquals(Instant.ofEpochMilli(-1), column.getValueAt(3));
+        assertEquals(Instant.ofEpochSecond(10).minus(1, ChronoUnit.NANOS), column.getValueAt(4));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void epochMillisOutOfRange() {
+        TimestampColumn.ofAll(ID, Instant.MAX).getEpochMilliAt(0);
+    }
+
+    @Test
+    public void nulls() {
+        TimestampColumn column = builder().add(AUG_26_1975).add(null).addNull().build();
+        assertEquals(3, column.getRowCount());
+        assertEquals(2, column.getNullCount());
+        assertFalse(column.isNullAt(0));
+        assertTrue(column.isNullAt(1));
+        assertNull(column.getValueAt(2));
+        assertEquals(Array.of(AUG_26_1975, null, null), column.getValues());
+    }
+
+    @Test
+    public void rowsInRange() {
+        Instant t0 = Instant.parse("2017-01-01T00:00:00Z");
+        TimestampColumn column = TimestampColumn.builder(ID)
+                .addAll(t0.plusSeconds(60), t0, t0.plusNanos(1)).addNull().add(t0.minusSeconds(60)).build();
+        assertArrayEquals(new int[]{1, 2}, column.rowsInRange(t0, t0.plusSeconds(60)));
+        assertArrayEquals(new int[]{4, 1, 2, 0}, column.rowsInRange(Instant.MIN, Instant.MAX));
+        assertEquals(0, column.rowsInRange(t0, t0).length);
+    }
+}
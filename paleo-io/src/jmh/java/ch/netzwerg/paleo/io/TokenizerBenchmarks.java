@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.io;
+
+import ch.netzwerg.paleo.DataFrame;
+import ch.netzwerg.paleo.io.impl.ByteTokenizer;
+import ch.netzwerg.paleo.io.impl.MappedInputStream;
+import ch.netzwerg.paleo.io.impl.Tokenizer;
+import ch.netzwerg.paleo.schema.Schema;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the previous line splitting (a {@link Scanner} with a line delimiter regex plus {@link String#split} per
+ * line) with the char buffer {@link Tokenizer}, on a generated data set of 1 mio rows (same layout as the one of
+ * {@code DataGeneratorTest}), as well as with the {@link ByteTokenizer} on a mapped file (i.e. without decoding
+ * chars). The schema based benchmarks compare sequential with parallel (chunked) parsing.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused")
+public class TokenizerBenchmarks {
+
+    private static final int ROW_COUNT = 1_000_000;
+    private static final Pattern LINE_DELIMITER = Pattern.compile("[\\r\\n]+");
+
+    private File file;
+    private File dataFile; // same rows without header lines (for schema based parsing)
+    private Schema schema;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        dataFile = File.createTempFile("paleo-", ".tsv");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(dataFile), StandardCharsets.UTF_8))) {
+            Instant instant = Instant.parse("2016-01-01T00:00:00Z");
+            for (int rowIndex = 0; rowIndex < ROW_COUNT; rowIndex++) {
+                instant = instant.plusMillis(100000);
+                writer.append(instant.toString()).append('\t');
+                writer.append(instant.atZone(ZoneOffset.UTC).getMonth().toString()).append('\t');
+                writer.append(randomWord(random)).append('\t');
+                writer.append(String.valueOf(random.nextInt(99))).append('\t');
+                writer.append(String.valueOf(1 + random.nextDouble())).append('\n');
+            }
+        }
+        file = File.createTempFile("paleo-", ".tsv");
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write("Timestamp\tMonth\tWord\tAge\tHeight\n".getBytes(StandardCharsets.UTF_8));
+            out.write("Timestamp\tCategory\tString\tInt\tDouble\n".getBytes(StandardCharsets.UTF_8));
+            Files.copy(dataFile.toPath(), out);
+        }
+        String fields = "[{\"name\":\"Timestamp\",\"type\":\"Timestamp\"},{\"name\":\"Month\",\"type\":\"Category\"}," +
+                "{\"name\":\"Word\"},{\"name\":\"Age\",\"type\":\"Int\"},{\"name\":\"Height\",\"type\":\"Double\"}]";
+        schema = Schema.parseJson(new StringReader("{\"dataFileName\":\"" + dataFile.getName() + "\",\"charsetName\":\"UTF-8\",\"fields\":" + fields + "}"));
+    }
+
+    private static String randomWord(Random random) {
+        char[] chars = new char[3 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+        dataFile.delete();
+    }
+
+    @Benchmark
+    public void scannerAndSplit(Blackhole blackhole) throws IOException {
+        try (Reader reader = newReader()) {
+            Scanner scanner = new Scanner(reader);
+            scanner.useDelimiter(LINE_DELIMITER);
+            while (scanner.hasNext()) {
+                for (String cell : scanner.next().split("\t", -1)) {
+                    blackhole.consume(cell);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) throws IOException {
+        try (Reader reader = newReader()) {
+            Tokenizer tokenizer = new Tokenizer(reader, '\t', true);
+            while (tokenizer.nextLine()) {
+                for (int i = 0; i < tokenizer.cellCount(); i++) {
+                    blackhole.consume(tokenizer.cellOffset(i));
+                    blackhole.consume(tokenizer.cellLength(i));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void byteTokenizer(Blackhole blackhole) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            ByteTokenizer tokenizer = new ByteTokenizer(new MappedInputStream(channel, 0, channel.size()), '\t', true);
+            while (tokenizer.nextLine()) {
+                for (int i = 0; i < tokenizer.cellCount(); i++) {
+                    blackhole.consume(tokenizer.cellOffset(i));
+                    blackhole.consume(tokenizer.cellLength(i));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public DataFrame parse() throws IOException {
+        try (Reader reader = newReader()) {
+            return Parser.tsv(reader);
+        }
+    }
+
+    @Benchmark
+    public DataFrame parseSchema() {
+        return Parser.tsv(schema, dataFile.getParentFile());
+    }
+
+    @Benchmark
+    public DataFrame parseSchemaInParallel() {
+        return Parser.parallelTsv(schema, dataFile.getParentFile());
+    }
+
+    private Reader newReader() throws FileNotFoundException {
+        return new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+    }
+
+}
@@ -44,6 +44,15 @@ public interface Parser {
         return ScalaParserImpl.parseViaSchemaTsv(schema);
     }
 
+    /**
+     * Like {@link #tsv(Schema, File)}, but large files are split into chunks (at line boundaries) which are parsed in
+     * parallel on the common fork-join pool. Only applies to UTF-8 and single byte charsets, other files are parsed
+     * sequentially.
+     */
+    static DataFrame parallelTsv(Schema schema, File parentDir) {
+        return ScalaParserImpl.parseViaSchemaTsvInParallel(schema, parentDir);
+    }
+
     // -- Comma Separated Values
 
     static DataFrame csv(Reader in) {
@@ -62,4 +71,11 @@ public interface Parser {
         return ScalaParserImpl.parseViaSchemaCsv(schema);
     }
 
+    /**
+     * See {@link #parallelTsv(Schema, File)}.
+     */
+    static DataFrame parallelCsv(Schema schema, File parentDir) {
+        return ScalaParserImpl.parseViaSchemaCsvInParallel(schema, parentDir);
+    }
+
 }
\ No newline at end of file
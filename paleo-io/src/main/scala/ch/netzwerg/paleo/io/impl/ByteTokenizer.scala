@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl
+
+import java.io.InputStream
+
+/**
+  * Byte based counterpart of [[Tokenizer]] for ASCII compatible input (where separators and line terminators are
+  * single bytes), i.e. cells are exposed as ranges of raw (undecoded) bytes. Numbers, booleans and timestamps are
+  * decoded right from these ranges, strings via a [[StringDecoder]].
+  */
+final class ByteTokenizer(in: InputStream, separator: Char, skipBlankLines: Boolean, bufferSize: Int)
+  extends LineTokenizer(separator, skipBlankLines) {
+
+  require(separator < 0x80, "Separator has to be an ASCII char")
+
+  def this(in: InputStream, separator: Char, skipBlankLines: Boolean) = {
+    this(in, separator, skipBlankLines, Tokenizer.DefaultBufferSize)
+  }
+
+  private var buffer = new Array[Byte](bufferSize)
+
+  /**
+    * Returns the buffer which holds the cells of the current line.
+    */
+  def bytes: Array[Byte] = buffer
+
+  override protected def scan(from: Int): Int = {
+    // hot loop: plain cell content
+    val bytes = buffer
+    val end = limit
+    val sep = separator.toByte
+    var p = from
+    while (p < end && { val b = bytes(p); b != sep && b != '\n' && b != '\r' }) {
+      p += 1
+    }
+    p
+  }
+
+  override protected def at(position: Int): Int = buffer(position)
+
+  override protected def capacity: Int = buffer.length
+
+  override protected def moveToStart(from: Int, length: Int): Unit = System.arraycopy(buffer, from, buffer, 0, length)
+
+  override protected def grow(): Unit = buffer = java.util.Arrays.copyOf(buffer, buffer.length * 2)
+
+  override protected def read(offset: Int, length: Int): Int = in.read(buffer, offset, length)
+
+}
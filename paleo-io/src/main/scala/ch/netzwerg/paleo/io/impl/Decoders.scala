@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.io.impl
+
+import java.nio.charset.StandardCharsets
+
+/**
+  * Decodes numbers and booleans directly from ranges of chars or (ASCII compatible) bytes, i.e. without creating
+  * strings. The plain notations are handled by fast paths, everything else (including malformed input) falls back to
+  * the corresponding JDK methods, which therefore define the results and exceptions.
+  *
+  * All decoders take either a char array or a byte array (the other one being null), which keeps a single
+  * implementation per type without any per-char indirection.
+  */
+object Decoders {
+
+  private val MaxExactMantissa = 1L << 53
+
+  // powers of ten which are exactly representable as doubles
+  private val ExactPowersOfTen = Array.tabulate(23)(i => java.lang.Double.parseDouble("1e" + i))
+
+  def parseInt(chars: Array[Char], offset: Int, length: Int): Int = parseInt(chars, null, offset, length)
+
+  def parseInt(bytes: Array[Byte], offset: Int, length: Int): Int = parseInt(null, bytes, offset, length)
+
+  def parseLong(chars: Array[Char], offset: Int, length: Int): Long = parseLong(chars, null, offset, length)
+
+  def parseLong(bytes: Array[Byte], offset: Int, length: Int): Long = parseLong(null, bytes, offset, length)
+
+  def parseDouble(chars: Array[Char], offset: Int, length: Int): Double = parseDouble(chars, null, offset, length)
+
+  def parseDouble(bytes: Array[Byte], offset: Int, length: Int): Double = parseDouble(null, bytes, offset, length)
+
+  def parseBoolean(chars: Array[Char], offset: Int, length: Int): Boolean = parseBoolean(chars, null, offset, length)
+
+  def parseBoolean(bytes: Array[Byte], offset: Int, length: Int): Boolean = parseBoolean(null, bytes, offset, length)
+
+  // same as Boolean.parseBoolean, i.e. "true" ignoring case (and false for anything else)
+  private def parseBoolean(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Boolean = {
+    length == 4 &&
+      (charAt(chars, bytes, offset) | 0x20) == 't' &&
+      (charAt(chars, bytes, offset + 1) | 0x20) == 'r' &&
+      (charAt(chars, bytes, offset + 2) | 0x20) == 'u' &&
+      (charAt(chars, bytes, offset + 3) | 0x20) == 'e'
+  }
+
+  private def parseInt(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Int = {
+    val value = parseDecimal(chars, bytes, offset, length, 10)
+    if (value != Long.MinValue && value >= Int.MinValue && value <= Int.MaxValue) {
+      value.toInt
+    } else {
+      java.lang.Integer.parseInt(toString(chars, bytes, offset, length))
+    }
+  }
+
+  private def parseLong(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Long = {
+    val value = parseDecimal(chars, bytes, offset, length, 18)
+    if (value != Long.MinValue) {
+      value
+    } else {
+      java.lang.Long.parseLong(toString(chars, bytes, offset, length))
+    }
+  }
+
+  /**
+    * Parses an optionally signed decimal integer of up to `maxDigits` digits (which must not overflow a long), returning
+    * `Long.MinValue` if the fast path does not apply.
+    */
+  private def parseDecimal(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int, maxDigits: Int): Long = {
+    val end = offset + length
+    var i = offset
+    val negative = i < end && charAt(chars, bytes, i) == '-'
+    if (i < end && (negative || charAt(chars, bytes, i) == '+')) {
+      i += 1
+    }
+    if (i == end || end - i > maxDigits) {
+      return Long.MinValue
+    }
+    var value = 0L
+    while (i < end) {
+      val digit = charAt(chars, bytes, i) - '0'
+      if (digit < 0 || digit > 9) {
+        return Long.MinValue
+      }
+      value = value * 10 + digit
+      i += 1
+    }
+    if (negative) -value else value
+  }
+
+  /**
+    * Fast path for plain decimal notation (e.g. "-12.5e-3"): if the significant digits fit into the 53 bit mantissa and
+    * the decimal exponent is within the range of exactly representable powers of ten, a single multiplication or
+    * division is correctly rounded (Clinger's fast path).
+    */
+  private def parseDouble(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Double = {
+    val end = offset + length
+    var i = offset
+    val negative = i < end && charAt(chars, bytes, i) == '-'
+    if (i < end && (negative || charAt(chars, bytes, i) == '+')) {
+      i += 1
+    }
+    var mantissa = 0L
+    var digitCount = 0
+    var significantDigitCount = 0
+    var exponent = 0
+    var afterPoint = false
+    var valid = true
+    var c = 0
+    while (i < end && { c = charAt(chars, bytes, i); (c >= '0' && c <= '9') || (c == '.' && !afterPoint) }) {
+      if (c == '.') {
+        afterPoint = true
+      } else {
+        digitCount += 1
+        if (mantissa > 0 || c != '0') {
+          significantDigitCount += 1
+          if (significantDigitCount <= 18) {
+            mantissa = mantissa * 10 + (c - '0')
+          }
+        }
+        if (afterPoint) {
+          exponent -= 1
+        }
+      }
+      i += 1
+    }
+    if (i < end && (c == 'e' || c == 'E')) {
+      i += 1
+      val negativeExponent = i < end && charAt(chars, bytes, i) == '-'
+      if (i < end && (negativeExponent || charAt(chars, bytes, i) == '+')) {
+        i += 1
+      }
+      var explicitExponent = 0
+      valid = i < end
+      while (i < end && valid) {
+        val digit = charAt(chars, bytes, i) - '0'
+        valid = digit >= 0 && digit <= 9
+        explicitExponent = Math.min(explicitExponent * 10 + digit, 100000) // far beyond the range of doubles
+        i += 1
+      }
+      exponent += (if (negativeExponent) -explicitExponent else explicitExponent)
+    }
+    if (valid && i == end && digitCount > 0 && significantDigitCount <= 18) {
+      if (mantissa == 0) {
+        return if (negative) -0.0 else 0.0
+      }
+      if (mantissa <= MaxExactMantissa && exponent >= -22 && exponent <= 22) {
+        val value = if (exponent >= 0) mantissa * ExactPowersOfTen(exponent) else mantissa / ExactPowersOfTen(-exponent)
+        return if (negative) -value else value
+      }
+    }
+    java.lang.Double.parseDouble(toString(chars, bytes, offset, length))
+  }
+
+  @inline private[impl] def charAt(chars: Array[Char], bytes: Array[Byte], index: Int): Int = {
+    if (chars != null) chars(index) else bytes(index) & 0xFF
+  }
+
+  private[impl] def toString(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): String = {
+    if (chars != null) {
+      new String(chars, offset, length)
+    } else if (isAscii(bytes, offset, length)) {
+      latin1String(bytes, offset, length)
+    } else {
+      new String(bytes, offset, length, StandardCharsets.UTF_8)
+    }
+  }
+
+  private[impl] def isAscii(bytes: Array[Byte], offset: Int, length: Int): Boolean = {
+    val end = offset + length
+    var i = offset
+    while (i < end && bytes(i) >= 0) {
+      i += 1
+    }
+    i == end
+  }
+
+  /**
+    * Decodes ISO-8859-1 (and thus ASCII) bytes. Decoding via charset name reuses a decoder which is cached per thread
+    * (whereas a charset argument creates a new decoder per call), as long as the same charset name is used throughout.
+    */
+  private[impl] def latin1String(bytes: Array[Byte], offset: Int, length: Int): String = {
+    new String(bytes, offset, length, "ISO-8859-1")
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl
+
+/**
+  * Splits input into lines and cells in a single pass over a reusable buffer, i.e. without regular expressions and
+  * without allocating a string per line or cell. Cells of the current line are exposed as ranges of the buffer, which
+  * are only valid until the next call to `nextLine`. Subclasses own the (typed) buffer and scan plain cell content,
+  * see [[Tokenizer]] (chars) and [[ByteTokenizer]] (bytes).
+  *
+  * Lines end at '\n', '\r' or "\r\n" (and at the end of input). Blank lines are either skipped or reported as lines
+  * with a single empty cell. Cells are separated by the given separator, there is no quoting (consecutive separators
+  * yield empty cells).
+  */
+abstract class LineTokenizer(separator: Char, skipBlankLines: Boolean) {
+
+  protected var limit = 0 // end of valid input within the buffer
+  private var position = 0 // next position to be scanned
+  private var lineStart = 0
+  private var afterCarriageReturn = false // a subsequent '\n' belongs to the previous line terminator
+  private var cellEnds = new Array[Int](16)
+  private var count = 0
+
+  /**
+    * Returns the position of the first separator or line terminator at or after `from` (or `limit` if there is none).
+    */
+  protected def scan(from: Int): Int
+
+  /**
+    * Returns the char (or byte) at the given position of the buffer.
+    */
+  protected def at(position: Int): Int
+
+  protected def capacity: Int
+
+  /**
+    * Moves `length` elements from `from` to the start of the buffer.
+    */
+  protected def moveToStart(from: Int, length: Int): Unit
+
+  /**
+    * Doubles the capacity of the buffer (keeping its content).
+    */
+  protected def grow(): Unit
+
+  /**
+    * Reads input into the buffer (starting at `offset`), returning the number of elements read or -1 at the end of
+    * input.
+    */
+  protected def read(offset: Int, length: Int): Int
+
+  /**
+    * Advances to the next line, returning false at the end of input.
+    */
+  final def nextLine(): Boolean = {
+    count = 0
+    lineStart = position
+    if (afterCarriageReturn) {
+      afterCarriageReturn = false
+      if ((position < limit || fill()) && at(position) == '\n') {
+        position += 1
+        lineStart = position
+      }
+    }
+    while (true) {
+      val p = scan(position)
+      position = p
+      if (p == limit) {
+        if (!fill()) {
+          if (position == lineStart) {
+            return false
+          }
+          addCell(position) // last line without terminator
+          return true
+        }
+      } else {
+        val c = at(p)
+        if (c == separator) {
+          addCell(p)
+          position = p + 1
+        } else if (p == lineStart && skipBlankLines) {
+          position = p + 1
+          lineStart = position
+        } else {
+          addCell(p)
+          position = p + 1
+          afterCarriageReturn = c == '\r'
+          return true
+        }
+      }
+    }
+    false // unreachable
+  }
+
+  final def cellCount: Int = count
+
+  final def cellOffset(index: Int): Int = if (index == 0) lineStart else cellEnds(index - 1) + 1
+
+  final def cellLength(index: Int): Int = cellEnds(index) - cellOffset(index)
+
+  private def addCell(end: Int): Unit = {
+    if (count == cellEnds.length) {
+      cellEnds = java.util.Arrays.copyOf(cellEnds, count * 2)
+    }
+    cellEnds(count) = end
+    count += 1
+  }
+
+  /**
+    * Reads more input, moving the current line to the start of the buffer (which grows if the line does not fit).
+    */
+  private def fill(): Boolean = {
+    if (lineStart > 0) {
+      val shift = lineStart
+      moveToStart(shift, limit - shift)
+      limit -= shift
+      position -= shift
+      lineStart = 0
+      var i = 0
+      while (i < count) {
+        cellEnds(i) -= shift
+        i += 1
+      }
+    }
+    if (limit == capacity) {
+      grow()
+    }
+    val read = this.read(limit, capacity - limit)
+    if (read < 0) {
+      false
+    } else {
+      limit += read
+      true
+    }
+  }
+
+}
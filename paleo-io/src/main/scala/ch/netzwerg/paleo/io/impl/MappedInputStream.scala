@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl
+
+import java.io.InputStream
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+
+object MappedInputStream {
+
+  /**
+    * Maximum size of a single mapping (a mapped buffer is limited to 2 GB, i.e. larger files are mapped in windows).
+    */
+  val MaxWindowSize: Long = 1L << 30
+
+}
+
+/**
+  * Reads a range of a file via memory mapped windows, which are mapped one after the other (i.e. large files are never
+  * mapped as a whole). Reading is a bulk copy out of the page cache, without any system calls. Mappings do not depend
+  * on the channel position, i.e. several ranges of the same channel can be read concurrently.
+  */
+final class MappedInputStream(channel: FileChannel, start: Long, end: Long, windowSize: Long) extends InputStream {
+
+  def this(channel: FileChannel, start: Long, end: Long) = this(channel, start, end, MappedInputStream.MaxWindowSize)
+
+  private var windowEnd = start
+  private var window: MappedByteBuffer = _
+
+  override def read(): Int = {
+    if (nextWindow()) window.get() & 0xFF else -1
+  }
+
+  override def read(bytes: Array[Byte], offset: Int, length: Int): Int = {
+    if (length == 0) {
+      0
+    } else if (nextWindow()) {
+      val count = Math.min(length, window.remaining)
+      window.get(bytes, offset, count)
+      count
+    } else {
+      -1
+    }
+  }
+
+  override def available(): Int = if (window == null) 0 else window.remaining
+
+  /**
+    * Ensures that the current window has remaining bytes (mapping the next one if needed), false at the end of range.
+    */
+  private def nextWindow(): Boolean = {
+    if (window != null && window.hasRemaining) {
+      true
+    } else if (windowEnd >= end) {
+      false
+    } else {
+      val size = Math.min(windowSize, end - windowEnd)
+      window = channel.map(FileChannel.MapMode.READ_ONLY, windowEnd, size)
+      windowEnd += size
+      true
+    }
+  }
+
+}
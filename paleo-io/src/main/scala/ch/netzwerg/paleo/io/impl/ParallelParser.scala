@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl
+
+import java.io.{File, FileInputStream, InputStreamReader}
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.{Charset, StandardCharsets}
+import java.util.concurrent.{Callable, ForkJoinPool, ForkJoinTask}
+
+import ch.netzwerg.paleo.DataFrame
+import ch.netzwerg.paleo.schema.Schema
+import io.vavr.collection.HashMap
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable.ArrayBuffer
+import scala.util.{Failure, Success, Try}
+
+/**
+  * Parses a file in chunks on a fork-join pool: the file is split into byte ranges which are aligned to line
+  * boundaries, each range is mapped and tokenized into its own columns, and the per-chunk data frames are finally
+  * concatenated in order (which also merges the category dictionaries, see `DataFrame.concat`).
+  *
+  * Line boundaries can only be found within the raw bytes for ASCII compatible charsets (i.e. UTF-8 or single byte
+  * charsets), files in other charsets (and small files) are parsed sequentially. Errors are reported just like by the
+  * sequential parser, i.e. the first erroneous row (in file order) wins, with its row index relative to the file.
+  */
+object ParallelParser {
+
+  /**
+    * Minimum number of bytes per chunk (configurable via the system property `paleo.parse.minChunkSize`).
+    */
+  val MinChunkSize: Long = java.lang.Long.getLong("paleo.parse.minChunkSize", 4L << 20)
+
+  // more chunks than threads keep all threads busy even if chunks take differently long
+  private val ChunksPerThread = 4
+
+  def parse(schema: Schema, parentDir: File, separator: Char, pool: ForkJoinPool, minChunkSize: Long): DataFrame = {
+    val charset = ScalaParserImpl.charsetOf(schema)
+    val inputStream = new FileInputStream(new File(parentDir, schema.getDataFileName))
+    val channel = inputStream.getChannel
+    try {
+      val chunkCount = if (isAsciiCompatible(charset)) Math.min(pool.getParallelism.toLong * ChunksPerThread, channel.size / minChunkSize) else 1
+      if (chunkCount <= 1) {
+        ScalaParserImpl.parseViaSchema(schema, parentDir, separator)
+      } else {
+        val bounds = lineAlignedBounds(channel, chunkCount.toInt)
+        val tasks = for (i <- 0 until bounds.length - 1) yield {
+          pool.submit(new Callable[Try[DataFrame]] {
+            override def call(): Try[DataFrame] = Try(parseChunk(schema, channel, bounds(i), bounds(i + 1), separator, charset))
+          })
+        }
+        concat(tasks).withMetaData(schema.getMetaData)
+      }
+    } finally {
+      inputStream.close()
+    }
+  }
+
+  private def parseChunk(schema: Schema, channel: FileChannel, start: Long, end: Long, separator: Char, charset: Charset): DataFrame = {
+    // chunks start at line boundaries, i.e. each one is tokenized just like a separate file
+    val in = new MappedInputStream(channel, start, end)
+    if (StringDecoder.supports(charset)) {
+      val tokenizer = new ByteTokenizer(in, separator, skipBlankLines = false)
+      ScalaParserImpl.parseViaFields(schema.getFields, tokenizer, new StringDecoder(charset), 0, HashMap.empty())
+    } else {
+      val tokenizer = new Tokenizer(new InputStreamReader(in, charset.newDecoder()), separator, skipBlankLines = false)
+      ScalaParserImpl.parseViaFields(schema.getFields, tokenizer, 0, HashMap.empty())
+    }
+  }
+
+  private def concat(tasks: Seq[ForkJoinTask[Try[DataFrame]]]): DataFrame = {
+    val dataFrames = new ArrayBuffer[DataFrame](tasks.length)
+    var rowCount = 0
+    try {
+      for (task <- tasks) {
+        task.join() match {
+          case Success(dataFrame) =>
+            dataFrames += dataFrame
+            rowCount += dataFrame.getRowCount
+          case Failure(e: ColumnCountMismatchException) => throw e.withRowIndexOffset(rowCount)
+          case Failure(e) => throw e
+        }
+      }
+    } finally {
+      tasks.foreach(_.cancel(false)) // no-op for completed tasks, skips pending ones after a failure
+    }
+    DataFrame.concat(dataFrames.asJava)
+  }
+
+  /**
+    * Whether line terminators (and separators) can be found within the raw bytes, and whether each range between
+    * them can be decoded on its own.
+    */
+  def isAsciiCompatible(charset: Charset): Boolean = {
+    charset == StandardCharsets.UTF_8 || (charset.contains(StandardCharsets.US_ASCII) && charset.canEncode && charset.newEncoder.maxBytesPerChar == 1)
+  }
+
+  /**
+    * Splits the file into (at most) the given number of chunks, returning the chunk bounds (starting with 0 and ending
+    * with the file size). Each inner bound is moved forward to the start of the next line.
+    */
+  def lineAlignedBounds(channel: FileChannel, chunkCount: Int): Array[Long] = {
+    val size = channel.size
+    val bounds = ArrayBuffer(0L)
+    for (i <- 1 until chunkCount) {
+      val bound = nextLineStart(channel, Math.max(size * i / chunkCount, bounds.last))
+      if (bound > bounds.last && bound < size) {
+        bounds += bound
+      }
+    }
+    bounds += size
+    bounds.toArray
+  }
+
+  private def nextLineStart(channel: FileChannel, from: Long): Long = {
+    val buffer = ByteBuffer.allocate(8 * 1024)
+    var position = from
+    var read = channel.read(buffer, position)
+    while (read > 0) {
+      var i = 0
+      while (i < read) {
+        val b = buffer.get(i)
+        if (b == '\n') {
+          return position + i + 1
+        } else if (b == '\r') {
+          // "\r\n" is a single line terminator
+          val end = position + i + 1
+          return if (byteAt(channel, end) == '\n') end + 1 else end
+        }
+        i += 1
+      }
+      position += read
+      buffer.clear()
+      read = channel.read(buffer, position)
+    }
+    channel.size
+  }
+
+  private def byteAt(channel: FileChannel, position: Long): Int = {
+    val buffer = ByteBuffer.allocate(1)
+    if (channel.read(buffer, position) == 1) buffer.get(0) else -1
+  }
+
+}
@@ -16,11 +16,10 @@
 
 package ch.netzwerg.paleo.io.impl
 
-import java.io.{File, Reader}
-import java.time.format.DateTimeFormatter
-import java.time.{Instant, LocalDateTime, ZoneId}
-import java.util.Scanner
-import java.util.regex.Pattern
+import java.io.{File, FileInputStream, InputStreamReader, Reader}
+import java.nio.charset.Charset
+import java.time.ZoneId
+import java.util.concurrent.ForkJoinPool
 
 import ch.netzwerg.paleo.ColumnIds._
 import io.vavr.collection
@@ -30,65 +29,63 @@ import ch.netzwerg.paleo._
 import ch.netzwerg.paleo.schema.{Field, Schema}
 
 import scala.collection.JavaConverters._
-import scala.io.Source
 
 object ScalaParserImpl {
 
-  val LineDelimiter: Pattern = Pattern.compile("[\\r\\n]+")
-
-  private val TabSplitter = (line: String) => line.split("\t", -1) // allow empty values
-  private val CommaSplitter = (line: String) => line.split(",", -1) // allow empty values
+  private val Tab = '\t'
+  private val Comma = ','
 
   // -- Tab Delimited Values
 
   def parseViaReaderTsv(reader: Reader, timestampPattern: Option[String]): DataFrame = {
-    parseViaReader(reader, timestampPattern, TabSplitter, TabSplitter, TabSplitter)
+    parseViaReader(reader, timestampPattern, Tab)
   }
 
   def parseViaSchemaTsv(schema: Schema, parentDir: File): DataFrame = {
-    parseViaSchema(schema, parentDir, TabSplitter)
+    parseViaSchema(schema, parentDir, Tab)
   }
 
-  def parseViaSchemaTsv(schema: Schema): DataFrame = parseViaSchema(schema, parseViaFieldsTsv)
+  def parseViaSchemaTsv(schema: Schema): DataFrame = parseViaSchema(schema, Tab)
 
-  private def parseViaFieldsTsv(fields: _root_.io.vavr.collection.Seq[Field], lines: java.util.Iterator[String], rowIndexOffset: Int, dataFrameMetaData: Map[String, String]): DataFrame = {
-    parseViaFields(fields, lines, rowIndexOffset, dataFrameMetaData, TabSplitter)
+  def parseViaSchemaTsvInParallel(schema: Schema, parentDir: File): DataFrame = {
+    ParallelParser.parse(schema, parentDir, Tab, ForkJoinPool.commonPool(), ParallelParser.MinChunkSize)
   }
 
   // -- Comma Separated Values
 
   def parseViaReaderCsv(reader: Reader, timestampPattern: Option[String]): DataFrame = {
-    parseViaReader(reader, timestampPattern, CommaSplitter, CommaSplitter, CommaSplitter)
+    parseViaReader(reader, timestampPattern, Comma)
   }
 
   def parseViaSchemaCsv(schema: Schema, parentDir: File): DataFrame = {
-    parseViaSchema(schema, parentDir, CommaSplitter)
+    parseViaSchema(schema, parentDir, Comma)
   }
 
-  def parseViaSchemaCsv(schema: Schema): DataFrame = parseViaSchema(schema, parseViaFieldsCsv)
+  def parseViaSchemaCsv(schema: Schema): DataFrame = parseViaSchema(schema, Comma)
 
-  private def parseViaFieldsCsv(fields: _root_.io.vavr.collection.Seq[Field], lines: java.util.Iterator[String], rowIndexOffset: Int, dataFrameMetaData: Map[String, String]): DataFrame = {
-    parseViaFields(fields, lines, rowIndexOffset, dataFrameMetaData, CommaSplitter)
+  def parseViaSchemaCsvInParallel(schema: Schema, parentDir: File): DataFrame = {
+    ParallelParser.parse(schema, parentDir, Comma, ForkJoinPool.commonPool(), ParallelParser.MinChunkSize)
   }
 
   // -- Generic Column/Type/Value extraction
 
-  private def parseViaReader(reader: Reader,
-                             timestampPattern: Option[String],
-                             columnNameExtractor: (String) => Array[String],
-                             columnTypeExtractor: (String) => Array[String],
-                             valueExtractor: (String) => Array[String]): DataFrame = {
-    val scanner: Scanner = new Scanner(reader)
-    scanner.useDelimiter(LineDelimiter)
-    val lines = scanner
+  private def parseViaReader(reader: Reader, timestampPattern: Option[String], separator: Char): DataFrame = {
+    val tokenizer = new Tokenizer(reader, separator, skipBlankLines = true)
 
-    val columnNames = columnNameExtractor(lines.next())
-    val columnTypes = columnTypeExtractor(lines.next())
+    val columnNames = nextCells(tokenizer)
+    val columnTypes = nextCells(tokenizer)
 
     val fields: collection.List[Field] = createFields(columnNames, columnTypes, timestampPattern)
 
-    parseViaFields(fields, lines, 2, HashMap.empty(), valueExtractor)
+    parseViaFields(fields, tokenizer, 2, HashMap.empty())
+
+  }
 
+  private def nextCells(tokenizer: Tokenizer): Array[String] = {
+    if (!tokenizer.nextLine()) {
+      throw new NoSuchElementException()
+    }
+    Array.tabulate(tokenizer.cellCount)(tokenizer.cell)
   }
 
   private def createFields(columnNames: Array[String], columnTypes: Array[String], timestampFormat: Option[String]) = {
@@ -104,82 +101,111 @@ object ScalaParserImpl {
     _root_.io.vavr.collection.List.ofAll[Field](fields.toIterable.asJava)
   }
 
-  private def parseViaSchema(schema: Schema, parentDir: File, valueExtractor: (String) => Array[String]): DataFrame = {
-    val fields = schema.getFields
-    val source = schema.getCharsetName.asScala match {
-      case Some(charsetName) => Source.fromFile(new File(parentDir, schema.getDataFileName), charsetName)
-      case None => Source.fromFile(new File(parentDir, schema.getDataFileName))
-    }
+  private[impl] def charsetOf(schema: Schema): Charset = schema.getCharsetName.asScala match {
+    case Some(charsetName) => Charset.forName(charsetName)
+    case None => Charset.defaultCharset()
+  }
+
+  private[impl] def parseViaSchema(schema: Schema, parentDir: File, separator: Char): DataFrame = {
+    val charset = charsetOf(schema)
+    // blank lines are kept (i.e. reported as rows with a single empty value), malformed input is reported
+    val inputStream = new FileInputStream(new File(parentDir, schema.getDataFileName))
     try {
-      val lines = source.getLines()
-      parseViaFields(fields, lines.asJava, 0, schema.getMetaData, valueExtractor)
+      if (StringDecoder.supports(charset)) {
+        // raw bytes are tokenized right out of the mapped file, only string cells are decoded
+        val channel = inputStream.getChannel
+        val tokenizer = new ByteTokenizer(new MappedInputStream(channel, 0, channel.size), separator, skipBlankLines = false)
+        parseViaFields(schema.getFields, tokenizer, new StringDecoder(charset), 0, schema.getMetaData)
+      } else {
+        val tokenizer = new Tokenizer(new InputStreamReader(inputStream, charset.newDecoder()), separator, skipBlankLines = false)
+        parseViaFields(schema.getFields, tokenizer, 0, schema.getMetaData)
+      }
     } finally {
-      source.close()
+      inputStream.close()
     }
   }
 
-  private def parseViaSchema(schema: Schema, parseLogic: (_root_.io.vavr.collection.Seq[Field], java.util.Iterator[String], Int, Map[String, String]) => DataFrame): DataFrame = {
+  private def parseViaSchema(schema: Schema, separator: Char): DataFrame = {
     val inputStream = ScalaParserImpl.getClass.getResourceAsStream(schema.getDataFileName)
-    val scanner = schema.getCharsetName.asScala match {
-      case Some(charsetName) => new Scanner(inputStream, charsetName)
-      case None => new Scanner(inputStream)
+    val reader = schema.getCharsetName.asScala match {
+      case Some(charsetName) => new InputStreamReader(inputStream, charsetName)
+      case None => new InputStreamReader(inputStream)
     }
     try {
-      scanner.useDelimiter(ScalaParserImpl.LineDelimiter)
-      parseLogic(schema.getFields, scanner, 0, schema.getMetaData)
+      parseViaFields(schema.getFields, new Tokenizer(reader, separator, skipBlankLines = true), 0, schema.getMetaData)
     } finally {
-      if (inputStream != null) inputStream.close()
-      if (scanner != null) scanner.close()
+      reader.close()
     }
   }
 
-  private def parseViaFields(fields: _root_.io.vavr.collection.Seq[Field], lines: java.util.Iterator[String], rowIndexOffset: Int, dataFrameMetaData: Map[String, String], valueExtractor: (String) => Array[String]): DataFrame = {
-    val scalaFields = fields.toJavaList.asScala
-    val accumulators = scalaFields.map(createAcc)
+  private[impl] def parseViaFields(fields: _root_.io.vavr.collection.Seq[Field], tokenizer: Tokenizer, rowIndexOffset: Int, dataFrameMetaData: Map[String, String]): DataFrame = {
+    val accumulators = fields.toJavaList.asScala.map(createAcc).toArray
 
     var rowIndex = 1
-    for (line <- lines.asScala) {
-      val values = valueExtractor(line)
-
-      if (values.length != accumulators.length) {
-        val rowIndexForHumans = rowIndex + rowIndexOffset
-        val plural = if (values.length > 1) "s" else ""
-        val msg = s"Row '$rowIndexForHumans' contains '${values.length}' value$plural (but should match column count '${accumulators.length}')"
-        throw new scala.IllegalArgumentException(msg)
+    while (tokenizer.nextLine()) {
+      val valueCount = tokenizer.cellCount
+      checkValueCount(rowIndex + rowIndexOffset, valueCount, accumulators.length)
+
+      // cells are handed over as buffer ranges, i.e. accumulators only create strings where needed
+      val chars = tokenizer.chars
+      var i = 0
+      while (i < valueCount) {
+        accumulators(i).addValue(chars, tokenizer.cellOffset(i), tokenizer.cellLength(i))
+        i += 1
       }
+      rowIndex += 1
+    }
+    build(accumulators, dataFrameMetaData)
+  }
 
-      accumulators.zip(values).map(t => t._1.addValue(t._2))
+  private[impl] def parseViaFields(fields: _root_.io.vavr.collection.Seq[Field], tokenizer: ByteTokenizer, strings: StringDecoder, rowIndexOffset: Int, dataFrameMetaData: Map[String, String]): DataFrame = {
+    val accumulators = fields.toJavaList.asScala.map(createAcc).toArray
+
+    var rowIndex = 1
+    while (tokenizer.nextLine()) {
+      val valueCount = tokenizer.cellCount
+      checkValueCount(rowIndex + rowIndexOffset, valueCount, accumulators.length)
+
+      // cells are handed over as raw byte ranges, i.e. only string cells are ever decoded
+      val bytes = tokenizer.bytes
+      var i = 0
+      while (i < valueCount) {
+        accumulators(i).addValue(bytes, tokenizer.cellOffset(i), tokenizer.cellLength(i), strings)
+        i += 1
+      }
       rowIndex += 1
     }
-    val columns = accumulators.map(_.build()).asJava
+    build(accumulators, dataFrameMetaData)
+  }
+
+  private def checkValueCount(rowIndexForHumans: Int, valueCount: Int, columnCount: Int): Unit = {
+    if (valueCount != columnCount) {
+      throw new ColumnCountMismatchException(rowIndexForHumans, valueCount, columnCount)
+    }
+  }
+
+  private def build(accumulators: Array[Acc[_ <: Column[_]]], dataFrameMetaData: Map[String, String]): DataFrame = {
+    val columns = accumulators.toSeq.map(_.build()).asJava
     DataFrame.ofAll(columns).withMetaData(dataFrameMetaData)
   }
 
-  private def createAcc(field: Field): Acc[_, _ <: Column[_]] = {
+  private def createAcc(field: Field): Acc[_ <: Column[_]] = {
     val acc = field.getType match {
-      case ColumnType.BOOLEAN => new Acc[java.lang.Boolean, BooleanColumn](BooleanColumn.builder(BooleanColumnId.of(field.getName)), (s) => java.lang.Boolean.parseBoolean(s))
-      case ColumnType.CATEGORY => new Acc[java.lang.String, CategoryColumn](CategoryColumn.builder(CategoryColumnId.of(field.getName)), (s) => s)
-      case ColumnType.DOUBLE => new Acc[java.lang.Double, DoubleColumn](DoubleColumn.builder(DoubleColumnId.of(field.getName)), (s) => s.toDouble)
-      case ColumnType.INT => new Acc[java.lang.Integer, IntColumn](IntColumn.builder(IntColumnId.of(field.getName)), (s) => s.toInt)
-      case ColumnType.LONG => new Acc[java.lang.Long, LongColumn](LongColumn.builder(LongColumnId.of(field.getName)), (s) => s.toLong)
+      case ColumnType.BOOLEAN => new BooleanAcc(BooleanColumn.builder(BooleanColumnId.of(field.getName)))
+      case ColumnType.CATEGORY => new CategoryAcc(CategoryColumn.builder(CategoryColumnId.of(field.getName)))
+      case ColumnType.DOUBLE => new DoubleAcc(DoubleColumn.builder(DoubleColumnId.of(field.getName)))
+      case ColumnType.INT => new IntAcc(IntColumn.builder(IntColumnId.of(field.getName)))
+      case ColumnType.LONG => new LongAcc(LongColumn.builder(LongColumnId.of(field.getName)))
       case ColumnType.TIMESTAMP => createTimestampAcc(field)
-      case _ => new Acc(StringColumn.builder(StringColumnId.of(field.getName)), (s) => s)
+      case _ => new ObjectAcc(StringColumn.builder(StringColumnId.of(field.getName)), (s) => s)
     }
     acc.putAllMetaData(field.getMetaData)
   }
 
-  private def createTimestampAcc(field: Field): Acc[Instant, TimestampColumn] = {
-    val formatter: Option[DateTimeFormatter] = field.getFormat.map((pattern: String) => DateTimeFormatter.ofPattern(pattern))
-    val builder = TimestampColumn.builder(TimestampColumnId.of(field.getName))
-    val parseLogic: (String) => Instant = s => {
-      if (formatter.isDefined) {
-        val dateTime = LocalDateTime.from(formatter.get().parse(s))
-        dateTime.atZone(ZoneId.systemDefault).toInstant
-      } else {
-        Instant.parse(s)
-      }
-    }
-    new Acc[Instant, TimestampColumn](builder, parseLogic)
+  private def createTimestampAcc(field: Field): Acc[TimestampColumn] = {
+    // the zone (and thus its offset rules) is resolved once per column
+    val decoder = TimestampDecoder.of(field.getFormat, ZoneId.systemDefault)
+    new TimestampAcc(TimestampColumn.builder(TimestampColumnId.of(field.getName)), decoder)
   }
 
   implicit class VavrOptionConverter[A](val underlying: Option[A]) extends AnyVal {
@@ -189,21 +215,213 @@ object ScalaParserImpl {
 }
 
 /**
-  * Accumulates values by delegating to type-specific builders. The given 'parseLogic' abstracts the conversion from
-  * textual to type-specific values.
+  * Signals a row whose number of values does not match the column count (with a 1-based row index for humans).
   */
-class Acc[V, C <: Column[_]](builder: Column.Builder[V, C], parseLogic: (String) => (V)) {
+class ColumnCountMismatchException(val rowIndex: Int, val valueCount: Int, val columnCount: Int)
+  extends IllegalArgumentException(s"Row '$rowIndex' contains '$valueCount' value${if (valueCount > 1) "s" else ""} (but should match column count '$columnCount')") {
 
-  def addValue(stringValue: String): Acc[V, C] = {
-    builder.add(parseLogic.apply(stringValue))
-    this
+  def withRowIndexOffset(rowIndexOffset: Int): ColumnCountMismatchException = {
+    new ColumnCountMismatchException(rowIndex + rowIndexOffset, valueCount, columnCount)
   }
 
-  def putAllMetaData(metaData: _root_.io.vavr.collection.Map[String, String]): Acc[V, C] = {
+}
+
+/**
+  * Accumulates values by delegating to type-specific builders. Sub-classes abstract the conversion from textual to
+  * type-specific values.
+  */
+abstract class Acc[C <: Column[_]](builder: Column.Builder[_, C]) {
+
+  def addValue(stringValue: String): Acc[C]
+
+  /**
+    * Adds the value given as a range of chars, which is only valid during this call (the default creates a string).
+    */
+  def addValue(chars: Array[Char], offset: Int, length: Int): Acc[C] = addValue(new String(chars, offset, length))
+
+  /**
+    * Adds the value given as a range of raw bytes, which is only valid during this call (the default decodes a string).
+    */
+  def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[C] = {
+    addValue(strings.decode(bytes, offset, length))
+  }
+
+  def putAllMetaData(metaData: _root_.io.vavr.collection.Map[String, String]): Acc[C] = {
     builder.putAllMetaData(metaData)
     this
   }
 
   def build(): C = builder.build()
 
-}
\ No newline at end of file
+}
+
+/**
+  * Accumulates object values, the given 'parseLogic' converts from textual to type-specific values.
+  */
+class ObjectAcc[V, C <: Column[_]](builder: Column.Builder[V, C], parseLogic: (String) => (V)) extends Acc[C](builder) {
+
+  override def addValue(stringValue: String): Acc[C] = {
+    builder.add(parseLogic.apply(stringValue))
+    this
+  }
+
+}
+
+/**
+  * Accumulates categories, which typically recur in many rows: the most recent category per slot (keyed by a hash of
+  * the raw bytes) is cached, i.e. recurring categories are neither decoded again, nor hashed again by the dictionary
+  * (strings cache their hash).
+  */
+class CategoryAcc(builder: CategoryColumn.Builder) extends ObjectAcc[java.lang.String, CategoryColumn](builder, (s) => s) {
+
+  private val CacheSize = 256
+
+  private val cachedBytes = new Array[Array[Byte]](CacheSize)
+  private val cachedValues = new Array[String](CacheSize)
+
+  override def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[CategoryColumn] = {
+    val slot = hash(bytes, offset, length) & (CacheSize - 1)
+    val cached = cachedBytes(slot)
+    if (cached != null && equalBytes(cached, bytes, offset, length)) {
+      builder.add(cachedValues(slot))
+    } else {
+      val value = strings.decode(bytes, offset, length)
+      cachedBytes(slot) = java.util.Arrays.copyOfRange(bytes, offset, offset + length)
+      cachedValues(slot) = value
+      builder.add(value)
+    }
+    this
+  }
+
+  private def hash(bytes: Array[Byte], offset: Int, length: Int): Int = {
+    var h = length
+    var i = offset
+    while (i < offset + length) {
+      h = 31 * h + bytes(i)
+      i += 1
+    }
+    h ^ (h >>> 16)
+  }
+
+  private def equalBytes(cached: Array[Byte], bytes: Array[Byte], offset: Int, length: Int): Boolean = {
+    if (cached.length != length) {
+      return false
+    }
+    var i = 0
+    while (i < length) {
+      if (cached(i) != bytes(offset + i)) {
+        return false
+      }
+      i += 1
+    }
+    true
+  }
+
+}
+
+// Primitive accumulators use the unboxed builder methods (i.e. parsed values are never boxed), empty values are
+// recorded as missing values
+
+class IntAcc(builder: IntColumn.Builder) extends Acc[IntColumn](builder) {
+
+  override def addValue(stringValue: String): Acc[IntColumn] = {
+    if (stringValue.isEmpty) builder.addNull() else builder.addInt(java.lang.Integer.parseInt(stringValue))
+    this
+  }
+
+  override def addValue(chars: Array[Char], offset: Int, length: Int): Acc[IntColumn] = {
+    if (length == 0) builder.addNull() else builder.addInt(Decoders.parseInt(chars, offset, length))
+    this
+  }
+
+  override def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[IntColumn] = {
+    if (length == 0) builder.addNull() else builder.addInt(Decoders.parseInt(bytes, offset, length))
+    this
+  }
+
+}
+
+class LongAcc(builder: LongColumn.Builder) extends Acc[LongColumn](builder) {
+
+  override def addValue(stringValue: String): Acc[LongColumn] = {
+    if (stringValue.isEmpty) builder.addNull() else builder.addLong(java.lang.Long.parseLong(stringValue))
+    this
+  }
+
+  override def addValue(chars: Array[Char], offset: Int, length: Int): Acc[LongColumn] = {
+    if (length == 0) builder.addNull() else builder.addLong(Decoders.parseLong(chars, offset, length))
+    this
+  }
+
+  override def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[LongColumn] = {
+    if (length == 0) builder.addNull() else builder.addLong(Decoders.parseLong(bytes, offset, length))
+    this
+  }
+
+}
+
+class DoubleAcc(builder: DoubleColumn.Builder) extends Acc[DoubleColumn](builder) {
+
+  override def addValue(stringValue: String): Acc[DoubleColumn] = {
+    if (stringValue.isEmpty) builder.addNull() else builder.addDouble(java.lang.Double.parseDouble(stringValue))
+    this
+  }
+
+  override def addValue(chars: Array[Char], offset: Int, length: Int): Acc[DoubleColumn] = {
+    if (length == 0) builder.addNull() else builder.addDouble(Decoders.parseDouble(chars, offset, length))
+    this
+  }
+
+  override def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[DoubleColumn] = {
+    if (length == 0) builder.addNull() else builder.addDouble(Decoders.parseDouble(bytes, offset, length))
+    this
+  }
+
+}
+
+class BooleanAcc(builder: BooleanColumn.Builder) extends Acc[BooleanColumn](builder) {
+
+  override def addValue(stringValue: String): Acc[BooleanColumn] = {
+    builder.addBoolean(java.lang.Boolean.parseBoolean(stringValue))
+    this
+  }
+
+  override def addValue(chars: Array[Char], offset: Int, length: Int): Acc[BooleanColumn] = {
+    builder.addBoolean(Decoders.parseBoolean(chars, offset, length))
+    this
+  }
+
+  override def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[BooleanColumn] = {
+    builder.addBoolean(Decoders.parseBoolean(bytes, offset, length))
+    this
+  }
+
+}
+
+class TimestampAcc(builder: TimestampColumn.Builder, decoder: TimestampDecoder) extends Acc[TimestampColumn](builder) {
+
+  override def addValue(stringValue: String): Acc[TimestampColumn] = {
+    addValue(stringValue.toCharArray, 0, stringValue.length)
+  }
+
+  override def addValue(chars: Array[Char], offset: Int, length: Int): Acc[TimestampColumn] = {
+    if (length == 0) {
+      builder.addNull()
+    } else {
+      decoder.decode(chars, offset, length)
+      builder.addEpochSecond(decoder.epochSecond, decoder.nano)
+    }
+    this
+  }
+
+  override def addValue(bytes: Array[Byte], offset: Int, length: Int, strings: StringDecoder): Acc[TimestampColumn] = {
+    if (length == 0) {
+      builder.addNull()
+    } else {
+      decoder.decode(bytes, offset, length)
+      builder.addEpochSecond(decoder.epochSecond, decoder.nano)
+    }
+    this
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl
+
+import java.nio.ByteBuffer
+import java.nio.charset.{Charset, CharsetDecoder, StandardCharsets}
+
+object StringDecoder {
+
+  /**
+    * Whether input in the given charset can be tokenized as raw bytes (see [[ByteTokenizer]]).
+    */
+  def supports(charset: Charset): Boolean = {
+    charset == StandardCharsets.UTF_8 || charset == StandardCharsets.US_ASCII || charset == StandardCharsets.ISO_8859_1
+  }
+
+}
+
+/**
+  * Decodes string cells from raw bytes of one of the supported charsets: pure ASCII cells (i.e. the vast majority in
+  * most data sets) are widened byte by byte, all others go through a (reused) decoder, which reports malformed input
+  * just like the char based parsing does.
+  */
+final class StringDecoder(charset: Charset) {
+
+  require(StringDecoder.supports(charset), s"Unsupported charset '$charset'")
+
+  private val decoder: CharsetDecoder = charset.newDecoder()
+
+  def decode(bytes: Array[Byte], offset: Int, length: Int): String = {
+    if (charset == StandardCharsets.ISO_8859_1 || Decoders.isAscii(bytes, offset, length)) {
+      Decoders.latin1String(bytes, offset, length)
+    } else {
+      decoder.decode(ByteBuffer.wrap(bytes, offset, length)).toString
+    }
+  }
+
+}
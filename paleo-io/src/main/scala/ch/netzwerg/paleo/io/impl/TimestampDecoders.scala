@@ -0,0 +1,421 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.io.impl
+
+import java.time.format.DateTimeFormatter
+import java.time.{Instant, LocalDateTime, ZoneId, ZoneOffset}
+
+import io.vavr.control.Option
+
+/**
+  * Decodes textual timestamps from ranges of chars or (ASCII compatible) bytes into epoch seconds and nanos, which are
+  * available via `epochSecond` and `nano` after each call (i.e. no objects are created on the fast paths). Decoders
+  * are stateful and therefore used by one column only.
+  */
+abstract class TimestampDecoder {
+
+  protected var decodedEpochSecond = 0L
+  protected var decodedNano = 0
+
+  def epochSecond: Long = decodedEpochSecond
+
+  def nano: Int = decodedNano
+
+  def decode(chars: Array[Char], offset: Int, length: Int): Unit = decode(chars, null, offset, length)
+
+  def decode(bytes: Array[Byte], offset: Int, length: Int): Unit = decode(null, bytes, offset, length)
+
+  protected def decode(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Unit
+
+  protected final def set(instant: Instant): Unit = {
+    decodedEpochSecond = instant.getEpochSecond
+    decodedNano = instant.getNano
+  }
+
+}
+
+object TimestampDecoder {
+
+  /** Format of timestamps given as milliseconds since the epoch. */
+  val EpochMillis = "epochMillis"
+
+  /** Format of timestamps given as seconds since the epoch. */
+  val EpochSeconds = "epochSeconds"
+
+  private val NanoScale = Array(1, 100000000, 10000000, 1000000, 100000, 10000, 1000, 100, 10, 1)
+
+  private val DaysFromYearZeroTo1970 = 719528L
+
+  private[impl] val Invalid = Long.MinValue
+
+  /**
+    * Returns a decoder for the given format: ISO-8601 instants if there is no format, the epoch formats above, or a
+    * `DateTimeFormatter` pattern of local date-times in the given zone.
+    */
+  def of(format: Option[String], zone: ZoneId): TimestampDecoder = {
+    if (format.isEmpty) {
+      new InstantDecoder
+    } else format.get match {
+      case EpochMillis => new EpochDecoder(1000)
+      case EpochSeconds => new EpochDecoder(1)
+      case pattern => new LocalDateTimeDecoder(pattern, zone)
+    }
+  }
+
+  /**
+    * Returns the value of `count` (at most 9) decimal digits, or -1 if there are non-digits.
+    */
+  private[impl] def digits(chars: Array[Char], bytes: Array[Byte], offset: Int, count: Int): Int = {
+    var value = 0
+    var i = 0
+    while (i < count) {
+      val digit = Decoders.charAt(chars, bytes, offset + i) - '0'
+      if (digit < 0 || digit > 9) {
+        return -1
+      }
+      value = value * 10 + digit
+      i += 1
+    }
+    value
+  }
+
+  /**
+    * Scales a fraction of the given number of digits to nanos.
+    */
+  private[impl] def toNano(fraction: Int, digitCount: Int): Int = fraction * NanoScale(digitCount)
+
+  /**
+    * Returns the seconds of a local date-time since 1970-01-01T00:00, or `Invalid` if a field is out of range (which
+    * includes -1 for fields which are not made up of digits).
+    */
+  private[impl] def toLocalEpochSecond(year: Int, month: Int, day: Int, hour: Int, minute: Int, second: Int): Long = {
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) ||
+      hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+      Invalid
+    } else {
+      toEpochDay(year, month, day) * 86400 + hour * 3600 + minute * 60 + second
+    }
+  }
+
+  private def isLeapYear(year: Int): Boolean = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0)
+
+  private def lengthOfMonth(year: Int, month: Int): Int = month match {
+    case 2 => if (isLeapYear(year)) 29 else 28
+    case 4 | 6 | 9 | 11 => 30
+    case _ => 31
+  }
+
+  // same as LocalDate.toEpochDay (for non-negative years)
+  private def toEpochDay(year: Int, month: Int, day: Int): Long = {
+    val y = year.toLong
+    var total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400
+    total += (367 * month - 362) / 12
+    total += day - 1
+    if (month > 2) {
+      total -= (if (isLeapYear(year)) 1 else 2)
+    }
+    total - DaysFromYearZeroTo1970
+  }
+
+}
+
+/**
+  * Decodes ISO-8601 instants (as accepted by `Instant.parse`, e.g. "2016-03-01T12:30:00.250Z"). Timestamps with a
+  * four digit year are decoded directly, everything else falls back to `Instant.parse`.
+  */
+final class InstantDecoder extends TimestampDecoder {
+
+  override protected def decode(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Unit = {
+    if (!decodeFast(chars, bytes, offset, length)) {
+      set(Instant.parse(Decoders.toString(chars, bytes, offset, length)))
+    }
+  }
+
+  // layout: yyyy-MM-ddTHH:mm:ss[.f{0,9}]Z
+  private def decodeFast(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Boolean = {
+    if (length < 20 || length > 30 ||
+      !literal(chars, bytes, offset + 4, '-') || !literal(chars, bytes, offset + 7, '-') ||
+      !literal(chars, bytes, offset + 10, 'T') || !literal(chars, bytes, offset + 13, ':') ||
+      !literal(chars, bytes, offset + 16, ':') || !literal(chars, bytes, offset + length - 1, 'Z')) {
+      return false
+    }
+    val epochSecond = TimestampDecoder.toLocalEpochSecond(
+      TimestampDecoder.digits(chars, bytes, offset, 4),
+      TimestampDecoder.digits(chars, bytes, offset + 5, 2),
+      TimestampDecoder.digits(chars, bytes, offset + 8, 2),
+      TimestampDecoder.digits(chars, bytes, offset + 11, 2),
+      TimestampDecoder.digits(chars, bytes, offset + 14, 2),
+      TimestampDecoder.digits(chars, bytes, offset + 17, 2))
+    if (epochSecond == TimestampDecoder.Invalid) {
+      return false
+    }
+    var nano = 0
+    if (length > 20) {
+      val fractionDigits = length - 21
+      val fraction = TimestampDecoder.digits(chars, bytes, offset + 20, fractionDigits)
+      if (!literal(chars, bytes, offset + 19, '.') || fraction < 0) {
+        return false
+      }
+      nano = TimestampDecoder.toNano(fraction, fractionDigits)
+    }
+    decodedEpochSecond = epochSecond
+    decodedNano = nano
+    true
+  }
+
+  // letters are case-insensitive (like the ISO instant formatter)
+  private def literal(chars: Array[Char], bytes: Array[Byte], index: Int, expected: Char): Boolean = {
+    val c = Decoders.charAt(chars, bytes, index)
+    c == expected || (Character.isLetter(expected) && c == Character.toLowerCase(expected))
+  }
+
+}
+
+/**
+  * Decodes integral numbers of seconds or milliseconds since the epoch.
+  */
+final class EpochDecoder(unitsPerSecond: Int) extends TimestampDecoder {
+
+  override protected def decode(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Unit = {
+    val value = if (chars != null) Decoders.parseLong(chars, offset, length) else Decoders.parseLong(bytes, offset, length)
+    decodedEpochSecond = Math.floorDiv(value, unitsPerSecond.toLong)
+    decodedNano = (Math.floorMod(value, unitsPerSecond.toLong) * (1000000000L / unitsPerSecond)).toInt
+  }
+
+}
+
+/**
+  * Decodes local date-times of a `DateTimeFormatter` pattern, which are then converted to instants in the given zone
+  * (exactly like `LocalDateTime.atZone`). Patterns made up of fixed width numeric fields only (e.g.
+  * "yyyy-MM-dd HH:mm:ss" or "yyyyMMddHHmmss.SSS") are compiled into a layout of digit positions, all other patterns
+  * (and values which do not fit the layout) fall back to the formatter.
+  */
+final class LocalDateTimeDecoder(pattern: String, zone: ZoneId) extends TimestampDecoder {
+
+  private val formatter = DateTimeFormatter.ofPattern(pattern)
+  private val layout = LocalDateTimeLayout.compile(pattern)
+  private val offsets = new ZoneOffsets(zone)
+
+  override protected def decode(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Unit = {
+    if (layout == null || !decodeFast(chars, bytes, offset, length)) {
+      val dateTime = LocalDateTime.from(formatter.parse(Decoders.toString(chars, bytes, offset, length)))
+      decodedEpochSecond = offsets.toEpochSecond(dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano)
+      decodedNano = dateTime.getNano
+    }
+  }
+
+  private def decodeFast(chars: Array[Char], bytes: Array[Byte], offset: Int, length: Int): Boolean = {
+    if (length != layout.length || !layout.matchesLiterals(chars, bytes, offset)) {
+      return false
+    }
+    val fields = layout.fieldOffsets
+    val year = TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Year), 4)
+    if (layout.yearOfEra && year < 1) {
+      return false // there is no year-of-era 0 (i.e. the formatter rejects it)
+    }
+    val localEpochSecond = TimestampDecoder.toLocalEpochSecond(
+      year,
+      TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Month), 2),
+      TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Day), 2),
+      TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Hour), 2),
+      TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Minute), 2),
+      if (fields(LocalDateTimeLayout.Second) < 0) 0 else TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Second), 2))
+    if (localEpochSecond == TimestampDecoder.Invalid) {
+      return false
+    }
+    var nano = 0
+    if (layout.fractionDigits > 0) {
+      val fraction = TimestampDecoder.digits(chars, bytes, offset + fields(LocalDateTimeLayout.Fraction), layout.fractionDigits)
+      if (fraction < 0) {
+        return false
+      }
+      nano = TimestampDecoder.toNano(fraction, layout.fractionDigits)
+    }
+    decodedEpochSecond = offsets.toEpochSecond(localEpochSecond, nano)
+    decodedNano = nano
+    true
+  }
+
+}
+
+/**
+  * Positions of fixed width numeric fields and literals within a date-time pattern, where `yearOfEra` denotes a "yyyy"
+  * (rather than a "uuuu") year field.
+  */
+private[impl] final class LocalDateTimeLayout(val fieldOffsets: Array[Int], val fractionDigits: Int, val length: Int,
+                                              val yearOfEra: Boolean, literalOffsets: Array[Int], literals: Array[Char]) {
+
+  def matchesLiterals(chars: Array[Char], bytes: Array[Byte], offset: Int): Boolean = {
+    var i = 0
+    while (i < literals.length) {
+      if (Decoders.charAt(chars, bytes, offset + literalOffsets(i)) != literals(i)) {
+        return false
+      }
+      i += 1
+    }
+    true
+  }
+
+}
+
+private[impl] object LocalDateTimeLayout {
+
+  val Year = 0
+  val Month = 1
+  val Day = 2
+  val Hour = 3
+  val Minute = 4
+  val Second = 5
+  val Fraction = 6
+
+  /**
+    * Compiles patterns which consist of "yyyy"/"uuuu", "MM", "dd", "HH", "mm", "ss" (optional), "S" to "SSSSSSSSS"
+    * (optional, requires seconds) and literals, or returns null for anything else.
+    */
+  def compile(pattern: String): LocalDateTimeLayout = {
+    val fieldOffsets = Array.fill(7)(-1)
+    var fractionDigits = 0
+    var yearOfEra = false
+    val literalOffsets = new java.util.ArrayList[Integer]()
+    val literals = new StringBuilder
+    var length = 0
+    var i = 0
+    while (i < pattern.length) {
+      val c = pattern.charAt(i)
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+        var count = 1
+        while (i + count < pattern.length && pattern.charAt(i + count) == c) {
+          count += 1
+        }
+        val (field, width) = (c, count) match {
+          case ('y' | 'u', 4) => (Year, 4)
+          case ('M', 2) => (Month, 2)
+          case ('d', 2) => (Day, 2)
+          case ('H', 2) => (Hour, 2)
+          case ('m', 2) => (Minute, 2)
+          case ('s', 2) => (Second, 2)
+          case ('S', n) if n <= 9 => (Fraction, n)
+          case _ => return null
+        }
+        if (fieldOffsets(field) >= 0) {
+          return null
+        }
+        fieldOffsets(field) = length
+        if (field == Fraction) {
+          fractionDigits = width
+        } else if (field == Year) {
+          yearOfEra = c == 'y'
+        }
+        length += width
+        i += count
+      } else if (c == '\'') {
+        // quoted text, where two single quotes denote a single quote
+        var end = i + 1
+        if (end < pattern.length && pattern.charAt(end) == '\'') {
+          literalOffsets.add(length)
+          literals.append('\'')
+          length += 1
+          end += 1
+        } else {
+          var closed = false
+          while (end < pattern.length && !closed) {
+            if (pattern.charAt(end) == '\'' && end + 1 < pattern.length && pattern.charAt(end + 1) == '\'') {
+              literalOffsets.add(length)
+              literals.append('\'')
+              length += 1
+              end += 2
+            } else if (pattern.charAt(end) == '\'') {
+              closed = true
+              end += 1
+            } else {
+              literalOffsets.add(length)
+              literals.append(pattern.charAt(end))
+              length += 1
+              end += 1
+            }
+          }
+          if (!closed) {
+            return null
+          }
+        }
+        i = end
+      } else if ("[]{}#".indexOf(c) >= 0) {
+        return null // optional sections and reserved characters
+      } else {
+        literalOffsets.add(length)
+        literals.append(c)
+        length += 1
+        i += 1
+      }
+    }
+    val required = Array(Year, Month, Day, Hour, Minute)
+    if (required.exists(fieldOffsets(_) < 0) || (fieldOffsets(Fraction) >= 0 && fieldOffsets(Second) < 0)) {
+      return null
+    }
+    val offsets = new Array[Int](literalOffsets.size)
+    for (j <- offsets.indices) {
+      offsets(j) = literalOffsets.get(j)
+    }
+    new LocalDateTimeLayout(fieldOffsets, fractionDigits, length, yearOfEra, offsets, literals.toString.toCharArray)
+  }
+
+}
+
+/**
+  * Converts local date-times to epoch seconds according to the given rules, with the same resolution of gaps and
+  * overlaps as `LocalDateTime.atZone`. The offset of the most recent value is cached along with the window of local
+  * date-times for which it is the only valid offset, i.e. values between two transitions need no lookup of the rules.
+  */
+private[impl] final class ZoneOffsets(zone: ZoneId) {
+
+  private val rules = zone.getRules
+
+  // window of local epoch seconds [start, end) which have exactly one valid offset
+  private var windowStart = Long.MaxValue
+  private var windowEnd = Long.MinValue
+  private var offsetSeconds = 0
+
+  if (rules.isFixedOffset) {
+    windowStart = Long.MinValue
+    windowEnd = Long.MaxValue
+    offsetSeconds = rules.getOffset(Instant.EPOCH).getTotalSeconds
+  }
+
+  def toEpochSecond(localEpochSecond: Long, nano: Int): Long = {
+    if (localEpochSecond >= windowStart && localEpochSecond < windowEnd) {
+      localEpochSecond - offsetSeconds
+    } else {
+      resolve(localEpochSecond, nano)
+    }
+  }
+
+  private def resolve(localEpochSecond: Long, nano: Int): Long = {
+    val epochSecond = LocalDateTime.ofEpochSecond(localEpochSecond, nano, ZoneOffset.UTC).atZone(zone).toEpochSecond
+    val instant = Instant.ofEpochSecond(epochSecond)
+    val offset = rules.getOffset(instant).getTotalSeconds
+    // transitions are on whole seconds, so the one at exactly this instant is found as the previous one
+    val previous = rules.previousTransition(instant.plusSeconds(1))
+    val next = rules.nextTransition(instant)
+    windowStart = if (previous == null) Long.MinValue else {
+      previous.getInstant.getEpochSecond + Math.max(previous.getOffsetBefore.getTotalSeconds, previous.getOffsetAfter.getTotalSeconds)
+    }
+    windowEnd = if (next == null) Long.MaxValue else {
+      next.getInstant.getEpochSecond + Math.min(next.getOffsetBefore.getTotalSeconds, next.getOffsetAfter.getTotalSeconds)
+    }
+    offsetSeconds = offset
+    epochSecond
+  }
+
+}
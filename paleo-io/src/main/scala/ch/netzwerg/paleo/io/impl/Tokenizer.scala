@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl
+
+import java.io.Reader
+
+object Tokenizer {
+
+  val DefaultBufferSize: Int = 64 * 1024
+
+}
+
+/**
+  * Tokenizes character input (see [[LineTokenizer]]), exposing the cells of the current line as ranges of a char
+  * buffer.
+  */
+final class Tokenizer(reader: Reader, separator: Char, skipBlankLines: Boolean, bufferSize: Int)
+  extends LineTokenizer(separator, skipBlankLines) {
+
+  def this(reader: Reader, separator: Char, skipBlankLines: Boolean) = {
+    this(reader, separator, skipBlankLines, Tokenizer.DefaultBufferSize)
+  }
+
+  private var buffer = new Array[Char](bufferSize)
+
+  /**
+    * Returns the buffer which holds the cells of the current line.
+    */
+  def chars: Array[Char] = buffer
+
+  def cell(index: Int): String = new String(buffer, cellOffset(index), cellLength(index))
+
+  override protected def scan(from: Int): Int = {
+    // hot loop: plain cell content
+    val chars = buffer
+    val end = limit
+    val sep = separator
+    var p = from
+    while (p < end && { val c = chars(p); c != sep && c != '\n' && c != '\r' }) {
+      p += 1
+    }
+    p
+  }
+
+  override protected def at(position: Int): Int = buffer(position)
+
+  override protected def capacity: Int = buffer.length
+
+  override protected def moveToStart(from: Int, length: Int): Unit = System.arraycopy(buffer, from, buffer, 0, length)
+
+  override protected def grow(): Unit = buffer = java.util.Arrays.copyOf(buffer, buffer.length * 2)
+
+  override protected def read(offset: Int, length: Int): Int = reader.read(buffer, offset, length)
+
+}
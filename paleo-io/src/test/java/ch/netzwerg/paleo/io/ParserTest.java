@@ -153,6 +153,16 @@ public class ParserTest {
         assertMetaDataParsedCorrectly(df);
     }
 
+    @Test
+    public void tsvFromSchemaFileBasedInParallel() throws IOException {
+        StringReader schemaReader = new StringReader(SCHEMA_FILE_BASED_TSV);
+        Schema schema = Schema.parseJson(schemaReader);
+        File resourceFolder = new File(ParserTest.class.getResource("/data.tsv").getPath()).getParentFile();
+        DataFrame df = Parser.parallelTsv(schema, resourceFolder);
+        assertDataFrameParsedCorrectly(df);
+        assertMetaDataParsedCorrectly(df);
+    }
+
     @Test
     public void tsvFromSchemaInconsistentColumnCount() throws IOException {
         StringReader schemaReader = new StringReader(SCHEMA_INCONSISTENT_COLUMN_COUNT);
@@ -188,6 +198,15 @@ public class ParserTest {
         }
     }
 
+    @Test
+    public void tsvWithMixedLineEndings() {
+        String contents = "First\tAge\r\nString\tInt\r\n\r\nBarack\t55\rHomer\t\n\n\t7";
+        DataFrame df = Parser.tsv(new StringReader(contents));
+        assertEquals(3, df.getRowCount());
+        assertEquals(Array.of("Barack", "Homer", ""), df.getColumn(df.getColumnId(0, ColumnType.STRING)).getValues());
+        assertTrue(df.getColumn(df.getColumnId(1, ColumnType.INT)).isNullAt(1));
+    }
+
     @Test
     public void tsvFromSchemaWithCharset() throws IOException {
         assertSchemaWithCharset(Parser::tsv);
@@ -227,6 +246,16 @@ public class ParserTest {
         assertMetaDataParsedCorrectly(df);
     }
 
+    @Test
+    public void csvFromSchemaFileBasedInParallel() throws IOException {
+        StringReader schemaReader = new StringReader(SCHEMA_FILE_BASED_CSV);
+        Schema schema = Schema.parseJson(schemaReader);
+        File resourceFolder = new File(ParserTest.class.getResource("/data.csv").getPath()).getParentFile();
+        DataFrame df = Parser.parallelCsv(schema, resourceFolder);
+        assertDataFrameParsedCorrectly(df);
+        assertMetaDataParsedCorrectly(df);
+    }
+
     @Test
     public void csvWithEmptyValues() {
         String validButWithEmptyValues =
@@ -240,6 +269,37 @@ public class ParserTest {
         assertEquals(3, df.getRowCount());
     }
 
+    @Test
+    public void csvWithMissingValues() {
+        String withMissingValues =
+                "Age,Population,Height,Date Of Birth,Gender\n" +
+                        "Int,Long,Double,Timestamp,Category\n" +
+                        "42,7093740276,1.74,1975-08-26T12:08:30Z,Female\n" +
+                        ",,,,\n";
+        DataFrame df = Parser.csv(new StringReader(withMissingValues));
+        assertEquals(2, df.getRowCount());
+
+        IntColumn ageColumn = df.getColumn(df.getColumnId(0, ColumnType.INT));
+        assertFalse(ageColumn.isNullAt(0));
+        assertTrue(ageColumn.isNullAt(1));
+
+        LongColumn populationColumn = df.getColumn(df.getColumnId(1, ColumnType.LONG));
+        assertEquals(7093740276L, populationColumn.getValueAt(0));
+        assertTrue(populationColumn.isNullAt(1));
+
+        DoubleColumn heightColumn = df.getColumn(df.getColumnId(2, ColumnType.DOUBLE));
+        assertTrue(heightColumn.isNullAt(1));
+
+        TimestampColumn dateOfBirthColumn = df.getColumn(df.getColumnId(3, ColumnType.TIMESTAMP));
+        assertEquals(Instant.parse("1975-08-26T12:08:30Z"), dateOfBirthColumn.getValueAt(0));
+        assertNull(dateOfBirthColumn.getValueAt(1));
+
+        // empty categories are valid values
+        CategoryColumn genderColumn = df.getColumn(df.getColumnId(4, ColumnType.CATEGORY));
+        assertEquals("", genderColumn.getValueAt(1));
+        assertFalse(genderColumn.hasNulls());
+    }
+
     @Test
     public void csvFromSchemaWithCharset() throws IOException {
         assertSchemaWithCharset(Parser::csv);
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public abstract class AbstractTokenizerTest<T extends LineTokenizer> {
+
+    protected abstract T tokenizer(String input, boolean skipBlankLines, int bufferSize);
+
+    protected abstract String cell(T tokenizer, int index);
+
+    @Test
+    public void blankLines() {
+        String input = "a,b\r\n\r\n,\n\rc";
+        assertEquals(asList(asList("a", "b"), asList("", ""), asList("c")), tokenize(input, true, 64));
+        assertEquals(asList(asList("a", "b"), asList(""), asList("", ""), asList(""), asList("c")), tokenize(input, false, 64));
+        assertEquals(asList(), tokenize("", false, 64));
+        assertEquals(asList(asList("")), tokenize("\n", false, 64));
+    }
+
+    @Test
+    public void linesSpanningBufferBoundaries() {
+        StringBuilder input = new StringBuilder();
+        List<List<String>> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String cell = new String(new char[i % 13]).replace('\0', i % 3 == 0 ? 'ü' : 'x');
+            input.append(i).append(',').append(cell).append(',').append(i % 2 == 0 ? "\r\n" : "\n");
+            expected.add(asList(String.valueOf(i), cell, ""));
+        }
+        assertEquals(expected, tokenize(input.toString(), false, 4));
+    }
+
+    @Test
+    public void carriageReturnAtBufferBoundary() {
+        // the '\n' of "\r\n" is only read with the next fill of the buffer
+        assertEquals(asList(asList("abc"), asList("d"), asList("")), tokenize("abc\r\nd\r\r\n", false, 4));
+    }
+
+    private List<List<String>> tokenize(String input, boolean skipBlankLines, int bufferSize) {
+        return tokenize(tokenizer(input, skipBlankLines, bufferSize));
+    }
+
+    protected List<List<String>> tokenize(T tokenizer) {
+        List<List<String>> lines = new ArrayList<>();
+        while (tokenizer.nextLine()) {
+            List<String> cells = new ArrayList<>();
+            for (int i = 0; i < tokenizer.cellCount(); i++) {
+                cells.add(cell(tokenizer, i));
+            }
+            lines.add(cells);
+        }
+        return lines;
+    }
+
+}
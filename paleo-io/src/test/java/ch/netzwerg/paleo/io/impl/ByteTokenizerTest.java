@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.io.impl;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class ByteTokenizerTest extends AbstractTokenizerTest<ByteTokenizer> {
+
+    private static final StringDecoder UTF_8 = new StringDecoder(StandardCharsets.UTF_8);
+
+    @Override
+    protected ByteTokenizer tokenizer(String input, boolean skipBlankLines, int bufferSize) {
+        ByteArrayInputStream in = new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+        return new ByteTokenizer(in, ',', skipBlankLines, bufferSize);
+    }
+
+    @Override
+    protected String cell(ByteTokenizer tokenizer, int index) {
+        return UTF_8.decode(tokenizer.bytes(), tokenizer.cellOffset(index), tokenizer.cellLength(index));
+    }
+
+    @Test
+    public void mappedWindows() throws IOException {
+        byte[] bytes = "Grüezi,1\r\n2,3\n".getBytes(StandardCharsets.UTF_8);
+        int secondLineStart = "Grüezi,1\r\n".getBytes(StandardCharsets.UTF_8).length;
+        File file = File.createTempFile("paleo-", ".csv");
+        try (FileChannel channel = FileChannel.open(Files.write(file.toPath(), bytes), StandardOpenOption.READ)) {
+            for (int windowSize = 1; windowSize <= bytes.length; windowSize++) {
+                // windows may split multi-byte chars and line terminators
+                assertEquals(asList(asList("Grüezi", "1"), asList("2", "3")), tokenize(new MappedInputStream(channel, 0, bytes.length, windowSize), 4));
+                assertEquals(asList(asList("2", "3")), tokenize(new MappedInputStream(channel, secondLineStart, bytes.length, windowSize), 4));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void decodeStrings() {
+        byte[] bytes = "|Grüezi|".getBytes(StandardCharsets.UTF_8);
+        assertEquals("Grüezi", UTF_8.decode(bytes, 1, bytes.length - 2));
+        assertEquals("Grüezi", new StringDecoder(StandardCharsets.ISO_8859_1).decode("|Grüezi|".getBytes(StandardCharsets.ISO_8859_1), 1, 6));
+        for (StringDecoder decoder : new StringDecoder[]{UTF_8, new StringDecoder(StandardCharsets.US_ASCII)}) {
+            try {
+                decoder.decode(new byte[]{'a', (byte) 0xFC, 'b'}, 0, 3);
+                fail("Exception expected");
+            } catch (Exception e) {
+                assertTrue(e instanceof CharacterCodingException);
+            }
+        }
+        assertFalse(StringDecoder.supports(StandardCharsets.UTF_16));
+    }
+
+    private List<List<String>> tokenize(InputStream in, int bufferSize) {
+        return tokenize(new ByteTokenizer(in, ',', false, bufferSize));
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.io.impl;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DecodersTest {
+
+    @Test
+    public void parseInt() {
+        for (String value : new String[]{"0", "-0", "+7", "42", "-2147483648", "2147483647", "0000000000042"}) {
+            assertEquals(Integer.parseInt(value), Decoders.parseInt(chars(value), 1, value.length()));
+            assertEquals(Integer.parseInt(value), Decoders.parseInt(bytes(value), 1, value.length()));
+        }
+        for (String value : new String[]{"", "-", "2147483648", "1.5", "1e3", " 1", "abc"}) {
+            assertNumberFormatException(() -> Decoders.parseInt(chars(value), 1, value.length()));
+        }
+    }
+
+    @Test
+    public void parseLong() {
+        for (String value : new String[]{"0", "-12", "123456789012345678", "-9223372036854775808", "9223372036854775807"}) {
+            assertEquals(Long.parseLong(value), Decoders.parseLong(chars(value), 1, value.length()));
+            assertEquals(Long.parseLong(value), Decoders.parseLong(bytes(value), 1, value.length()));
+        }
+        assertNumberFormatException(() -> Decoders.parseLong(chars("9223372036854775808"), 1, 19));
+    }
+
+    @Test
+    public void parseDouble() {
+        String[] values = {"0", "-0", "-0.0", "1.5", ".5", "5.", "+1.74", "0.001", "1e22", "1e23", "123.456e-7", "1E-300",
+                "9007199254740993", "3.141592653589793238", "NaN", "-Infinity", "1.5d", " 2.5 ", "0x1p3", "4.9e-324"};
+        for (String value : values) {
+            double expected = Double.parseDouble(value);
+            assertEquals(value, Double.doubleToLongBits(expected), Double.doubleToLongBits(Decoders.parseDouble(chars(value), 1, value.length())));
+            assertEquals(value, Double.doubleToLongBits(expected), Double.doubleToLongBits(Decoders.parseDouble(bytes(value), 1, value.length())));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double expected = i % 2 == 0 ? random.nextDouble() * 100 : Math.round(random.nextGaussian() * 1e6) / 1000.0;
+            String value = String.valueOf(expected);
+            assertEquals(value, expected, Decoders.parseDouble(chars(value), 1, value.length()), 0);
+        }
+        for (String value : new String[]{"", ".", "-", "1e", "1.2.3", "e5"}) {
+            assertNumberFormatException(() -> Decoders.parseDouble(chars(value), 1, value.length()));
+        }
+    }
+
+    @Test
+    public void parseBoolean() {
+        for (String value : new String[]{"true", "TRUE", "tRuE", "false", "", "t", "truee", "1"}) {
+            assertEquals(Boolean.parseBoolean(value), Decoders.parseBoolean(chars(value), 1, value.length()));
+            assertEquals(Boolean.parseBoolean(value), Decoders.parseBoolean(bytes(value), 1, value.length()));
+        }
+    }
+
+    @Test
+    public void decodeInstant() {
+        String[] values = {"1970-01-01T00:00:00Z", "2016-02-29T23:59:59.999999999Z", "2000-12-31t12:30:00.5z", "1600-03-01T00:00:00Z",
+                "2016-01-01T00:00:00.Z", "2016-01-01T24:00:00Z", "+12016-01-01T00:00:00Z", "0000-01-01T00:00:00.123Z"};
+        InstantDecoder decoder = new InstantDecoder();
+        for (String value : values) {
+            Instant expected = Instant.parse(value);
+            decoder.decode(chars(value), 1, value.length());
+            assertEquals(value, expected, Instant.ofEpochSecond(decoder.epochSecond(), decoder.nano()));
+            decoder.decode(bytes(value), 1, value.length());
+            assertEquals(value, expected, Instant.ofEpochSecond(decoder.epochSecond(), decoder.nano()));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            Instant expected = Instant.ofEpochSecond(random.nextInt() * 8L, random.nextInt(1_000_000_000));
+            String value = expected.toString();
+            decoder.decode(chars(value), 1, value.length());
+            assertEquals(value, expected, Instant.ofEpochSecond(decoder.epochSecond(), decoder.nano()));
+        }
+        for (String value : new String[]{"2016-02-30T00:00:00Z", "2016-01-01T00:00:00", "2016-01-01 00:00:00Z", "2016-01-01T00:00:00.1234567890Z"}) {
+            try {
+                decoder.decode(chars(value), 1, value.length());
+                fail("Exception expected for " + value);
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+    }
+
+    // values are embedded in surrounding chars to verify that ranges are respected
+    private static char[] chars(String value) {
+        return ("|" + value + "9").toCharArray();
+    }
+
+    private static byte[] bytes(String value) {
+        return ("|" + value + "9").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void assertNumberFormatException(Runnable runnable) {
+        try {
+            runnable.run();
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+}
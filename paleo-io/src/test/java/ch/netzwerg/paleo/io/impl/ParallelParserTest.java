@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl;
+
+import ch.netzwerg.paleo.*;
+import ch.netzwerg.paleo.schema.Schema;
+import io.vavr.collection.Array;
+import io.vavr.collection.Seq;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class ParallelParserTest {
+
+    private static final String SCHEMA = "{\n" +
+            "  \"dataFileName\": \"data.tsv\",\n" +
+            "  \"charsetName\": \"%s\",\n" +
+            "  \"metaData\": { \"author\": \"netzwerg\" },\n" +
+            "  \"fields\": [\n" +
+            "    { \"name\": \"Name\" },\n" +
+            "    { \"name\": \"Age\", \"type\": \"Int\" },\n" +
+            "    { \"name\": \"Height\", \"type\": \"Double\", \"metaData\": {\"unit\":\"m\"} },\n" +
+            "    { \"name\": \"Time\", \"type\": \"Timestamp\", \"format\": \"yyyy-MM-dd HH:mm:ss\" },\n" +
+            "    { \"name\": \"Group\", \"type\": \"Category\" }\n" +
+            "  ]\n" +
+            "}";
+
+    private static final String[] LINE_TERMINATORS = {"\n", "\r\n", "\r"};
+
+    private File dir;
+    private File file;
+    private ForkJoinPool pool;
+
+    @Before
+    public void before() throws IOException {
+        dir = Files.createTempDirectory("paleo-").toFile();
+        file = new File(dir, "data.tsv");
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void after() {
+        pool.shutdown();
+        file.delete();
+        dir.delete();
+    }
+
+    @Test
+    public void lineAlignedBounds() throws IOException {
+        byte[] bytes = "a\r\nbb\rc\n\nd\r\n\r\reee".getBytes(StandardCharsets.US_ASCII);
+        Files.write(file.toPath(), bytes);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (int chunkCount = 1; chunkCount <= bytes.length + 1; chunkCount++) {
+                long[] bounds = ParallelParser.lineAlignedBounds(channel, chunkCount);
+                assertEquals(0, bounds[0]);
+                assertEquals(bytes.length, bounds[bounds.length - 1]);
+                assertTrue(bounds.length <= chunkCount + 1);
+                for (int i = 1; i < bounds.length - 1; i++) {
+                    int bound = (int) bounds[i];
+                    assertTrue(bound > bounds[i - 1]);
+                    assertTrue(bytes[bound - 1] == '\n' || (bytes[bound - 1] == '\r' && bytes[bound] != '\n'));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void asciiCompatibleCharsets() {
+        assertTrue(ParallelParser.isAsciiCompatible(StandardCharsets.UTF_8));
+        assertTrue(ParallelParser.isAsciiCompatible(StandardCharsets.ISO_8859_1));
+        assertTrue(ParallelParser.isAsciiCompatible(StandardCharsets.US_ASCII));
+        assertFalse(ParallelParser.isAsciiCompatible(StandardCharsets.UTF_16));
+    }
+
+    @Test
+    public void sameAsSequential() throws IOException {
+        writeData(20_000, -1, StandardCharsets.UTF_8);
+        Schema schema = schema(StandardCharsets.UTF_8);
+        DataFrame expected = ScalaParserImpl.parseViaSchemaTsv(schema, dir);
+        for (long minChunkSize : new long[]{1, 4096, 1 << 30}) {
+            assertSameValues(expected, ParallelParser.parse(schema, dir, '\t', pool, minChunkSize));
+        }
+    }
+
+    @Test
+    public void sameAsCharBased() throws IOException {
+        // UTF-8 is tokenized as raw bytes, whereas windows-1252 goes through a reader (even if split into chunks)
+        writeData(20_000, -1, StandardCharsets.UTF_8);
+        DataFrame expected = ScalaParserImpl.parseViaSchemaTsv(schema(StandardCharsets.UTF_8), dir);
+        Charset charset = Charset.forName("windows-1252");
+        assertFalse(StringDecoder.supports(charset));
+        writeData(20_000, -1, charset);
+        assertSameValues(expected, ScalaParserImpl.parseViaSchemaTsv(schema(charset), dir));
+        assertSameValues(expected, ParallelParser.parse(schema(charset), dir, '\t', pool, 4096));
+    }
+
+    @Test
+    public void rowIndexInErrorMessage() throws IOException {
+        writeData(20_000, 12_345, StandardCharsets.UTF_8);
+        Schema schema = schema(StandardCharsets.UTF_8);
+        try {
+            ParallelParser.parse(schema, dir, '\t', pool, 4096);
+            fail("Exception expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Row '12345' contains '4' values (but should match column count '5')", e.getMessage());
+        }
+    }
+
+    private static Schema schema(Charset charset) throws IOException {
+        return Schema.parseJson(new StringReader(String.format(SCHEMA, charset.name())));
+    }
+
+    private void writeData(int rowCount, int invalidRowIndex, Charset charset) throws IOException {
+        Random random = new Random(42);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), charset))) {
+            for (int row = 1; row <= rowCount; row++) {
+                writer.append(row % 5 == 0 ? "Grüezi " + row : "Hi " + row).append('\t');
+                writer.append(row % 17 == 0 ? "" : String.valueOf(random.nextInt(99))).append('\t');
+                writer.append(String.valueOf(1 + random.nextDouble())).append('\t');
+                writer.append(String.format("2016-01-%02d 12:%02d:%02d", 1 + row % 28, row % 60, random.nextInt(60)));
+                if (row != invalidRowIndex) {
+                    // some categories occur in all chunks, others are chunk-specific
+                    writer.append('\t').append(row % 3 == 0 ? "shared" : "Gruppe " + (row / 500 % 2 == 0 ? "ä" : "ö") + row / 500);
+                }
+                writer.append(LINE_TERMINATORS[random.nextInt(LINE_TERMINATORS.length)]);
+            }
+        }
+    }
+
+    private static void assertSameValues(DataFrame expected, DataFrame actual) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        assertEquals(expected.getColumnNames(), actual.getColumnNames());
+        assertEquals(expected.getMetaData(), actual.getMetaData());
+        for (int columnIndex = 0; columnIndex < expected.getColumnCount(); columnIndex++) {
+            Column<?> expectedColumn = expected.getColumns().get(columnIndex);
+            Column<?> actualColumn = actual.getColumns().get(columnIndex);
+            assertEquals(expectedColumn.getMetaData(), actualColumn.getMetaData());
+            assertEquals(values(expectedColumn), values(actualColumn));
+        }
+    }
+
+    private static Seq<?> values(Column<?> column) {
+        Array<Integer> rows = Array.range(0, column.getRowCount());
+        if (column instanceof IntColumn) {
+            IntColumn intColumn = (IntColumn) column;
+            return rows.map(row -> intColumn.isNullAt(row) ? null : intColumn.getValueAt(row));
+        } else if (column instanceof DoubleColumn) {
+            return rows.map(((DoubleColumn) column)::getValueAt);
+        } else if (column instanceof TimestampColumn) {
+            return ((TimestampColumn) column).getValues();
+        } else if (column instanceof CategoryColumn) {
+            return ((CategoryColumn) column).valueStream().toArray();
+        } else {
+            return ((StringColumn) column).getValues();
+        }
+    }
+
+}
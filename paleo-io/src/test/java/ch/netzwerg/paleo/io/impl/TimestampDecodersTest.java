@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.netzwerg.paleo.io.impl;
+
+import io.vavr.control.Option;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimestampDecodersTest {
+
+    private static final String[] PATTERNS = {"yyyy-MM-dd HH:mm:ss", "yyyyMMddHHmmss.SSS", "yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS",
+            "dd.MM.uuuu HH:mm", "MM/dd/yyyy HH:mm:ss", "yyyy-MM-dd hh:mm:ss a"};
+
+    private static final String[] ZONES = {"UTC", "Europe/Zurich", "America/New_York", "Australia/Lord_Howe"};
+
+    @Test
+    public void compileLayouts() {
+        assertNotNull(LocalDateTimeLayout.compile("yyyy-MM-dd HH:mm:ss"));
+        assertNotNull(LocalDateTimeLayout.compile("yyyy-MM-dd'T'HH:mm''ss"));
+        assertNull(LocalDateTimeLayout.compile("yyyy-MM-dd hh:mm:ss a")); // clock hour
+        assertNull(LocalDateTimeLayout.compile("yyyy-MMM-dd HH:mm")); // month text
+        assertNull(LocalDateTimeLayout.compile("yyyy-MM-dd")); // no time
+        assertNull(LocalDateTimeLayout.compile("yyyy-MM-dd HH:mm[:ss]")); // optional section
+        assertNull(LocalDateTimeLayout.compile("yyyy-MM-dd HH:mm.SSS")); // fraction without seconds
+    }
+
+    @Test
+    public void decodeLocalDateTimes() {
+        Random random = new Random(42);
+        for (String pattern : PATTERNS) {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+            for (String zoneId : ZONES) {
+                ZoneId zone = ZoneId.of(zoneId);
+                TimestampDecoder decoder = TimestampDecoder.of(Option.of(pattern), zone);
+                // a random walk of up to a week per step crosses many transitions, in both directions
+                LocalDateTime dateTime = LocalDateTime.of(2016, 1, 1, 0, 0);
+                for (int i = 0; i < 5_000; i++) {
+                    dateTime = dateTime.plusSeconds(random.nextInt(2 * 86400 * 7) - 86400 * 7 + 3600).withNano(random.nextInt(1_000_000_000));
+                    String value = formatter.format(dateTime);
+                    Instant expected = LocalDateTime.from(formatter.parse(value)).atZone(zone).toInstant();
+                    assertDecoded(pattern + " " + zoneId, expected, decoder, value);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void decodeAroundTransitions() {
+        ZoneId zone = ZoneId.of("Europe/Zurich");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        TimestampDecoder decoder = TimestampDecoder.of(Option.of("yyyy-MM-dd HH:mm:ss"), zone);
+        // every minute across the gap (March) and the overlap (October), in alternating directions
+        for (LocalDateTime start : new LocalDateTime[]{LocalDateTime.of(2016, 3, 27, 1, 0), LocalDateTime.of(2016, 10, 30, 1, 0)}) {
+            for (int minute = 0; minute < 180; minute++) {
+                LocalDateTime dateTime = start.plusMinutes(minute % 2 == 0 ? minute : 180 - minute);
+                assertDecoded(dateTime.toString(), dateTime.atZone(zone).toInstant(), decoder, formatter.format(dateTime));
+            }
+        }
+    }
+
+    @Test
+    public void fallBackToFormatter() {
+        TimestampDecoder decoder = TimestampDecoder.of(Option.of("yyyy-MM-dd HH:mm:ss"), ZoneOffset.UTC);
+        // out of range fields are left to the formatter (which resolves them smartly, or fails)
+        assertDecoded("smart", Instant.parse("2016-02-29T10:00:00Z"), decoder, "2016-02-30 10:00:00");
+        assertDecoded("end of day", Instant.parse("2016-02-02T00:00:00Z"), decoder, "2016-02-01 24:00:00");
+        try {
+            decoder.decode("2016-13-01 10:00:00".toCharArray(), 0, 19);
+            fail("Exception expected");
+        } catch (DateTimeException e) {
+            // expected
+        }
+        // there is no year-of-era 0, but there is a proleptic year 0
+        try {
+            decoder.decode("0000-01-01 00:00:00".toCharArray(), 0, 19);
+            fail("Exception expected");
+        } catch (DateTimeException e) {
+            // expected
+        }
+        TimestampDecoder proleptic = TimestampDecoder.of(Option.of("uuuu-MM-dd HH:mm:ss"), ZoneOffset.UTC);
+        assertDecoded("proleptic", LocalDateTime.of(0, 1, 1, 0, 0).toInstant(ZoneOffset.UTC), proleptic, "0000-01-01 00:00:00");
+    }
+
+    @Test
+    public void decodeEpochValues() {
+        TimestampDecoder millis = TimestampDecoder.of(Option.of(TimestampDecoder.EpochMillis()), ZoneOffset.UTC);
+        assertDecoded("millis", Instant.ofEpochMilli(1456789012345L), millis, "1456789012345");
+        assertDecoded("negative millis", Instant.ofEpochMilli(-1), millis, "-1");
+        TimestampDecoder seconds = TimestampDecoder.of(Option.of(TimestampDecoder.EpochSeconds()), ZoneOffset.UTC);
+        assertDecoded("seconds", Instant.ofEpochSecond(1456789012L), seconds, "1456789012");
+    }
+
+    private static void assertDecoded(String message, Instant expected, TimestampDecoder decoder, String value) {
+        decoder.decode(value.toCharArray(), 0, value.length());
+        assertEquals(message + " " + value, expected, Instant.ofEpochSecond(decoder.epochSecond(), decoder.nano()));
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        decoder.decode(bytes, 0, bytes.length);
+        assertEquals(message + " " + value, expected, Instant.ofEpochSecond(decoder.epochSecond(), decoder.nano()));
+    }
+
+}
@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.netzwerg.paleo.io.impl;
+
+import java.io.StringReader;
+
+public class TokenizerTest extends AbstractTokenizerTest<Tokenizer> {
+
+    @Override
+    protected Tokenizer tokenizer(String input, boolean skipBlankLines, int bufferSize) {
+        return new Tokenizer(new StringReader(input), ',', skipBlankLines, bufferSize);
+    }
+
+    @Override
+    protected String cell(Tokenizer tokenizer, int index) {
+        return tokenizer.cell(index);
+    }
+
+}